@@ -24,9 +24,13 @@
 
 package com.greatmancode.legendarybot.commands.affix;
 
+import com.greatmancode.legendarybot.api.commands.CacheableCommand;
+import com.greatmancode.legendarybot.api.commands.CommandCost;
 import com.greatmancode.legendarybot.api.commands.PublicCommand;
 import com.greatmancode.legendarybot.api.commands.ZeroArgsCommand;
+import net.dv8tion.jda.core.MessageBuilder;
 import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.Message;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
 import org.json.simple.parser.ParseException;
 
@@ -35,7 +39,7 @@ import java.io.IOException;
 /**
  * Command that provides this week's Mythic+ Affixes
  */
-public class AffixCommand implements PublicCommand, ZeroArgsCommand {
+public class AffixCommand implements PublicCommand, ZeroArgsCommand, CacheableCommand {
 
     private AffixPlugin plugin;
 
@@ -44,16 +48,28 @@ public class AffixCommand implements PublicCommand, ZeroArgsCommand {
     }
 
     @Override
-    public void execute(MessageReceivedEvent event, String[] args) {
+    public Message render(MessageReceivedEvent event, String[] args) {
         if (plugin.getBot().getGuildSettings(event.getGuild()).getRegionName() == null) {
             event.getChannel().sendMessage(plugin.getBot().getTranslateManager().translate(event.getGuild(),"server.region.must.be.set")).queue();
+            return null;
         }
         try {
-            event.getChannel().sendMessage(Utils.createMythicEmbed(plugin.getBot(), event.getGuild(), plugin.getWeekAffixes(plugin.getBot().getGuildSettings(event.getGuild()).getRegionName())).build()).queue();
+            return new MessageBuilder().setEmbed(Utils.createMythicEmbed(plugin.getBot(), event.getGuild(), plugin.getWeekAffixes(plugin.getBot().getGuildSettings(event.getGuild()).getRegionName())).build()).build();
         } catch (IOException | ParseException e) {
             e.printStackTrace();
             event.getChannel().sendMessage(plugin.getBot().getTranslateManager().translate(event.getGuild(), "error.occurred.try.again.later")).queue();
         }
+        return null;
+    }
+
+    @Override
+    public long cacheDuration() {
+        return 10 * 60 * 1000;
+    }
+
+    @Override
+    public CommandCost cost() {
+        return CommandCost.MEDIUM;
     }
 
     @Override
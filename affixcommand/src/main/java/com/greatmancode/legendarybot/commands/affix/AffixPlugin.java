@@ -25,8 +25,7 @@
 package com.greatmancode.legendarybot.commands.affix;
 
 import com.greatmancode.legendarybot.api.plugin.LegendaryBotPlugin;
-import com.greatmancode.legendarybot.api.utils.BattleNetAPIInterceptor;
-import okhttp3.ConnectionPool;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -39,7 +38,6 @@ import org.pf4j.PluginWrapper;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Plugin that provides the current and next's week affix.
@@ -67,9 +65,7 @@ public class AffixPlugin extends LegendaryBotPlugin {
 
     public Map<Long,String> getWeekAffixes(String region) throws IOException, ParseException {
         Map<Long, String> affixes = new HashMap<>();
-        OkHttpClient clientBattleNet = new OkHttpClient.Builder()
-                .addInterceptor(new BattleNetAPIInterceptor(getBot()))
-                .build();
+        OkHttpClient clientBattleNet = getBot().getHttpClients().get(HttpClientRegistry.BATTLENET);
         HttpUrl url = new HttpUrl.Builder()
                 .scheme("https")
                 .host(region + ".api.battle.net")
@@ -25,6 +25,7 @@
 package com.greatmancode.legendarybot.commands.affix;
 
 import com.greatmancode.legendarybot.api.LegendaryBot;
+import com.greatmancode.legendarybot.api.commands.CommandCost;
 import com.greatmancode.legendarybot.api.commands.PublicCommand;
 import com.greatmancode.legendarybot.api.commands.ZeroArgsCommand;
 import net.dv8tion.jda.core.entities.Guild;
@@ -66,6 +67,11 @@ public class NextAffixCommand implements PublicCommand, ZeroArgsCommand {
         event.getChannel().sendMessage(Utils.createMythicEmbed(bot, event.getGuild(), map).build()).queue();
     }
 
+    @Override
+    public CommandCost cost() {
+        return CommandCost.MEDIUM;
+    }
+
     @Override
     public String help(Guild guild) {
         return bot.getTranslateManager().translate(guild, "command.nextaffix.help");
@@ -24,8 +24,11 @@
 package com.greatmancode.legendarybot.api;
 
 import com.greatmancode.legendarybot.api.commands.CommandHandler;
+import com.greatmancode.legendarybot.api.server.ClusterStats;
+import com.greatmancode.legendarybot.api.server.GuildRegistry;
 import com.greatmancode.legendarybot.api.server.GuildSettings;
 import com.greatmancode.legendarybot.api.translate.TranslateManager;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
 import com.greatmancode.legendarybot.api.utils.StacktraceHandler;
 import com.zaxxer.hikari.HikariDataSource;
 import net.dv8tion.jda.core.JDA;
@@ -79,12 +82,38 @@ public abstract class LegendaryBot {
      */
     public abstract List<JDA> getJDA();
 
+    /**
+     * Retrieve the registry of the guilds the bot is in
+     * @return The {@link GuildRegistry} of the bot.
+     */
+    public abstract GuildRegistry getGuildRegistry();
+
+    /**
+     * Retrieve the stats of the bot, summed over every node when the bot runs as a cluster
+     * @return The {@link ClusterStats} of the bot.
+     */
+    public ClusterStats getClusterStats() {
+        return ClusterStats.of(getJDA());
+    }
+
     /**
      * Add a Guild to the bot.
      * @param guild The Discord Guild being added
      */
     public abstract void addGuild(Guild guild);
 
+    /**
+     * Remove a Guild from the bot.
+     * @param guild The Discord Guild being removed
+     */
+    public abstract void removeGuild(Guild guild);
+
+    /**
+     * Retrieve the shared HTTP clients
+     * @return The {@link HttpClientRegistry} of the bot.
+     */
+    public abstract HttpClientRegistry getHttpClients();
+
     /**
      * Retrieve the StacktraceHandler
      * @return The {@link StacktraceHandler} instance
@@ -105,10 +134,19 @@ public abstract class LegendaryBot {
 
     /**
      * Retrieve the status of the bot
-     * @return True if the bot is ready, else false.
+     * @return True if every shard of the bot is ready, else false.
      */
     public abstract boolean isReady();
 
+    /**
+     * Retrieve the status of a shard of the bot
+     * @param jda The shard
+     * @return True if the shard is ready to accept commands, else false.
+     */
+    public boolean isReady(JDA jda) {
+        return isReady();
+    }
+
     public abstract TranslateManager getTranslateManager();
 
 }
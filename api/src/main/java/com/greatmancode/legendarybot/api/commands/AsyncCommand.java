@@ -0,0 +1,50 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.commands;
+
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Represents a {@link Command} that answers once some asynchronous work completes (HTTP calls, etc.).
+ * The {@link CommandDispatcher} keeps the command slot of the guild and shard until the returned future completes.
+ */
+public interface AsyncCommand extends Command {
+
+    /**
+     * Start the command
+     * @param event The Discord event that triggered this command
+     * @param args The arguments that followed the command
+     * @param executor The executor to run the continuations of the command on, instead of the threads completing the asynchronous work
+     * @return A future completed once the command answered. Errors should be handled by the command itself.
+     */
+    CompletableFuture<Void> executeAsync(MessageReceivedEvent event, String[] args, Executor executor);
+
+    @Override
+    default void execute(MessageReceivedEvent event, String[] args) {
+        executeAsync(event, args, Runnable::run).join();
+    }
+}
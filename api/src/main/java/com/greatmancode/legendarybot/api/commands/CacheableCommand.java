@@ -0,0 +1,66 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.commands;
+
+import net.dv8tion.jda.core.entities.Message;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+
+/**
+ * Represents a {@link Command} that gives the same answer for a while. The {@link CommandHandler} keeps the reply of those commands
+ * in a cache and sends it again instead of running the command while it is still fresh.
+ */
+public interface CacheableCommand extends Command {
+
+    /**
+     * Build the reply of the command. Only called when no fresh reply is cached.
+     * @param event The Discord event that triggered this command
+     * @param args The arguments that followed the command
+     * @return The reply to send, or null if the command already answered by itself (Errors, missing settings, etc.). Null replies are not cached.
+     */
+    Message render(MessageReceivedEvent event, String[] args);
+
+    /**
+     * How long a reply stays in the cache
+     * @return The time in milliseconds
+     */
+    long cacheDuration();
+
+    /**
+     * The key under which the reply is cached. Invocations with the same key share the same reply.
+     * @param event The Discord event that triggered this command
+     * @param args The arguments that followed the command
+     * @return The cache key. By default, the guild ID followed by the arguments.
+     */
+    default String cacheKey(MessageReceivedEvent event, String[] args) {
+        return event.getGuild().getId() + ":" + String.join(" ", args).toLowerCase();
+    }
+
+    @Override
+    default void execute(MessageReceivedEvent event, String[] args) {
+        Message reply = render(event, args);
+        if (reply != null) {
+            event.getChannel().sendMessage(reply).queue();
+        }
+    }
+}
@@ -86,6 +86,14 @@ public interface Command {
         return args;
     }
 
+    /**
+     * How expensive the command is to run. Used to rate limit users and guilds.
+     * @return The {@link CommandCost} of the command.
+     */
+    default CommandCost cost() {
+        return CommandCost.LIGHT;
+    }
+
     default String help() {
         return "";
     }
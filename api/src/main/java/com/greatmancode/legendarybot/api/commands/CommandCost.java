@@ -0,0 +1,62 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.commands;
+
+/**
+ * How expensive a {@link Command} is to run. Used by the {@link CommandRateLimiter} to charge users and guilds.
+ */
+public enum CommandCost {
+
+    /**
+     * Commands answering from memory or the database.
+     */
+    LIGHT(1),
+
+    /**
+     * Commands doing a single call to an external service.
+     */
+    MEDIUM(2),
+
+    /**
+     * Commands fanning out into several calls to external services.
+     */
+    HEAVY(5);
+
+    /**
+     * The amount of tokens a run of the command takes from the buckets.
+     */
+    private final int tokens;
+
+    CommandCost(int tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Retrieve the amount of tokens a run of the command takes from the buckets.
+     * @return The amount of tokens.
+     */
+    public int getTokens() {
+        return tokens;
+    }
+}
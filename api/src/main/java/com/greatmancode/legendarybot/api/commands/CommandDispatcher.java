@@ -0,0 +1,287 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.commands;
+
+import com.greatmancode.legendarybot.api.LegendaryBot;
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs commands outside of the JDA event threads. Commands coming from the same guild are run in the order they were received,
+ * commands from different guilds are run in parallel on a bounded pool of workers.
+ */
+public class CommandDispatcher {
+
+    /**
+     * The Bot instance
+     */
+    private final LegendaryBot bot;
+
+    /**
+     * The maximum amount of commands that can be waiting or running for a single shard.
+     */
+    private final int shardQueueDepth;
+
+    /**
+     * The worker pool running the commands
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * The maximum time an asynchronous command holds its guild, in milliseconds
+     */
+    private final long commandTimeout;
+
+    /**
+     * The thread failing the asynchronous commands running for too long
+     */
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "LegendaryBot-Command-Timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The pending commands of every guild that currently has a worker assigned to it. A guild is present in this map only while one of its commands is queued or running.
+     */
+    private final Map<String, Queue<Supplier<CompletionStage<?>>>> guildQueues = new ConcurrentHashMap<>();
+
+    /**
+     * The amount of commands waiting or running per shard ID.
+     */
+    private final Map<Integer, AtomicInteger> shardPending = new ConcurrentHashMap<>();
+
+    /**
+     * A instance of {@link Logger} to send logs to
+     */
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Build a CommandDispatcher
+     * @param bot An instance of a Bot.
+     * @param workerThreads The amount of threads running commands.
+     * @param shardQueueDepth The maximum amount of commands waiting or running for a single shard.
+     */
+    public CommandDispatcher(LegendaryBot bot, int workerThreads, int shardQueueDepth) {
+        this(bot, workerThreads, shardQueueDepth, 60000);
+    }
+
+    /**
+     * Build a CommandDispatcher
+     * @param bot An instance of a Bot.
+     * @param workerThreads The amount of threads running commands.
+     * @param shardQueueDepth The maximum amount of commands waiting or running for a single shard.
+     * @param commandTimeout The maximum time an asynchronous command holds its guild, in milliseconds. Past it, the command is considered failed.
+     */
+    public CommandDispatcher(LegendaryBot bot, int workerThreads, int shardQueueDepth, long commandTimeout) {
+        this.bot = bot;
+        this.shardQueueDepth = shardQueueDepth;
+        this.commandTimeout = commandTimeout;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "LegendaryBot-Command-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queue a command for execution.
+     * @param event The {@link MessageReceivedEvent} that triggered the command.
+     * @param task The work to run for that command.
+     * @return True if the command got queued, false if the shard of the event already has too many commands pending.
+     */
+    public boolean dispatch(MessageReceivedEvent event, Runnable task) {
+        return dispatchAsync(event, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Queue a command for execution. The command keeps its place in the shard queue and holds its guild until the stage it returns completes, or the command timeout passes,
+     * without holding a worker while it waits.
+     * @param event The {@link MessageReceivedEvent} that triggered the command.
+     * @param task The work to run for that command. Returns the stage completing once the command is done, or null if it is already done.
+     * @return True if the command got queued, false if the shard of the event already has too many commands pending.
+     */
+    public boolean dispatchAsync(MessageReceivedEvent event, Supplier<CompletionStage<?>> task) {
+        AtomicInteger pending = shardPending.computeIfAbsent(getShardId(event.getJDA()), k -> new AtomicInteger());
+        if (pending.incrementAndGet() > shardQueueDepth) {
+            pending.decrementAndGet();
+            return false;
+        }
+        String guildId = event.getGuild().getId();
+        Supplier<CompletionStage<?>> command = () -> {
+            CompletionStage<?> stage = null;
+            try {
+                stage = task.get();
+            } catch (Exception e) {
+                e.printStackTrace();
+                bot.getStacktraceHandler().sendStacktrace(e, "guildId:" + guildId);
+            }
+            if (stage == null) {
+                pending.decrementAndGet();
+                return null;
+            }
+            return withTimeout(stage, guildId).whenComplete((result, e) -> {
+                if (e != null) {
+                    e.printStackTrace();
+                    bot.getStacktraceHandler().sendStacktrace(e, "guildId:" + guildId);
+                }
+                pending.decrementAndGet();
+            });
+        };
+        boolean[] newQueue = new boolean[1];
+        guildQueues.compute(guildId, (k, queue) -> {
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                newQueue[0] = true;
+            }
+            queue.add(command);
+            return queue;
+        });
+        if (newQueue[0]) {
+            schedule(guildId);
+        }
+        return true;
+    }
+
+    /**
+     * Bound the time an asynchronous command holds its guild and its place in the shard queue. The command itself is left running.
+     * @param stage The stage completing once the command is done.
+     * @param guildId The ID of the guild.
+     * @return A stage completing with the command, or failing with a {@link TimeoutException} once the command ran for too long.
+     */
+    private CompletionStage<?> withTimeout(CompletionStage<?> stage, String guildId) {
+        CompletableFuture<Object> bounded = new CompletableFuture<>();
+        ScheduledFuture<?> timeout;
+        try {
+            timeout = timer.schedule(() -> bounded.completeExceptionally(
+                    new TimeoutException("Command of guild " + guildId + " still running after " + commandTimeout + "ms")), commandTimeout, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            //Shutting down, no more commands are run anyway.
+            return stage;
+        }
+        stage.whenComplete((result, e) -> {
+            timeout.cancel(false);
+            if (e != null) {
+                bounded.completeExceptionally(e);
+            } else {
+                bounded.complete(result);
+            }
+        });
+        return bounded;
+    }
+
+    /**
+     * Run the next pending command of a guild, then hand the guild back to the pool so other guilds get their turn.
+     * An asynchronous command hands the guild back once it completes.
+     * @param guildId The ID of the guild.
+     */
+    private void drain(String guildId) {
+        List<Supplier<CompletionStage<?>>> next = new ArrayList<>(1);
+        guildQueues.computeIfPresent(guildId, (k, queue) -> {
+            Supplier<CompletionStage<?>> command = queue.poll();
+            if (command == null) {
+                return null;
+            }
+            next.add(command);
+            return queue;
+        });
+        if (next.isEmpty()) {
+            return;
+        }
+        CompletionStage<?> stage = null;
+        try {
+            stage = next.get(0).get();
+        } finally {
+            if (stage == null) {
+                schedule(guildId);
+            } else {
+                stage.whenComplete((result, e) -> schedule(guildId));
+            }
+        }
+    }
+
+    /**
+     * Retrieve the worker pool running the commands. Asynchronous commands run their continuations on it.
+     * @return The worker pool.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Give a worker to a guild.
+     * @param guildId The ID of the guild.
+     */
+    private void schedule(String guildId) {
+        try {
+            executor.execute(() -> drain(guildId));
+        } catch (RejectedExecutionException e) {
+            log.warn("Command dispatcher is shut down, dropping the commands of guild " + guildId);
+            guildQueues.remove(guildId);
+        }
+    }
+
+    /**
+     * Retrieve the amount of commands waiting or running for a shard.
+     * @param shardId The shard ID.
+     * @return The amount of commands waiting or running.
+     */
+    public int getPendingCommands(int shardId) {
+        AtomicInteger pending = shardPending.get(shardId);
+        return pending == null ? 0 : pending.get();
+    }
+
+    /**
+     * Stop the dispatcher. Commands already running are left to finish.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        timer.shutdownNow();
+    }
+
+    /**
+     * Retrieve the shard ID of a JDA instance.
+     * @param jda The JDA instance
+     * @return The shard ID, 0 if the bot is not sharded.
+     */
+    private int getShardId(JDA jda) {
+        return jda.getShardInfo() == null ? 0 : jda.getShardInfo().getShardId();
+    }
+}
@@ -24,6 +24,14 @@
 package com.greatmancode.legendarybot.api.commands;
 
 import com.greatmancode.legendarybot.api.LegendaryBot;
+import com.greatmancode.legendarybot.api.server.GuildSettings;
+import net.dv8tion.jda.core.entities.Emote;
+import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.Member;
+import net.dv8tion.jda.core.entities.Message;
+import net.dv8tion.jda.core.entities.Role;
+import net.dv8tion.jda.core.entities.TextChannel;
+import net.dv8tion.jda.core.entities.User;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.core.exceptions.PermissionException;
 import org.influxdb.dto.Point;
@@ -31,6 +39,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Handle commands sent by the user
@@ -43,42 +52,113 @@ public class CommandHandler {
     private LegendaryBot bot;
 
     /**
-     * The list of all the commands registered to the bot
+     * The list of all the commands registered to the bot. Only modified while holding the writeLock.
      */
-    private Map<String, Command> commandMap = new LinkedHashMap<>();
+    private final Map<String, Command> commandMap = new LinkedHashMap<>();
 
     /**
-     * The alias list
+     * The alias list. Only modified while holding the writeLock.
      */
-    private Map<String, String> aliasMap = new LinkedHashMap<>();
+    private final Map<String, String> aliasMap = new LinkedHashMap<>();
 
-    private Map<String, List<String>> commandGroup = new LinkedHashMap<>();
+    /**
+     * The command triggers per group. Only modified while holding the writeLock.
+     */
+    private final Map<String, List<String>> commandGroup = new LinkedHashMap<>();
+
+    /**
+     * The lock guarding changes to the commands
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * The amount of {@link #batch(Runnable)} calls currently running. Changes are only published when it reaches 0.
+     */
+    private int batchDepth = 0;
+
+    /**
+     * The snapshot of the commands currently used to dispatch messages
+     */
+    private volatile CommandRegistry registry = new CommandRegistry(commandMap, aliasMap, commandGroup);
+
+    /**
+     * The ID of the bot user, used to detect messages starting with a mention of the bot
+     */
+    private volatile String selfId;
 
     /**
      * An instance of a {@link UnknownCommandHandler} to handle commands that are unknown
      */
-    private UnknownCommandHandler unknownCommandHandler = null;
+    private volatile UnknownCommandHandler unknownCommandHandler = null;
 
     /**
      * A instance of {@link Logger} to send logs to
      */
     private Logger log = LoggerFactory.getLogger(getClass());
 
+    /**
+     * The dispatcher running the commands outside of the JDA event threads
+     */
+    private final CommandDispatcher dispatcher;
+
+    /**
+     * The latency recorder of the commands
+     */
+    private final CommandMetrics metrics = new CommandMetrics();
+
+    /**
+     * The replies of the {@link CacheableCommand}
+     */
+    private final CommandResultCache resultCache = new CommandResultCache(2000, metrics);
+
+    /**
+     * The admission control of the commands
+     */
+    private final CommandRateLimiter rateLimiter;
+
     /**
      * Build a CommandHandler
      * @param bot An instance of a Bot.
      */
     public CommandHandler(LegendaryBot bot) {
+        this(bot, 16, 100, new CommandRateLimiter(30, 15, 300, 100, 6000, 1200, 600));
+    }
+
+    /**
+     * Build a CommandHandler
+     * @param bot An instance of a Bot.
+     * @param workerThreads The amount of threads running commands.
+     * @param shardQueueDepth The maximum amount of commands waiting or running for a single shard.
+     * @param rateLimiter The {@link CommandRateLimiter} deciding if a command can run.
+     */
+    public CommandHandler(LegendaryBot bot, int workerThreads, int shardQueueDepth, CommandRateLimiter rateLimiter) {
         this.bot = bot;
+        this.dispatcher = new CommandDispatcher(bot, workerThreads, shardQueueDepth);
+        this.rateLimiter = rateLimiter;
     }
 
 
+    /**
+     * Add an alias to a command
+     * @param name The alias
+     * @param command The trigger of the command the alias points to
+     */
     public void addAlias(String name, String command) {
-        aliasMap.put(name, command);
+        synchronized (writeLock) {
+            aliasMap.put(name, command);
+            publish();
+        }
     }
 
+    /**
+     * Remove an alias
+     * @param name The alias
+     */
     public void removeAlias(String name) {
-        aliasMap.remove(name);
+        synchronized (writeLock) {
+            aliasMap.remove(name);
+            publish();
+        }
     }
 
     /**
@@ -87,11 +167,11 @@ public class CommandHandler {
      * @param command The {@link Command} instance related to the trigger
      */
     public void addCommand(String name, Command command, String group) {
-        commandMap.put(name, command);
-        if (!commandGroup.containsKey(group)) {
-            commandGroup.put(group, new ArrayList<>());
+        synchronized (writeLock) {
+            commandMap.put(name, command);
+            commandGroup.computeIfAbsent(group, k -> new ArrayList<>()).add(name);
+            publish();
         }
-        commandGroup.get(group).add(name);
     }
 
     /**
@@ -99,9 +179,41 @@ public class CommandHandler {
      * @param name The trigger of the command
      */
     public void removeCommand(String name) {
-        commandMap.remove(name);
+        synchronized (writeLock) {
+            commandMap.remove(name);
+            commandGroup.forEach((k,v) -> v.remove(name));
+            publish();
+        }
+        resultCache.invalidate(name);
+    }
+
+    /**
+     * Run a set of changes to the commands, like a plugin reload, and publish them all at once when it is done.
+     * Until then, messages keep being dispatched with the commands as they were before the batch started.
+     * Batches can be nested, the changes are published when the outermost batch ends.
+     * @param changes The code changing the commands
+     */
+    public void batch(Runnable changes) {
+        synchronized (writeLock) {
+            batchDepth++;
+        }
+        try {
+            changes.run();
+        } finally {
+            synchronized (writeLock) {
+                batchDepth--;
+                publish();
+            }
+        }
+    }
 
-        commandGroup.forEach((k,v) -> v.remove(name));
+    /**
+     * Publish a new snapshot of the commands, unless a batch is running. Must be called while holding the writeLock.
+     */
+    private void publish() {
+        if (batchDepth == 0) {
+            registry = new CommandRegistry(commandMap, aliasMap, commandGroup);
+        }
     }
 
     /**
@@ -109,71 +221,182 @@ public class CommandHandler {
      * @param event The {@link MessageReceivedEvent} from JDA.
      */
     public void handle(MessageReceivedEvent event) {
-        if (!bot.isReady()) {
+        if (!bot.isReady(event.getJDA())) {
+            return;
+        }
+        //Work on the raw content so messages that are not commands never resolve mentions nor get split.
+        String raw = event.getMessage().getContentRaw();
+        if (raw.isEmpty()) {
             return;
         }
-        String text = event.getMessage().getContentDisplay();
-        String prefix = bot.getGuildSettings(event.getGuild()).getSetting("PREFIX");
+        GuildSettings settings = bot.getGuildSettings(event.getGuild());
+        CompletableFuture<Void> loaded = settings.whenLoaded().toCompletableFuture();
+        if (!loaded.isDone()) {
+            //The prefix and every setting a command reads are not known yet. Keep the place of the message in its guild queue until they are,
+            //then handle it again: its command lands in the queue before the ones of the messages that waited behind it.
+            if (!dispatcher.dispatchAsync(event, () -> loaded.thenRun(() -> handle(event)))) {
+                log.warn("[" + event.getGuild().getName() + "] Dropped a message received while the guild settings load, the shard command queue is full.");
+            }
+            return;
+        }
+        String prefix = settings.getSetting("PREFIX");
         if (prefix == null) {
             prefix = "!";
         }
-        if (text.startsWith(prefix) || event.getMessage().isMentioned(event.getJDA().getSelfUser())) {
-            log.info("[" + event.getGuild().getName() + "]" + event.getAuthor().getName() + ": " + event.getMessage().getContentDisplay());
-            String command = null;
-            String[] commandArray = text.split(" ");
-            if (text.startsWith(prefix)) {
-                command = commandArray[0].substring(prefix.length()).toLowerCase();
-            } else {
-                command = commandArray[1].toLowerCase();
+        boolean prefixed = raw.startsWith(prefix);
+        int commandStart = prefixed ? prefix.length() : mentionEnd(event, raw);
+        if (commandStart == -1) {
+            return;
+        }
+        if (!prefixed) {
+            while (commandStart < raw.length() && raw.charAt(commandStart) == ' ') {
+                commandStart++;
             }
+        }
+        int commandEnd = raw.indexOf(' ', commandStart);
+        if (commandEnd == -1) {
+            commandEnd = raw.length();
+        }
 
-            if (commandMap.containsKey(command) || aliasMap.containsKey(command)) {
-                Command commandClass = null;
-                if (commandMap.containsKey(command)) {
-                    commandClass = commandMap.get(command);
-                } else if (aliasMap.containsKey(command) && commandMap.containsKey(aliasMap.get(command))) {
-                    commandClass = commandMap.get(aliasMap.get(command));
-                }
+        CommandRegistry registry = this.registry;
+        String command = registry.find(raw, commandStart, commandEnd);
+        if (command == null) {
+            if (unknownCommandHandler != null) {
+                unknownCommandHandler.handle(event);
+            }
+            return;
+        }
+        Command commandClass = registry.getCommand(command);
+        if (commandClass == null || !commandClass.canExecute(event.getMember())) {
+            return;
+        }
+        log.info("[" + event.getGuild().getName() + "]" + event.getAuthor().getName() + ": " + raw);
 
-                if (commandClass == null) {
-                    return;
-                }
+        CommandRateLimiter.Admission admission = rateLimiter.acquire(event.getAuthor().getIdLong(), event.getGuild().getIdLong(), commandClass.cost());
+        if (admission != CommandRateLimiter.Admission.ALLOWED) {
+            log.info("[" + event.getGuild().getName() + "] Refused command " + command + ": " + admission);
+            refuse(event, admission == CommandRateLimiter.Admission.SATURATED ? "command.overloaded" : "command.ratelimited");
+            return;
+        }
 
-                if (commandClass.canExecute(event.getMember())) {
-                    String[] args = null;
-                    if (text.startsWith(prefix)) {
-                        args = new String[commandArray.length - 1];
-                    } else {
-                        args = new String[commandArray.length - 2];
+        //The arguments are whatever follows the command token, whatever the prefix or mention before it looked like.
+        String commandToken = raw.substring(prefixed ? 0 : commandStart, commandEnd);
+        String argsText = commandEnd < raw.length() ? raw.substring(commandEnd + 1) : "";
+        final long received = System.nanoTime();
+        boolean queued = dispatcher.dispatchAsync(event, () -> {
+            //Mentions are resolved in the arguments only, as the display content shows them, so commands echoing their arguments never ping.
+            String displayArgs = argsText.indexOf('<') == -1 ? argsText : resolveMentions(event.getMessage(), argsText);
+            String[] commandArgs = displayArgs.isEmpty() ? new String[0] : displayArgs.split(" ");
+            String[] args = new String[commandArgs.length];
+            try {
+                long preFlightStart = System.nanoTime();
+                metrics.record(command, CommandMetrics.Phase.QUEUE, preFlightStart - received);
+                args = commandClass.preFlight(event, bot, args);
+                long executeStart = System.nanoTime();
+                metrics.record(command, CommandMetrics.Phase.PREFLIGHT, executeStart - preFlightStart);
+                if (args.length >= commandClass.minArgs() && args.length <= commandClass.maxArgs()) {
+                    System.arraycopy(commandArgs, 0, args,0,commandArgs.length);
+
+                    bot.getStatsClient().write(Point.measurement("legendarybot")
+                    .addField("command", command)
+                    .build());
+                    if (commandClass instanceof AsyncCommand) {
+                        //The command is only over, for the metrics and the dispatcher, once its future completes.
+                        return ((AsyncCommand) commandClass).executeAsync(event, args, dispatcher.getExecutor())
+                                .whenComplete((result, e) -> recordExecution(command, received, executeStart));
                     }
-                    try {
-                        args = commandClass.preFlight(event, bot, args);
-                        if (args.length >= commandClass.minArgs() && args.length <= commandClass.maxArgs()) {
-                            if (text.startsWith(prefix)) {
-                                System.arraycopy(commandArray, 1, args,0,commandArray.length - 1);
-                            } else {
-                                System.arraycopy(commandArray, 2, args,0,commandArray.length - 2);
-                            }
-
-                            bot.getStatsClient().write(Point.measurement("legendarybot")
-                            .addField("command", command)
-                            .build());
-                            commandClass.execute(event, args);
-                        } else {
-                            sendMessage(event, commandClass.help(event.getGuild()));
-                        }
-                    } catch (PermissionException e) {
-                        sendMessage(event, "Unfortunately, I can't send a message to the channel you did " + commandArray[0] + ".");
+                    if (commandClass instanceof CacheableCommand) {
+                        resultCache.execute(command, (CacheableCommand) commandClass, event, args);
+                    } else {
+                        commandClass.execute(event, args);
                     }
-
+                    recordExecution(command, received, executeStart);
+                } else {
+                    sendMessage(event, commandClass.help(event.getGuild()));
                 }
-            } else if (unknownCommandHandler != null) {
-                unknownCommandHandler.handle(event);
+            } catch (PermissionException e) {
+                sendMessage(event, "Unfortunately, I can't send a message to the channel you did " + commandToken + ".");
             }
+            return null;
+        });
+        if (!queued) {
+            log.warn("[" + event.getGuild().getName() + "] Dropped command " + command + ", the shard command queue is full.");
+            refuse(event, "command.overloaded");
+        }
+    }
+
+    /**
+     * Record the execution time of a command that just finished.
+     * @param command The name of the command
+     * @param received When the message got received, from {@link System#nanoTime()}
+     * @param executeStart When the command started executing, from {@link System#nanoTime()}
+     */
+    private void recordExecution(String command, long received, long executeStart) {
+        long executeEnd = System.nanoTime();
+        metrics.record(command, CommandMetrics.Phase.EXECUTE, executeEnd - executeStart);
+        metrics.record(command, CommandMetrics.Phase.TOTAL, executeEnd - received);
+    }
 
+    /**
+     * Tell the user that his command got refused. Users are told at most once every 30 seconds so the reply itself can't be used to flood a channel.
+     * @param event The {@link MessageReceivedEvent} from JDA
+     * @param key The translation key of the message to send
+     */
+    private void refuse(MessageReceivedEvent event, String key) {
+        if (rateLimiter.shouldNotify(event.getAuthor().getIdLong())) {
+            event.getChannel().sendMessage(bot.getTranslateManager().translate(event.getGuild(), key, event.getAuthor().getAsMention())).queue();
         }
     }
 
+    /**
+     * Resolve the mentions of a part of a raw message the way {@link Message#getContentDisplay()} does: users and roles become {@literal @name},
+     * channels {@literal #name} and emotes {@literal :name:}.
+     * @param message The message the text comes from, holding its mentions.
+     * @param text A part of the raw content of the message.
+     * @return The text with its mentions resolved.
+     */
+    private static String resolveMentions(Message message, String text) {
+        Guild guild = message.getGuild();
+        for (User user : message.getMentionedUsers()) {
+            Member member = guild == null ? null : guild.getMember(user);
+            String name = "@" + (member == null ? user.getName() : member.getEffectiveName());
+            text = text.replace("<@" + user.getId() + ">", name).replace("<@!" + user.getId() + ">", name);
+        }
+        for (Emote emote : message.getEmotes()) {
+            text = text.replace(emote.getAsMention(), ":" + emote.getName() + ":");
+        }
+        for (TextChannel channel : message.getMentionedChannels()) {
+            text = text.replace(channel.getAsMention(), "#" + channel.getName());
+        }
+        for (Role role : message.getMentionedRoles()) {
+            text = text.replace(role.getAsMention(), "@" + role.getName());
+        }
+        return text;
+    }
+
+    /**
+     * Check if a raw message starts by mentioning the bot (either {@literal <@id>} or {@literal <@!id>}).
+     * @param event The {@link MessageReceivedEvent} from JDA.
+     * @param raw The raw content of the message.
+     * @return The index following the mention, or -1 if the message doesn't start with a mention of the bot.
+     */
+    private int mentionEnd(MessageReceivedEvent event, String raw) {
+        if (!raw.startsWith("<@")) {
+            return -1;
+        }
+        String selfId = this.selfId;
+        if (selfId == null) {
+            selfId = event.getJDA().getSelfUser().getId();
+            this.selfId = selfId;
+        }
+        int idStart = raw.startsWith("<@!") ? 3 : 2;
+        int idEnd = idStart + selfId.length();
+        if (raw.length() > idEnd && raw.startsWith(selfId, idStart) && raw.charAt(idEnd) == '>') {
+            return idEnd + 1;
+        }
+        return -1;
+    }
+
     /**
      * Send a private message to the author of the Message event
      * @param event The {@link MessageReceivedEvent} from JDA
@@ -188,7 +411,7 @@ public class CommandHandler {
      * @return a {@link Map} containing as a key the command trigger and the value the Command handler.
      */
     public Map<String, Command> getCommandList() {
-        return Collections.unmodifiableMap(commandMap);
+        return registry.getCommands();
     }
 
     /**
@@ -199,12 +422,36 @@ public class CommandHandler {
         this.unknownCommandHandler = handler;
     }
 
+    /**
+     * Retrieve the {@link CommandDispatcher} running the commands.
+     * @return The {@link CommandDispatcher} instance.
+     */
+    public CommandDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Retrieve the latency recorder of the commands.
+     * @return The {@link CommandMetrics} instance.
+     */
+    public CommandMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Get all the commands per group
      * @return Returns a Map containing the command group name and a list of commands inside that group.
      */
     public Map<String, List<String>> getCommandGroup() {
-        return Collections.unmodifiableMap(commandGroup);
+        return registry.getGroups();
+    }
+
+    /**
+     * Retrieve the snapshot of the commands currently used to dispatch messages.
+     * @return The current {@link CommandRegistry}.
+     */
+    public CommandRegistry getRegistry() {
+        return registry;
     }
 
 }
@@ -0,0 +1,178 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.commands;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Records the latency of every command run by the {@link CommandHandler}, split by execution phase.
+ * Values are recorded in microseconds.
+ */
+public class CommandMetrics {
+
+    /**
+     * The phases of a command that are timed.
+     */
+    public enum Phase {
+        /**
+         * Time spent waiting for a worker in the {@link CommandDispatcher}
+         */
+        QUEUE,
+        /**
+         * Time spent in {@link Command#preFlight}
+         */
+        PREFLIGHT,
+        /**
+         * Time spent in {@link Command#execute}
+         */
+        EXECUTE,
+        /**
+         * Time between a reply being queued and Discord acknowledging it. Only recorded for the replies sent by the {@link CommandHandler},
+         * those of the {@link CacheableCommand}.
+         */
+        SEND,
+        /**
+         * Time between the message being received and the end of {@link Command#execute}
+         */
+        TOTAL
+    }
+
+    /**
+     * The highest value tracked by the histograms, in microseconds.
+     */
+    private static final long HIGHEST_TRACKABLE = TimeUnit.MINUTES.toMicros(5);
+
+    /**
+     * The amount of significant digits kept by the histograms.
+     */
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    /**
+     * The timings of every command that got run at least once.
+     */
+    private final Map<String, Timings> commands = new ConcurrentHashMap<>();
+
+    /**
+     * Record the duration of a phase of a command.
+     * @param command The name of the command
+     * @param phase The phase being recorded
+     * @param nanos The duration in nanoseconds
+     */
+    public void record(String command, Phase phase, long nanos) {
+        Recorder recorder = commands.computeIfAbsent(command, k -> new Timings()).recorders.get(phase);
+        recorder.recordValue(Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), HIGHEST_TRACKABLE));
+    }
+
+    /**
+     * Build the success callback of a reply being queued, recording its {@link Phase#SEND} time once Discord acknowledged it.
+     * Must be called right before queueing the reply.
+     * @param command The name of the command replying
+     * @param <T> The type of the result of the request
+     * @return The callback to give to {@link net.dv8tion.jda.core.requests.RestAction#queue(Consumer)}
+     */
+    public <T> Consumer<T> replySent(String command) {
+        long sendStart = System.nanoTime();
+        return sent -> record(command, Phase.SEND, System.nanoTime() - sendStart);
+    }
+
+    /**
+     * Retrieve the histograms recorded since the last call of this method and add them to the totals.
+     * @return A map of the command name and its histogram per phase. Commands that were not run since the last flush are not included.
+     */
+    public synchronized Map<String, Map<Phase, Histogram>> flush() {
+        Map<String, Map<Phase, Histogram>> result = new TreeMap<>();
+        commands.forEach((command, timings) -> {
+            Map<Phase, Histogram> interval = timings.fold();
+            if (interval.get(Phase.TOTAL).getTotalCount() > 0 || interval.get(Phase.SEND).getTotalCount() > 0) {
+                result.put(command, interval);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Retrieve the histograms recorded since the bot started. Those are not reset by {@link #flush()}.
+     * @return A map of the command name and a copy of its histogram per phase.
+     */
+    public synchronized Map<String, Map<Phase, Histogram>> getTotals() {
+        Map<String, Map<Phase, Histogram>> result = new TreeMap<>();
+        commands.forEach((command, timings) -> {
+            timings.foldPending();
+            Map<Phase, Histogram> totals = new EnumMap<>(Phase.class);
+            timings.totals.forEach((phase, histogram) -> totals.put(phase, histogram.copy()));
+            result.put(command, totals);
+        });
+        return result;
+    }
+
+    /**
+     * The histograms of a single command.
+     */
+    private static class Timings {
+        private final Map<Phase, Recorder> recorders = new EnumMap<>(Phase.class);
+        private final Map<Phase, Histogram> totals = new EnumMap<>(Phase.class);
+        private final Map<Phase, Histogram> sinceFlush = new EnumMap<>(Phase.class);
+
+        private Timings() {
+            for (Phase phase : Phase.values()) {
+                recorders.put(phase, new Recorder(HIGHEST_TRACKABLE, SIGNIFICANT_DIGITS));
+                totals.put(phase, new Histogram(HIGHEST_TRACKABLE, SIGNIFICANT_DIGITS));
+                sinceFlush.put(phase, new Histogram(HIGHEST_TRACKABLE, SIGNIFICANT_DIGITS));
+            }
+        }
+
+        /**
+         * Move the values recorded so far into the totals and the since flush histograms.
+         */
+        private void foldPending() {
+            recorders.forEach((phase, recorder) -> {
+                Histogram interval = recorder.getIntervalHistogram();
+                totals.get(phase).add(interval);
+                sinceFlush.get(phase).add(interval);
+            });
+        }
+
+        /**
+         * Retrieve the values recorded since the last fold and reset them.
+         * @return A copy of the histograms since the last fold, per phase.
+         */
+        private Map<Phase, Histogram> fold() {
+            foldPending();
+            Map<Phase, Histogram> result = new EnumMap<>(Phase.class);
+            sinceFlush.forEach((phase, histogram) -> {
+                result.put(phase, histogram.copy());
+                histogram.reset();
+            });
+            return result;
+        }
+    }
+}
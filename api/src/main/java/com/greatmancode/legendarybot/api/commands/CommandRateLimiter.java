@@ -0,0 +1,218 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.commands;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Admission control for commands. Every user, every guild and every {@link CommandCost} class has a token bucket.
+ * <p>
+ * Buckets are striped: users and guilds are hashed into a fixed amount of buckets so the memory used doesn't grow with the amount of users.
+ * Each bucket is a single long holding its theoretical arrival time (GCRA), updated with a compare and set, so no lock is ever taken.
+ */
+public class CommandRateLimiter {
+
+    /**
+     * The result of an admission check
+     */
+    public enum Admission {
+        /**
+         * The command can run
+         */
+        ALLOWED,
+        /**
+         * The user ran too many commands
+         */
+        USER_LIMITED,
+        /**
+         * The guild ran too many commands
+         */
+        GUILD_LIMITED,
+        /**
+         * The bot runs too many commands of that cost class
+         */
+        SATURATED
+    }
+
+    /**
+     * The amount of stripes for the user and guild buckets. Must be a power of two.
+     */
+    private static final int STRIPES = 4096;
+
+    /**
+     * The tokens taken by the most expensive {@link CommandCost}. The user and guild buckets hold at least that many tokens, or those commands could never run.
+     */
+    private static final int MAX_TOKENS = Arrays.stream(CommandCost.values()).mapToInt(CommandCost::getTokens).max().orElse(1);
+
+    /**
+     * The minimum time between two rate limit notices sent to the same user.
+     */
+    private static final long NOTICE_INTERVAL = TimeUnit.SECONDS.toNanos(30);
+
+    /**
+     * The time origin of the buckets, so bucket values always stay positive.
+     */
+    private final long epoch = System.nanoTime();
+
+    /**
+     * The buckets of the users
+     */
+    private final AtomicLongArray userBuckets = new AtomicLongArray(STRIPES);
+
+    /**
+     * The buckets of the guilds
+     */
+    private final AtomicLongArray guildBuckets = new AtomicLongArray(STRIPES);
+
+    /**
+     * The bot wide buckets of each {@link CommandCost} class
+     */
+    private final AtomicLongArray costBuckets = new AtomicLongArray(CommandCost.values().length);
+
+    /**
+     * The buckets limiting how often a user is told a command got refused
+     */
+    private final AtomicLongArray noticeBuckets = new AtomicLongArray(STRIPES);
+
+    /**
+     * Nanoseconds needed to refill one token of a user bucket, and the size of that bucket.
+     */
+    private final long userInterval;
+    private final long userBurst;
+
+    /**
+     * Nanoseconds needed to refill one token of a guild bucket, and the size of that bucket.
+     */
+    private final long guildInterval;
+    private final long guildBurst;
+
+    /**
+     * Nanoseconds needed to refill one command of each cost class bucket. The buckets hold 10 seconds worth of commands.
+     */
+    private final long[] costIntervals = new long[CommandCost.values().length];
+    private final long[] costBursts = new long[CommandCost.values().length];
+
+    /**
+     * Build a CommandRateLimiter
+     * @param userPerMinute The amount of tokens a user gets per minute.
+     * @param userBurst The maximum amount of tokens a user can spend at once, raised to the tokens of the most expensive {@link CommandCost} if lower.
+     * @param guildPerMinute The amount of tokens a guild gets per minute.
+     * @param guildBurst The maximum amount of tokens a guild can spend at once, raised to the tokens of the most expensive {@link CommandCost} if lower.
+     * @param costPerMinute The amount of commands of each {@link CommandCost} class the whole bot can run per minute, in the order of {@link CommandCost#values()}.
+     */
+    public CommandRateLimiter(int userPerMinute, int userBurst, int guildPerMinute, int guildBurst, int... costPerMinute) {
+        this.userInterval = TimeUnit.MINUTES.toNanos(1) / userPerMinute;
+        this.userBurst = Math.max(MAX_TOKENS, userBurst);
+        this.guildInterval = TimeUnit.MINUTES.toNanos(1) / guildPerMinute;
+        this.guildBurst = Math.max(MAX_TOKENS, guildBurst);
+        for (CommandCost cost : CommandCost.values()) {
+            costIntervals[cost.ordinal()] = TimeUnit.MINUTES.toNanos(1) / costPerMinute[cost.ordinal()];
+            costBursts[cost.ordinal()] = Math.max(1, costPerMinute[cost.ordinal()] / 6);
+        }
+    }
+
+    /**
+     * Check if a command can run, and take its tokens if it can.
+     * @param userId The ID of the user running the command
+     * @param guildId The ID of the guild the command is run in
+     * @param cost The {@link CommandCost} of the command
+     * @return The {@link Admission} result. Tokens are only taken when the result is {@link Admission#ALLOWED}.
+     */
+    public Admission acquire(long userId, long guildId, CommandCost cost) {
+        long now = System.nanoTime() - epoch;
+        int userStripe = stripe(userId);
+        int guildStripe = stripe(guildId);
+        int tokens = cost.getTokens();
+        if (!tryAcquire(userBuckets, userStripe, now, userInterval, userBurst, tokens)) {
+            return Admission.USER_LIMITED;
+        }
+        if (!tryAcquire(guildBuckets, guildStripe, now, guildInterval, guildBurst, tokens)) {
+            release(userBuckets, userStripe, userInterval, tokens);
+            return Admission.GUILD_LIMITED;
+        }
+        if (!tryAcquire(costBuckets, cost.ordinal(), now, costIntervals[cost.ordinal()], costBursts[cost.ordinal()], 1)) {
+            release(userBuckets, userStripe, userInterval, tokens);
+            release(guildBuckets, guildStripe, guildInterval, tokens);
+            return Admission.SATURATED;
+        }
+        return Admission.ALLOWED;
+    }
+
+    /**
+     * Check if a user should be told that a command got refused. Users are told at most once every 30 seconds.
+     * @param userId The ID of the user
+     * @return True if a notice should be sent, else false.
+     */
+    public boolean shouldNotify(long userId) {
+        return tryAcquire(noticeBuckets, stripe(userId), System.nanoTime() - epoch, NOTICE_INTERVAL, 1, 1);
+    }
+
+    /**
+     * Take tokens from a bucket.
+     * @param buckets The bucket array
+     * @param index The index of the bucket
+     * @param now The current time since the epoch
+     * @param interval The nanoseconds needed to refill one token
+     * @param burst The size of the bucket
+     * @param tokens The amount of tokens to take
+     * @return True if the tokens got taken, false if the bucket doesn't have enough tokens.
+     */
+    private boolean tryAcquire(AtomicLongArray buckets, int index, long now, long interval, long burst, int tokens) {
+        long increment = interval * tokens;
+        long tolerance = interval * burst;
+        while (true) {
+            long arrival = buckets.get(index);
+            long newArrival = Math.max(arrival, now) + increment;
+            if (newArrival - now > tolerance) {
+                return false;
+            }
+            if (buckets.compareAndSet(index, arrival, newArrival)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Give back tokens taken by {@link #tryAcquire}.
+     * @param buckets The bucket array
+     * @param index The index of the bucket
+     * @param interval The nanoseconds needed to refill one token
+     * @param tokens The amount of tokens to give back
+     */
+    private void release(AtomicLongArray buckets, int index, long interval, int tokens) {
+        buckets.addAndGet(index, -interval * tokens);
+    }
+
+    /**
+     * Hash a Discord ID into a stripe. Snowflakes have their low bits mostly at 0, so the bits are mixed first.
+     * @param id The Discord ID
+     * @return The stripe index
+     */
+    private int stripe(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (STRIPES - 1);
+    }
+}
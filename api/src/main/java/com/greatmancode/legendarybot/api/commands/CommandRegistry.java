@@ -0,0 +1,112 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.commands;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of the commands registered in the {@link CommandHandler}.
+ * A new snapshot is built and published every time the commands change, so readers never need to lock.
+ */
+public class CommandRegistry {
+
+    /**
+     * The commands, by trigger
+     */
+    private final Map<String, Command> commands;
+
+    /**
+     * The aliases, mapped to the trigger of the command they point to
+     */
+    private final Map<String, String> aliases;
+
+    /**
+     * The command triggers of every group
+     */
+    private final Map<String, List<String>> groups;
+
+    /**
+     * Lookup structure over the commands and aliases
+     */
+    private final CommandTrie trie;
+
+    /**
+     * Build a snapshot. The given maps are copied.
+     * @param commands The commands, by trigger
+     * @param aliases The aliases, mapped to the trigger of the command they point to
+     * @param groups The command triggers of every group
+     */
+    public CommandRegistry(Map<String, Command> commands, Map<String, String> aliases, Map<String, List<String>> groups) {
+        this.commands = Collections.unmodifiableMap(new LinkedHashMap<>(commands));
+        this.aliases = Collections.unmodifiableMap(new LinkedHashMap<>(aliases));
+        Map<String, List<String>> groupsCopy = new LinkedHashMap<>();
+        groups.forEach((group, triggers) -> groupsCopy.put(group, Collections.unmodifiableList(new ArrayList<>(triggers))));
+        this.groups = Collections.unmodifiableMap(groupsCopy);
+        this.trie = new CommandTrie(this.commands, this.aliases);
+    }
+
+    /**
+     * Resolve a command from a region of a text. The region is matched case insensitively against the triggers and the aliases.
+     * @param text The text containing the command
+     * @param start The index of the first character of the command
+     * @param end The index after the last character of the command
+     * @return The trigger of the registered command, or null if the region is not a command nor an alias.
+     */
+    public String find(CharSequence text, int start, int end) {
+        return trie.find(text, start, end);
+    }
+
+    /**
+     * Retrieve a command
+     * @param trigger The trigger of the command
+     * @return The {@link Command}, or null if no command has that trigger.
+     */
+    public Command getCommand(String trigger) {
+        return commands.get(trigger);
+    }
+
+    /**
+     * Retrieve the commands
+     * @return An unmodifiable map of the commands, by trigger.
+     */
+    public Map<String, Command> getCommands() {
+        return commands;
+    }
+
+    /**
+     * Retrieve the aliases
+     * @return An unmodifiable map of the aliases, mapped to the trigger of the command they point to.
+     */
+    public Map<String, String> getAliases() {
+        return aliases;
+    }
+
+    /**
+     * Retrieve the command groups
+     * @return An unmodifiable map of the group names and the triggers of the commands inside them.
+     */
+    public Map<String, List<String>> getGroups() {
+        return groups;
+    }
+}
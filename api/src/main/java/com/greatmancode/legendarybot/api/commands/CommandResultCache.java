@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.commands;
+
+import net.dv8tion.jda.core.entities.Message;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of the replies of the {@link CacheableCommand}.
+ */
+public class CommandResultCache {
+
+    /**
+     * The cached replies, in least recently used order.
+     */
+    private final Map<String, CachedReply> cache;
+
+    /**
+     * The latency recorder timing the replies sent
+     */
+    private final CommandMetrics metrics;
+
+    /**
+     * Build a CommandResultCache
+     * @param maxSize The maximum amount of replies kept.
+     * @param metrics The {@link CommandMetrics} timing the replies sent.
+     */
+    public CommandResultCache(int maxSize, CommandMetrics metrics) {
+        this.metrics = metrics;
+        this.cache = new LinkedHashMap<String, CachedReply>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedReply> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Answer a command, from the cache if a fresh reply is available or by rendering it.
+     * @param name The name of the command
+     * @param command The {@link CacheableCommand} instance
+     * @param event The Discord event that triggered this command
+     * @param args The arguments that followed the command
+     */
+    public void execute(String name, CacheableCommand command, MessageReceivedEvent event, String[] args) {
+        String key = name + ":" + command.cacheKey(event, args);
+        long now = System.currentTimeMillis();
+        CachedReply cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null && cached.expires > now) {
+            event.getChannel().sendMessage(cached.reply).queue(metrics.replySent(name));
+            return;
+        }
+        Message reply = command.render(event, args);
+        if (reply == null) {
+            return;
+        }
+        synchronized (cache) {
+            cache.put(key, new CachedReply(reply, now + command.cacheDuration()));
+        }
+        event.getChannel().sendMessage(reply).queue(metrics.replySent(name));
+    }
+
+    /**
+     * Remove every cached reply of a command. Used when a command gets removed.
+     * @param name The name of the command
+     */
+    public void invalidate(String name) {
+        String prefix = name + ":";
+        synchronized (cache) {
+            cache.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    /**
+     * A reply and the time at which it stops being fresh.
+     */
+    private static class CachedReply {
+        private final Message reply;
+        private final long expires;
+
+        private CachedReply(Message reply, long expires) {
+            this.reply = reply;
+            this.expires = expires;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.commands;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Immutable character trie resolving a command trigger or alias to the name of the registered command.
+ * Lookups are done directly on a region of the message content, so no substring is created to find a command.
+ */
+public class CommandTrie {
+
+    /**
+     * The root of the trie
+     */
+    private final Node root = new Node();
+
+    /**
+     * Build a CommandTrie
+     * @param commands The registered commands
+     * @param aliases The aliases, mapped to the name of the command they point to
+     */
+    public CommandTrie(Map<String, Command> commands, Map<String, String> aliases) {
+        aliases.forEach((alias, command) -> {
+            if (commands.containsKey(command)) {
+                insert(alias, command);
+            }
+        });
+        //Commands are inserted last so they take precedence over an alias of the same name.
+        commands.keySet().forEach(command -> insert(command, command));
+    }
+
+    /**
+     * Resolve a command from a region of a text. The region is matched case insensitively.
+     * @param text The text containing the command
+     * @param start The index of the first character of the command
+     * @param end The index after the last character of the command
+     * @return The name of the registered command, or null if the region is not a command nor an alias.
+     */
+    public String find(CharSequence text, int start, int end) {
+        Node node = root;
+        for (int i = start; i < end && node != null; i++) {
+            node = node.child(Character.toLowerCase(text.charAt(i)));
+        }
+        return node == null ? null : node.command;
+    }
+
+    /**
+     * Add a trigger to the trie
+     * @param trigger The trigger of the command
+     * @param command The name of the command the trigger resolves to
+     */
+    private void insert(String trigger, String command) {
+        Node node = root;
+        for (int i = 0; i < trigger.length(); i++) {
+            char c = trigger.charAt(i);
+            Node child = node.child(c);
+            if (child == null) {
+                child = node.add(c);
+            }
+            node = child;
+        }
+        node.command = command;
+    }
+
+    /**
+     * A node of the trie. Children are kept in small parallel arrays as most nodes only have one or two of them.
+     */
+    private static class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private String command;
+
+        private Node child(char c) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node add(char c) {
+            keys = Arrays.copyOf(keys, keys.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            keys[keys.length - 1] = c;
+            children[children.length - 1] = new Node();
+            return children[children.length - 1];
+        }
+    }
+}
@@ -25,11 +25,19 @@
 package com.greatmancode.legendarybot.api.plugin;
 
 import com.greatmancode.legendarybot.api.LegendaryBot;
-import org.pf4j.DefaultPluginManager;
-import org.pf4j.PluginClasspath;
+import com.greatmancode.legendarybot.api.utils.StartupTimeline;
+import org.pf4j.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * The Plugin Manager for LegendaryBot. This is a slightly modified version of {@link DefaultPluginManager} from pf4j to modify the ClassPath.
+ * The Plugin Manager for LegendaryBot. This is a slightly modified version of {@link DefaultPluginManager} from pf4j to modify the ClassPath,
+ * to keep the extracted plugins between restarts and to start the plugins that don't depend on each other concurrently.
  */
 public class LegendaryBotPluginManager extends DefaultPluginManager {
 
@@ -38,6 +46,16 @@ public class LegendaryBotPluginManager extends DefaultPluginManager {
      */
     private final LegendaryBot bot;
 
+    /**
+     * The timeline recording the start of each plugin, null when not starting the bot
+     */
+    private volatile StartupTimeline timeline;
+
+    /**
+     * A instance of {@link Logger} to send logs to
+     */
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
     /**
      * Launch a plugin manager
      * @param bot A instance of the bot.
@@ -55,6 +73,110 @@ public class LegendaryBotPluginManager extends DefaultPluginManager {
         return bot;
     }
 
+    /**
+     * Start the resolved plugins. The plugins are grouped by dependency level: a plugin is on the level after the deepest of its dependencies.
+     * The plugins of a level are started concurrently once every plugin of the previous levels is started, then recorded as started from
+     * this thread, so the state of pf4j is only ever updated from one thread. The plugins depending on a plugin that failed to start are not started.
+     */
+    @Override
+    public void startPlugins() {
+        long startTime = System.currentTimeMillis();
+        //The resolved plugins are sorted by pf4j so that a plugin always comes after its dependencies.
+        Map<String, Integer> levels = new HashMap<>();
+        List<List<PluginWrapper>> pluginLevels = new ArrayList<>();
+        for (PluginWrapper wrapper : getResolvedPlugins()) {
+            if (wrapper.getPluginState() == PluginState.STARTED || wrapper.getPluginState() == PluginState.DISABLED) {
+                continue;
+            }
+            int level = 0;
+            for (PluginDependency dependency : wrapper.getDescriptor().getDependencies()) {
+                Integer dependencyLevel = levels.get(dependency.getPluginId());
+                if (dependencyLevel != null) {
+                    level = Math.max(level, dependencyLevel + 1);
+                }
+            }
+            levels.put(wrapper.getPluginId(), level);
+            while (pluginLevels.size() <= level) {
+                pluginLevels.add(new ArrayList<>());
+            }
+            pluginLevels.get(level).add(wrapper);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        Set<String> failed = new HashSet<>();
+        int started = 0;
+        for (List<PluginWrapper> level : pluginLevels) {
+            Map<PluginWrapper, CompletableFuture<Void>> starting = new LinkedHashMap<>();
+            for (PluginWrapper wrapper : level) {
+                Optional<PluginDependency> failedDependency = wrapper.getDescriptor().getDependencies().stream()
+                        .filter(dependency -> failed.contains(dependency.getPluginId()))
+                        .findFirst();
+                if (failedDependency.isPresent()) {
+                    log.error("Plugin " + wrapper.getPluginId() + " not started: it depends on " + failedDependency.get().getPluginId() + " which is not started");
+                    failed.add(wrapper.getPluginId());
+                    continue;
+                }
+                starting.put(wrapper, CompletableFuture.runAsync(() -> startPlugin(wrapper), pool));
+            }
+            for (Map.Entry<PluginWrapper, CompletableFuture<Void>> entry : starting.entrySet()) {
+                PluginWrapper wrapper = entry.getKey();
+                try {
+                    entry.getValue().join();
+                } catch (CompletionException e) {
+                    failed.add(wrapper.getPluginId());
+                    if (e.getCause() instanceof PluginException) {
+                        log.error("Plugin " + wrapper.getPluginId() + " not started: " + e.getCause().getMessage());
+                    } else {
+                        log.error("Plugin " + wrapper.getPluginId() + " failed to start", e.getCause());
+                        bot.getStacktraceHandler().sendStacktrace(e.getCause(), "pluginId:" + wrapper.getPluginId());
+                    }
+                    continue;
+                }
+                //The same bookkeeping as AbstractPluginManager.startPlugin.
+                PluginState previousState = wrapper.getPluginState();
+                PluginStates.setPluginState(wrapper, PluginState.STARTED);
+                getStartedPlugins().add(wrapper);
+                firePluginStateEvent(new PluginStateEvent(this, wrapper, previousState));
+                started++;
+            }
+        }
+        pool.shutdown();
+        log.info("Started " + started + " plugins in " + (System.currentTimeMillis() - startTime) + "ms");
+    }
+
+    /**
+     * Set the timeline recording the start of each plugin
+     * @param timeline The {@link StartupTimeline} of the bot startup, null to stop recording
+     */
+    public void setTimeline(StartupTimeline timeline) {
+        this.timeline = timeline;
+    }
+
+    /**
+     * Run the start method of a plugin and log the time it took.
+     * @param wrapper The plugin to start
+     */
+    private void startPlugin(PluginWrapper wrapper) {
+        long startTime = System.currentTimeMillis();
+        StartupTimeline timeline = this.timeline;
+        StartupTimeline.Phase phase = timeline != null ? timeline.start("plugin." + wrapper.getPluginId() + ".start") : null;
+        try {
+            wrapper.getPlugin().start();
+        } catch (PluginException e) {
+            throw new CompletionException(e);
+        } finally {
+            if (phase != null) {
+                phase.end();
+            }
+        }
+        log.info("Plugin " + wrapper.getPluginId() + " started in " + (System.currentTimeMillis() - startTime) + "ms");
+    }
+
+    @Override
+    protected PluginRepository createPluginRepository() {
+        return new LegendaryBotPluginRepository(getPluginsRoot());
+    }
+
     @Override
     protected PluginClasspath createPluginClasspath() {
         return new LegendaryBotClasspath();
@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.plugin;
+
+import org.pf4j.BasePluginRepository;
+import org.pf4j.util.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Plugin repository extracting the plugin archives (jar or zip) into a cache directory, keyed by the checksum of the archive.
+ * An archive is only extracted again when its content changed, so restarting the bot or reloading the plugins reuses the extracted plugins.
+ * Plugin directories placed directly in the plugins folder are loaded as is.
+ */
+public class LegendaryBotPluginRepository extends BasePluginRepository {
+
+    /**
+     * The name of the directory holding the extracted plugins, inside the plugins folder
+     */
+    private static final String CACHE_DIRECTORY = ".extracted";
+
+    /**
+     * The directory holding the extracted plugins
+     */
+    private final Path cacheRoot;
+
+    /**
+     * A instance of {@link Logger} to send logs to
+     */
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Create the plugin repository
+     * @param pluginsRoot The plugins folder
+     */
+    public LegendaryBotPluginRepository(Path pluginsRoot) {
+        super(pluginsRoot, new AndFileFilter(new DirectoryFileFilter(), new NotFileFilter(new HiddenFilter())));
+        cacheRoot = pluginsRoot.resolve(CACHE_DIRECTORY);
+    }
+
+    @Override
+    public List<Path> getPluginPaths() {
+        List<Path> paths = new ArrayList<>();
+        Set<Path> extracted = new HashSet<>();
+        try {
+            Files.createDirectories(cacheRoot);
+            try (DirectoryStream<Path> archives = Files.newDirectoryStream(pluginsRoot, path -> Files.isRegularFile(path) && (FileUtils.isJarFile(path) || FileUtils.isZipFile(path)))) {
+                for (Path archive : archives) {
+                    try {
+                        Path directory = extract(archive);
+                        extracted.add(directory);
+                        paths.add(directory);
+                    } catch (IOException e) {
+                        log.error("Unable to extract the plugin " + archive, e);
+                    }
+                }
+            }
+            removeStale(extracted);
+        } catch (IOException e) {
+            log.error("Unable to list the plugin archives in " + pluginsRoot, e);
+        }
+        paths.addAll(super.getPluginPaths());
+        return paths;
+    }
+
+    @Override
+    public boolean deletePluginPath(Path pluginPath) {
+        if (!pluginPath.startsWith(cacheRoot)) {
+            return super.deletePluginPath(pluginPath);
+        }
+        String name = pluginPath.getFileName().toString();
+        try (DirectoryStream<Path> archives = Files.newDirectoryStream(pluginsRoot, name.substring(0, name.lastIndexOf('-')) + ".{jar,zip}")) {
+            for (Path archive : archives) {
+                Files.delete(archive);
+            }
+            FileUtils.delete(pluginPath);
+            return true;
+        } catch (IOException e) {
+            log.error("Unable to delete the plugin " + pluginPath, e);
+            return false;
+        }
+    }
+
+    /**
+     * Retrieve the extracted directory of an archive, extracting it if its content is not in the cache yet.
+     * @param archive The plugin archive
+     * @return The directory holding the extracted plugin
+     * @throws IOException If the archive could not be read or extracted
+     */
+    private Path extract(Path archive) throws IOException {
+        String fileName = archive.getFileName().toString();
+        Path directory = cacheRoot.resolve(fileName.substring(0, fileName.lastIndexOf('.')) + "-" + checksum(archive));
+        if (Files.isDirectory(directory)) {
+            return directory;
+        }
+        //Extract in a temporary directory then move it, so a directory in the cache is always complete.
+        Path temporary = cacheRoot.resolve(directory.getFileName() + ".tmp");
+        if (Files.exists(temporary)) {
+            FileUtils.delete(temporary);
+        }
+        long start = System.currentTimeMillis();
+        new Unzip(archive.toFile(), temporary.toFile()).extract();
+        Files.move(temporary, directory, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Extracted plugin " + fileName + " in " + (System.currentTimeMillis() - start) + "ms");
+        return directory;
+    }
+
+    /**
+     * Remove the extracted directories of the archives that changed or got removed.
+     * @param current The extracted directories of the current archives
+     * @throws IOException If the cache directory could not be listed
+     */
+    private void removeStale(Set<Path> current) throws IOException {
+        try (Stream<Path> directories = Files.list(cacheRoot)) {
+            directories.filter(directory -> !current.contains(directory)).forEach(FileUtils::optimisticDelete);
+        }
+    }
+
+    /**
+     * Compute the checksum of an archive
+     * @param archive The archive
+     * @return The first 16 hexadecimal characters of the SHA-256 of the archive
+     * @throws IOException If the archive could not be read
+     */
+    private static String checksum(Path archive) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[65536];
+        try (InputStream input = Files.newInputStream(archive)) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        byte[] hash = digest.digest();
+        for (int i = 0; i < 8; i++) {
+            hex.append(String.format("%02x", hash[i]));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.server;
+
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.Guild;
+
+import java.util.List;
+
+/**
+ * The counts of what the bot is connected to, for a node or for the whole cluster.
+ */
+public class ClusterStats {
+
+    private final int nodes;
+    private final int guilds;
+    private final int textChannels;
+    private final int voiceChannels;
+    private final int members;
+
+    /**
+     * Create cluster stats
+     * @param nodes The amount of nodes
+     * @param guilds The amount of guilds
+     * @param textChannels The amount of text channels
+     * @param voiceChannels The amount of voice channels
+     * @param members The amount of members, bots excluded
+     */
+    public ClusterStats(int nodes, int guilds, int textChannels, int voiceChannels, int members) {
+        this.nodes = nodes;
+        this.guilds = guilds;
+        this.textChannels = textChannels;
+        this.voiceChannels = voiceChannels;
+        this.members = members;
+    }
+
+    /**
+     * Count what a single node is connected to
+     * @param shards The shards of the node
+     * @return The stats of the node
+     */
+    public static ClusterStats of(List<JDA> shards) {
+        int guilds = 0, textChannels = 0, voiceChannels = 0, members = 0;
+        for (JDA jda : shards) {
+            guilds += jda.getGuilds().size();
+            textChannels += jda.getTextChannels().size();
+            voiceChannels += jda.getVoiceChannels().size();
+            for (Guild guild : jda.getGuilds()) {
+                members += guild.getMembers().stream().filter(m -> !m.getUser().isBot()).count();
+            }
+        }
+        return new ClusterStats(1, guilds, textChannels, voiceChannels, members);
+    }
+
+    /**
+     * Add the stats of another node
+     * @param other The stats to add
+     * @return The sum of both stats
+     */
+    public ClusterStats add(ClusterStats other) {
+        return new ClusterStats(nodes + other.nodes, guilds + other.guilds, textChannels + other.textChannels, voiceChannels + other.voiceChannels, members + other.members);
+    }
+
+    /**
+     * Retrieve the amount of nodes
+     * @return The amount of nodes
+     */
+    public int getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Retrieve the amount of guilds
+     * @return The amount of guilds
+     */
+    public int getGuilds() {
+        return guilds;
+    }
+
+    /**
+     * Retrieve the amount of text channels
+     * @return The amount of text channels
+     */
+    public int getTextChannels() {
+        return textChannels;
+    }
+
+    /**
+     * Retrieve the amount of voice channels
+     * @return The amount of voice channels
+     */
+    public int getVoiceChannels() {
+        return voiceChannels;
+    }
+
+    /**
+     * Retrieve the amount of members, bots excluded
+     * @return The amount of members
+     */
+    public int getMembers() {
+        return members;
+    }
+}
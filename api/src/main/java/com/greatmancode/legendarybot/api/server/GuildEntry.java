@@ -0,0 +1,164 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Everything the bot keeps about a guild: its settings, while they are resident, and the state plugins attach to it.
+ */
+public class GuildEntry {
+
+    /**
+     * The ID of the guild
+     */
+    private final long guildId;
+
+    /**
+     * The settings of the guild, null while they are not resident.
+     */
+    private volatile GuildSettings settings;
+
+    /**
+     * The last time the settings were accessed, in milliseconds
+     */
+    private volatile long lastAccess;
+
+    /**
+     * The state of the plugins for this guild, by key. Created on first use.
+     */
+    private volatile Map<String, Object> state;
+
+    /**
+     * Create a guild entry
+     * @param guildId The ID of the guild
+     */
+    public GuildEntry(long guildId) {
+        this.guildId = guildId;
+    }
+
+    /**
+     * Retrieve the ID of the guild
+     * @return The ID of the guild
+     */
+    public long getGuildId() {
+        return guildId;
+    }
+
+    /**
+     * Retrieve the settings of the guild
+     * @return The settings, null if they are not resident.
+     */
+    public GuildSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Set the settings of the guild
+     * @param settings The settings, null to evict them.
+     */
+    public void setSettings(GuildSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Retrieve the last time the settings were accessed
+     * @return The time in milliseconds
+     */
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    /**
+     * Set the last time the settings were accessed
+     * @param lastAccess The time in milliseconds
+     */
+    public void setLastAccess(long lastAccess) {
+        this.lastAccess = lastAccess;
+    }
+
+    /**
+     * Retrieve a plugin state of this guild, creating it if missing.
+     * @param key The key of the state, usually prefixed by the plugin ID.
+     * @param factory Creates the state if missing
+     * @param <T> The type of the state
+     * @return The state
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getState(String key, Supplier<T> factory) {
+        return (T) getStateMap().computeIfAbsent(key, k -> factory.get());
+    }
+
+    /**
+     * Retrieve a plugin state of this guild
+     * @param key The key of the state, usually prefixed by the plugin ID.
+     * @param <T> The type of the state
+     * @return The state, null if missing.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getState(String key) {
+        Map<String, Object> state = this.state;
+        return state == null ? null : (T) state.get(key);
+    }
+
+    /**
+     * Set a plugin state of this guild
+     * @param key The key of the state, usually prefixed by the plugin ID.
+     * @param value The state
+     */
+    public void setState(String key, Object value) {
+        getStateMap().put(key, value);
+    }
+
+    /**
+     * Remove a plugin state of this guild
+     * @param key The key of the state
+     */
+    public void removeState(String key) {
+        Map<String, Object> state = this.state;
+        if (state != null) {
+            state.remove(key);
+        }
+    }
+
+    /**
+     * Retrieve the state map, creating it if missing.
+     * @return The state map
+     */
+    private Map<String, Object> getStateMap() {
+        Map<String, Object> state = this.state;
+        if (state == null) {
+            synchronized (this) {
+                state = this.state;
+                if (state == null) {
+                    state = new ConcurrentHashMap<>(4);
+                    this.state = state;
+                }
+            }
+        }
+        return state;
+    }
+}
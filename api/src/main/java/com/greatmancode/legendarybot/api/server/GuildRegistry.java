@@ -0,0 +1,178 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.server;
+
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.Guild;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * The guilds the bot is in, striped by shard. The shard of a guild is computed from its ID the same way Discord does, (id &gt;&gt; 22) % shardCount,
+ * so finding the shard or the entry of a guild does not depend on the amount of shards.
+ */
+public class GuildRegistry {
+
+    /**
+     * The amount of shards
+     */
+    private final int shardCount;
+
+    /**
+     * The JDA instance of every shard, by shard ID
+     */
+    private final AtomicReferenceArray<JDA> shards;
+
+    /**
+     * The guild entries, one map per shard
+     */
+    private final Map<Long, GuildEntry>[] stripes;
+
+    /**
+     * Create a guild registry
+     * @param shardCount The amount of shards
+     */
+    @SuppressWarnings("unchecked")
+    public GuildRegistry(int shardCount) {
+        this.shardCount = shardCount;
+        this.shards = new AtomicReferenceArray<>(shardCount);
+        this.stripes = new Map[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Retrieve the amount of shards
+     * @return The amount of shards
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Retrieve the shard of a guild
+     * @param guildId The ID of the guild
+     * @return The shard ID
+     */
+    public int getShardId(long guildId) {
+        return (int) ((guildId >> 22) % shardCount);
+    }
+
+    /**
+     * Register the JDA instance of a shard
+     * @param shardId The shard ID
+     * @param jda The JDA instance
+     */
+    public void setShard(int shardId, JDA jda) {
+        shards.set(shardId, jda);
+    }
+
+    /**
+     * Retrieve the JDA instance of a shard
+     * @param shardId The shard ID
+     * @return The JDA instance, null if the shard is not started.
+     */
+    public JDA getShard(int shardId) {
+        return shards.get(shardId);
+    }
+
+    /**
+     * Retrieve the JDA instance a guild is on
+     * @param guild The guild
+     * @return The JDA instance, null if the shard is not started.
+     */
+    public JDA getJDA(Guild guild) {
+        return shards.get(getShardId(guild.getIdLong()));
+    }
+
+    /**
+     * Retrieve the entry of a guild, creating it if missing.
+     * @param guildId The ID of the guild
+     * @return The entry of the guild
+     */
+    public GuildEntry getEntry(long guildId) {
+        return stripes[getShardId(guildId)].computeIfAbsent(guildId, GuildEntry::new);
+    }
+
+    /**
+     * Retrieve the entry of a guild, creating it if missing.
+     * @param guild The guild
+     * @return The entry of the guild
+     */
+    public GuildEntry getEntry(Guild guild) {
+        return getEntry(guild.getIdLong());
+    }
+
+    /**
+     * Retrieve the entry of a guild
+     * @param guildId The ID of the guild
+     * @return The entry of the guild, null if missing.
+     */
+    public GuildEntry getEntryIfPresent(long guildId) {
+        return stripes[getShardId(guildId)].get(guildId);
+    }
+
+    /**
+     * Remove a guild and everything kept about it. Used when the bot leaves a guild.
+     * @param guildId The ID of the guild
+     */
+    public void remove(long guildId) {
+        stripes[getShardId(guildId)].remove(guildId);
+    }
+
+    /**
+     * Run an action on the entry of every guild of a shard
+     * @param shardId The shard ID
+     * @param action The action
+     */
+    public void forEach(int shardId, Consumer<GuildEntry> action) {
+        stripes[shardId].values().forEach(action);
+    }
+
+    /**
+     * Run an action on the entry of every guild
+     * @param action The action
+     */
+    public void forEach(Consumer<GuildEntry> action) {
+        for (Map<Long, GuildEntry> stripe : stripes) {
+            stripe.values().forEach(action);
+        }
+    }
+
+    /**
+     * Retrieve the amount of guilds having an entry
+     * @return The amount of guilds
+     */
+    public int size() {
+        int size = 0;
+        for (Map<Long, GuildEntry> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+}
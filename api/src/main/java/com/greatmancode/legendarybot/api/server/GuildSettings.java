@@ -24,6 +24,9 @@
 
 package com.greatmancode.legendarybot.api.server;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 /**
  * Settings for a specific Discord Guild
  */
@@ -66,4 +69,13 @@ public interface GuildSettings {
      * @param setting The setting key
      */
     void unsetSetting(String setting);
+
+    /**
+     * Retrieve the stage completing once the settings are loaded. Until then, the settings only hold the defaults and
+     * a read-modify-write of a setting would overwrite the value stored in the database.
+     * @return A stage completing once the settings are loaded, already completed if they are.
+     */
+    default CompletionStage<Void> whenLoaded() {
+        return CompletableFuture.completedFuture(null);
+    }
 }
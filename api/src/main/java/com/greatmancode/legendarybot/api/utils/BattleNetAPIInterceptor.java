@@ -21,13 +21,8 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
  * SOFTWARE.
  */
-
 package com.greatmancode.legendarybot.api.utils;
 
-import com.github.scribejava.core.builder.ServiceBuilder;
-import com.github.scribejava.core.model.OAuth2AccessToken;
-import com.github.scribejava.core.model.OAuthRequest;
-import com.github.scribejava.core.oauth.OAuth20Service;
 import com.greatmancode.legendarybot.api.LegendaryBot;
 import okhttp3.HttpUrl;
 import okhttp3.Interceptor;
@@ -35,12 +30,7 @@ import okhttp3.Request;
 import okhttp3.Response;
 import org.influxdb.dto.Point;
 
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Properties;
-import java.util.concurrent.ExecutionException;
 
 /**
  * OKHttp interceptor to do Battle.Net queries
@@ -48,61 +38,30 @@ import java.util.concurrent.ExecutionException;
 public class BattleNetAPIInterceptor implements Interceptor {
 
     /**
-     * List containing all available battle.net API keys
+     * The Battle.net keys and tokens of every region
+     */
+    private final BattleNetTokenManager tokens;
+
+    /**
+     * The quotas shared by every Battle.net request
      */
-    private String usKey;
-    private String usSecret;
-    private String euKey;
-    private String euSecret;
-    private static OAuth2AccessToken usToken;
-    private static OAuth20Service usService;
-    private static long usTokenExpire;
-    private static OAuth20Service euService;
-    private static OAuth2AccessToken euToken;
-    private static long euTokenExpire;
+    private final BattleNetQuotaManager quotas;
 
     /**
      * An instance of the bot.
      */
-    private LegendaryBot bot;
+    private final LegendaryBot bot;
 
     /**
      * Build an instance of the Interceptor
      * @param bot A instance of the bot.
+     * @param tokens The {@link BattleNetTokenManager} providing the keys and tokens.
+     * @param quotas The {@link BattleNetQuotaManager} every request waits on before being sent.
      */
-    public BattleNetAPIInterceptor(LegendaryBot bot) {
+    public BattleNetAPIInterceptor(LegendaryBot bot, BattleNetTokenManager tokens, BattleNetQuotaManager quotas) {
         this.bot = bot;
-        Properties props = new Properties();
-        try {
-            props.load(new FileInputStream("app.properties"));
-            usKey = props.getProperty("battlenet.us.key");
-            usSecret = props.getProperty("battlenet.us.secret");
-            euKey = props.getProperty("battlenet.eu.key");
-            euSecret = props.getProperty("battlenet.eu.secret");
-            if (usService == null) {
-                usService = new ServiceBuilder(usKey)
-                        .apiSecret(usSecret)
-                        .build(new OAuthBattleNetApi("us"));
-                usToken = usService.getAccessTokenClientCredentialsGrant();
-                usTokenExpire = System.currentTimeMillis() + (usToken.getExpiresIn() * 1000);
-            }
-
-            if (euService == null) {
-                euService = new ServiceBuilder(euKey)
-                        .apiSecret(euSecret)
-                        .build(new OAuthBattleNetApi("eu"));
-                euToken = euService.getAccessTokenClientCredentialsGrant();
-                euTokenExpire = System.currentTimeMillis() + (euToken.getExpiresIn() * 1000);
-            }
-
-        } catch (IOException e) {
-            e.printStackTrace();
-            bot.getStacktraceHandler().sendStacktrace(e);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        } catch (ExecutionException e) {
-            e.printStackTrace();
-        }
+        this.tokens = tokens;
+        this.quotas = quotas;
     }
 
     @Override
@@ -111,64 +70,34 @@ public class BattleNetAPIInterceptor implements Interceptor {
         bot.getStatsClient().write(Point.measurement("legendarybot")
         .addField("battlenet",1)
         .build());
-        HttpUrl url = null;
-        if (chain.request().url().host().equals("us.api.battle.net") && chain.request().url().encodedPath().contains("/data/")) {
-            //Data mode US
-            try {
-                refreshToken();
-
-            } catch (InterruptedException | ExecutionException e) {
-                e.printStackTrace();
-            }
-            url = chain.request().url().newBuilder()
-                    .addQueryParameter("locale", "en_US")
-                    .addQueryParameter("access_token", usToken.getAccessToken())
-                    .build();
-
-        } else if (chain.request().url().host().equals("eu.api.battle.net") && chain.request().url().encodedPath().contains("/data/")) {
-            //Data mode EU
-            try {
-                refreshToken();
-            } catch (InterruptedException | ExecutionException e) {
-                e.printStackTrace();
-            }
-            url = chain.request().url().newBuilder()
-                    .addQueryParameter("locale", "en_US")
-                    .addQueryParameter("access_token", euToken.getAccessToken())
-                    .build();
-        } else if (chain.request().url().host().equals("us.api.battle.net")) {
-            url = chain.request().url().newBuilder()
-                    .addQueryParameter("apikey", usKey)
-                    .addQueryParameter("locale", "en_US")
-                    .build();
-        } else if (chain.request().url().host().equals("eu.api.battle.net")) {
-            url = chain.request().url().newBuilder()
-                    .addQueryParameter("apikey", euKey)
-                    .addQueryParameter("locale", "en_US")
-                    .build();
-        }
-
-        Request request = chain.request().newBuilder().url(url).build();
-        Response response = chain.proceed(request);
-        return response;
-    }
-
-    private void refreshToken() throws InterruptedException, ExecutionException, IOException {
-        if (usToken == null) {
-            usToken = usService.getAccessTokenClientCredentialsGrant();
+        HttpUrl url = chain.request().url();
+        String region;
+        if (url.host().equals("us.api.battle.net")) {
+            region = "us";
+        } else if (url.host().equals("eu.api.battle.net")) {
+            region = "eu";
         } else {
-            //We do a time check.
-            if (System.currentTimeMillis() > usTokenExpire) {
-                usToken = usService.getAccessTokenClientCredentialsGrant();
-            }
+            return chain.proceed(chain.request());
         }
-        if (euToken == null) {
-            euToken = euService.getAccessTokenClientCredentialsGrant();
-        } else {
-            //We do a time check.
-            if (System.currentTimeMillis() > euTokenExpire) {
-                euToken = euService.getAccessTokenClientCredentialsGrant();
+        HttpUrl.Builder builder = url.newBuilder().addQueryParameter("locale", "en_US");
+        if (url.encodedPath().contains("/data/")) {
+            //Data mode, authenticated with the OAuth token
+            String token = tokens.getAccessToken(region);
+            if (token != null) {
+                builder.addQueryParameter("access_token", token);
             }
+        } else {
+            builder.addQueryParameter("apikey", tokens.getApiKey(region));
         }
+        String key = tokens.getApiKey(region);
+        BattleNetQuotaManager.Lane lane = chain.request().tag() == BattleNetQuotaManager.Lane.BACKGROUND ? BattleNetQuotaManager.Lane.BACKGROUND : BattleNetQuotaManager.Lane.INTERACTIVE;
+        quotas.acquire(region, key, lane);
+        Request request = chain.request().newBuilder().url(builder.build()).build();
+        Response response = chain.proceed(request);
+        if (response.code() == 429) {
+            String retryAfter = response.header("Retry-After");
+            quotas.throttled(region, key, retryAfter != null && retryAfter.matches("\\d+") ? Long.parseLong(retryAfter) : 0);
+        }
+        return response;
     }
 }
@@ -0,0 +1,178 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.utils;
+
+import okhttp3.*;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous client of the Battle.net API. Every call is sent with {@link Call#enqueue(Callback)} and returns a {@link CompletableFuture}
+ * of the parsed JSON, so commands can compose several calls without holding a thread during the round trips.
+ * The futures complete on the HTTP dispatcher threads, callbacks must not block.
+ * Error responses from Battle.net are returned as-is, with their status and reason fields. The futures only fail on network errors or invalid JSON.
+ */
+public class BattleNetClient {
+
+    /**
+     * The Battle.net HTTP client
+     */
+    private final OkHttpClient client;
+
+    /**
+     * The quota lane of the requests
+     */
+    private final BattleNetQuotaManager.Lane lane;
+
+    /**
+     * Build a Battle.net client sending interactive requests
+     * @param client The Battle.net {@link OkHttpClient}, with the {@link BattleNetAPIInterceptor} adding the credentials.
+     */
+    public BattleNetClient(OkHttpClient client) {
+        this(client, BattleNetQuotaManager.Lane.INTERACTIVE);
+    }
+
+    private BattleNetClient(OkHttpClient client, BattleNetQuotaManager.Lane lane) {
+        this.client = client;
+        this.lane = lane;
+    }
+
+    /**
+     * Retrieve a client sending its requests in another quota lane
+     * @param lane The lane
+     * @return A client sharing this one's HTTP client
+     */
+    public BattleNetClient withLane(BattleNetQuotaManager.Lane lane) {
+        return new BattleNetClient(client, lane);
+    }
+
+    /**
+     * Retrieve a guild, with its roster when asking for the members field
+     * @param region The region (us, eu)
+     * @param realm The realm slug or name
+     * @param guild The guild name
+     * @param fields The extra fields to retrieve (members, news...)
+     * @return The guild
+     */
+    public CompletableFuture<JSONObject> getGuild(String region, String realm, String guild, String... fields) {
+        return get(url(region).addPathSegment("wow").addPathSegment("guild").addPathSegment(realm).addPathSegment(guild), fields);
+    }
+
+    /**
+     * Retrieve a character profile
+     * @param region The region (us, eu)
+     * @param realm The realm slug or name
+     * @param name The character name
+     * @param fields The extra fields to retrieve (feed, items, achievements, progression...)
+     * @return The character profile
+     */
+    public CompletableFuture<JSONObject> getCharacter(String region, String realm, String name, String... fields) {
+        return get(url(region).addPathSegment("wow").addPathSegment("character").addPathSegment(realm).addPathSegment(name), fields);
+    }
+
+    /**
+     * Retrieve the feed of a character
+     * @param region The region (us, eu)
+     * @param realm The realm slug or name
+     * @param name The character name
+     * @return The character profile with its feed
+     */
+    public CompletableFuture<JSONObject> getCharacterFeed(String region, String realm, String name) {
+        return getCharacter(region, realm, name, "feed");
+    }
+
+    /**
+     * Retrieve an item
+     * @param region The region (us, eu)
+     * @param itemId The item ID
+     * @return The item
+     */
+    public CompletableFuture<JSONObject> getItem(String region, long itemId) {
+        return get(url(region).addPathSegment("wow").addPathSegment("item").addPathSegment(Long.toString(itemId)));
+    }
+
+    /**
+     * Retrieve the status of realms
+     * @param region The region (us, eu)
+     * @param realms The realms to retrieve, every realm of the region if none are given
+     * @return The realm status, in the realms array
+     */
+    public CompletableFuture<JSONObject> getRealmStatus(String region, String... realms) {
+        HttpUrl.Builder url = url(region).addPathSegment("wow").addPathSegment("realm").addPathSegment("status");
+        if (realms.length > 0) {
+            url.addQueryParameter("realms", String.join(",", realms));
+        }
+        return get(url);
+    }
+
+    /**
+     * Retrieve the mythic challenge mode index of the region, holding the current affixes
+     * @param region The region (us, eu)
+     * @return The mythic challenge mode index
+     */
+    public CompletableFuture<JSONObject> getMythicChallengeMode(String region) {
+        return get(url(region).addPathSegments("data/wow/mythic-challenge-mode/").addQueryParameter("namespace", "dynamic-" + region));
+    }
+
+    private HttpUrl.Builder url(String region) {
+        return new HttpUrl.Builder().scheme("https").host(region.toLowerCase() + ".api.battle.net");
+    }
+
+    private CompletableFuture<JSONObject> get(HttpUrl.Builder url, String... fields) {
+        if (fields.length > 0) {
+            url.addQueryParameter("fields", String.join(",", fields));
+        }
+        return getJson(client, new Request.Builder().url(url.build()).tag(lane).build());
+    }
+
+    /**
+     * Send a request asynchronously and parse its JSON response. Usable with any of the shared clients.
+     * @param client The {@link OkHttpClient} sending the request
+     * @param request The request
+     * @return The parsed JSON object of the response
+     */
+    public static CompletableFuture<JSONObject> getJson(OkHttpClient client, Request request) {
+        CompletableFuture<JSONObject> future = new CompletableFuture<>();
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (ResponseBody body = response.body()) {
+                    future.complete((JSONObject) new JSONParser().parse(body.string()));
+                } catch (IOException | ParseException | ClassCastException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        return future;
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.utils;
+
+import com.greatmancode.legendarybot.api.LegendaryBot;
+import org.influxdb.dto.Point;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Shares the Battle.net quotas between every plugin. Each API key of each region gets a per-second and a per-hour token bucket.
+ * Requests go through one of two lanes: interactive requests (commands) may use the whole quota, background requests (scans, syncs)
+ * leave a reserve untouched and wait as long as any interactive request is waiting. Background requests only wait briefly, when the quota
+ * stays short they fail with a {@link QuotaExhaustedException} and their scheduled task retries on its next run.
+ */
+public class BattleNetQuotaManager {
+
+    /**
+     * The lane of a request. Set it as the tag of an OkHttp request to pick it, requests without it are interactive.
+     */
+    public enum Lane {
+        INTERACTIVE,
+        BACKGROUND
+    }
+
+    /**
+     * The maximum time an interactive request waits for the quota, in seconds
+     */
+    private static final long INTERACTIVE_TIMEOUT = 10;
+
+    /**
+     * The maximum time a background request waits for the quota, in seconds. Long enough to ride out the per second bucket, short enough
+     * to never hold a dispatcher thread while the hourly quota refills.
+     */
+    private static final long BACKGROUND_TIMEOUT = 2;
+
+    /**
+     * Thrown when a request waited too long for the quota of its key
+     */
+    public static class QuotaExhaustedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public QuotaExhaustedException(String region, long timeout) {
+            super("Battle.net quota of region " + region + " exhausted for " + timeout + " seconds");
+        }
+    }
+
+    /**
+     * The interval between two reports of the remaining quota, in seconds
+     */
+    private static final long REPORT_INTERVAL = 10;
+
+    /**
+     * A instance of the bot.
+     */
+    private final LegendaryBot bot;
+
+    /**
+     * The maximum amount of requests per second of a key
+     */
+    private final int perSecond;
+
+    /**
+     * The maximum amount of requests per hour of a key
+     */
+    private final int perHour;
+
+    /**
+     * The part of both buckets background requests can't use
+     */
+    private final double backgroundReserve;
+
+    /**
+     * The quotas by region and key
+     */
+    private final Map<String, Quota> quotas = new ConcurrentHashMap<>();
+
+    /**
+     * The thread reporting the remaining quotas
+     */
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "LegendaryBot-BattleNet-Quota");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Create the quota manager
+     * @param bot A instance of the bot.
+     * @param perSecond The maximum amount of requests per second of a key
+     * @param perHour The maximum amount of requests per hour of a key
+     * @param backgroundReserve The part of the quotas kept for the interactive requests, between 0 and 1
+     */
+    public BattleNetQuotaManager(LegendaryBot bot, int perSecond, int perHour, double backgroundReserve) {
+        this.bot = bot;
+        this.perSecond = perSecond;
+        this.perHour = perHour;
+        this.backgroundReserve = backgroundReserve;
+        executor.scheduleAtFixedRate(this::report, REPORT_INTERVAL, REPORT_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Wait until a request can be sent and take it from the quota of its key
+     * @param region The region (us, eu)
+     * @param key The API key the request is sent with
+     * @param lane The lane of the request
+     * @throws QuotaExhaustedException If the quota stayed exhausted for too long
+     * @throws IOException If the thread got interrupted
+     */
+    public void acquire(String region, String key, Lane lane) throws IOException {
+        Quota quota = quotas.computeIfAbsent(region + ":" + key, k -> new Quota(region, key));
+        long timeout = lane == Lane.INTERACTIVE ? INTERACTIVE_TIMEOUT : BACKGROUND_TIMEOUT;
+        try {
+            if (!quota.acquire(lane, TimeUnit.SECONDS.toMillis(timeout))) {
+                throw new QuotaExhaustedException(region, timeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the Battle.net quota");
+        }
+    }
+
+    /**
+     * Tell the manager Battle.net refused a request because of its quota. The key stops sending requests for a while.
+     * @param region The region (us, eu)
+     * @param key The API key the request was sent with
+     * @param retryAfter The time to wait given by Battle.net, in seconds, 0 if unknown
+     */
+    public void throttled(String region, String key, long retryAfter) {
+        quotas.computeIfAbsent(region + ":" + key, k -> new Quota(region, key)).pause(TimeUnit.SECONDS.toMillis(Math.max(retryAfter, 1)));
+    }
+
+    /**
+     * Retrieve the amount of requests a key can still send this hour
+     * @param region The region (us, eu)
+     * @param key The API key
+     * @return The remaining requests of the hour
+     */
+    public int getRemaining(String region, String key) {
+        Quota quota = quotas.get(region + ":" + key);
+        return quota == null ? perHour : (int) quota.getHourTokens();
+    }
+
+    /**
+     * Write the remaining quota of every key to the stats. Keys are identified by their last characters, the stats never hold a whole key.
+     */
+    private void report() {
+        quotas.values().forEach(quota -> bot.getStatsClient().write(Point.measurement("battlenetquota")
+                .tag("region", quota.region)
+                .tag("key", quota.key.length() > 4 ? quota.key.substring(quota.key.length() - 4) : quota.key)
+                .addField("second", quota.getSecondTokens())
+                .addField("hour", quota.getHourTokens())
+                .build()));
+    }
+
+    /**
+     * Stop reporting the quotas
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The token buckets of a key
+     */
+    private class Quota {
+        private final String region;
+        private final String key;
+        private double secondTokens = perSecond;
+        private double hourTokens = perHour;
+        private long lastRefill = System.nanoTime();
+        private long pausedUntil;
+        private int interactiveWaiting;
+
+        private Quota(String region, String key) {
+            this.region = region;
+            this.key = key;
+        }
+
+        private synchronized boolean acquire(Lane lane, long timeout) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeout;
+            if (lane == Lane.INTERACTIVE) {
+                interactiveWaiting++;
+            }
+            try {
+                while (true) {
+                    refill();
+                    long now = System.currentTimeMillis();
+                    if (now >= pausedUntil && canTake(lane)) {
+                        secondTokens--;
+                        hourTokens--;
+                        return true;
+                    }
+                    if (now >= deadline) {
+                        return false;
+                    }
+                    long wait = Math.max(pausedUntil - now, (long) Math.ceil(1000.0 / perSecond));
+                    wait(Math.min(wait, deadline - now));
+                }
+            } finally {
+                if (lane == Lane.INTERACTIVE) {
+                    interactiveWaiting--;
+                    notifyAll();
+                }
+            }
+        }
+
+        private boolean canTake(Lane lane) {
+            if (lane == Lane.INTERACTIVE) {
+                return secondTokens >= 1 && hourTokens >= 1;
+            }
+            return interactiveWaiting == 0
+                    && secondTokens >= 1 + perSecond * backgroundReserve
+                    && hourTokens >= 1 + perHour * backgroundReserve;
+        }
+
+        private synchronized void pause(long millis) {
+            secondTokens = 0;
+            pausedUntil = Math.max(pausedUntil, System.currentTimeMillis() + millis);
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            double elapsed = (now - lastRefill) / (double) TimeUnit.SECONDS.toNanos(1);
+            lastRefill = now;
+            secondTokens = Math.min(perSecond, secondTokens + elapsed * perSecond);
+            hourTokens = Math.min(perHour, hourTokens + elapsed * perHour / 3600);
+        }
+
+        private synchronized double getSecondTokens() {
+            refill();
+            return secondTokens;
+        }
+
+        private synchronized double getHourTokens() {
+            refill();
+            return hourTokens;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.utils;
+
+import com.github.scribejava.core.builder.ServiceBuilder;
+import com.github.scribejava.core.model.OAuth2AccessToken;
+import com.github.scribejava.core.oauth.OAuth20Service;
+import com.greatmancode.legendarybot.api.LegendaryBot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps a Battle.net OAuth token for every region. Tokens are refreshed in the background before they expire, and only one refresh
+ * per region is ever in flight. Requests always get the current token right away, only the very first request of a region waits
+ * for its first token.
+ */
+public class BattleNetTokenManager {
+
+    /**
+     * The part of the token lifetime after which it gets refreshed
+     */
+    private static final double REFRESH_RATIO = 0.8;
+
+    /**
+     * The time before retrying a failed refresh, in seconds
+     */
+    private static final long RETRY_DELAY = 30;
+
+    /**
+     * The maximum time the first request of a region waits for its first token, in seconds
+     */
+    private static final long FIRST_TOKEN_TIMEOUT = 10;
+
+    /**
+     * A instance of the bot.
+     */
+    private final LegendaryBot bot;
+
+    /**
+     * The bot configuration, holding the keys and secrets of each region
+     */
+    private final Properties props;
+
+    /**
+     * The tokens by region
+     */
+    private final Map<String, RegionToken> regions = new ConcurrentHashMap<>();
+
+    /**
+     * The thread refreshing the tokens
+     */
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "LegendaryBot-BattleNet-Token");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * A instance of {@link Logger} to send logs to
+     */
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Create the token manager. The keys are read from the properties as battlenet.[region].key and battlenet.[region].secret.
+     * @param bot A instance of the bot.
+     * @param props The bot configuration.
+     */
+    public BattleNetTokenManager(LegendaryBot bot, Properties props) {
+        this.bot = bot;
+        this.props = props;
+    }
+
+    /**
+     * Retrieve the API key of a region, used by the requests not needing a token
+     * @param region The region (us, eu)
+     * @return The API key
+     */
+    public String getApiKey(String region) {
+        return props.getProperty("battlenet." + region + ".key");
+    }
+
+    /**
+     * Retrieve the current token of a region. Never waits for a refresh, a token close to its expiry is returned while the next one is fetched.
+     * @param region The region (us, eu)
+     * @return The access token, null if the first token of the region could not be fetched
+     */
+    public String getAccessToken(String region) {
+        RegionToken regionToken = regions.computeIfAbsent(region, RegionToken::new);
+        OAuth2AccessToken token = regionToken.token;
+        if (token != null) {
+            return token.getAccessToken();
+        }
+        try {
+            return regionToken.refresh().get(FIRST_TOKEN_TIMEOUT, TimeUnit.SECONDS).getAccessToken();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("Unable to get the first Battle.net token of region " + region, e);
+            return null;
+        }
+    }
+
+    /**
+     * Fetch the token of a region right away. Used at startup so the first requests don't wait.
+     * @param region The region (us, eu)
+     */
+    public void prefetch(String region) {
+        regions.computeIfAbsent(region, RegionToken::new).refresh();
+    }
+
+    /**
+     * Stop refreshing the tokens
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The token of a region
+     */
+    private class RegionToken {
+
+        private final String region;
+        private final OAuth20Service service;
+
+        /**
+         * The current token, null until the first one is fetched
+         */
+        private volatile OAuth2AccessToken token;
+
+        /**
+         * The refresh in flight, null if none
+         */
+        private final AtomicReference<CompletableFuture<OAuth2AccessToken>> inFlight = new AtomicReference<>();
+
+        /**
+         * The next scheduled refresh. Only used from the refresh thread.
+         */
+        private ScheduledFuture<?> nextRefresh;
+
+        private RegionToken(String region) {
+            this.region = region;
+            service = new ServiceBuilder(props.getProperty("battlenet." + region + ".key"))
+                    .apiSecret(props.getProperty("battlenet." + region + ".secret"))
+                    .build(new OAuthBattleNetApi(region));
+        }
+
+        /**
+         * Refresh the token, joining the refresh in flight if there is one.
+         * @return The refresh
+         */
+        private CompletableFuture<OAuth2AccessToken> refresh() {
+            CompletableFuture<OAuth2AccessToken> future = new CompletableFuture<>();
+            if (!inFlight.compareAndSet(null, future)) {
+                CompletableFuture<OAuth2AccessToken> current = inFlight.get();
+                if (current != null) {
+                    return current;
+                }
+                return refresh();
+            }
+            try {
+                executor.execute(() -> fetch(future));
+            } catch (RejectedExecutionException e) {
+                inFlight.set(null);
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+
+        /**
+         * Fetch a new token and schedule its refresh
+         * @param future The refresh to complete
+         */
+        private void fetch(CompletableFuture<OAuth2AccessToken> future) {
+            long delay;
+            try {
+                OAuth2AccessToken newToken = service.getAccessTokenClientCredentialsGrant();
+                token = newToken;
+                future.complete(newToken);
+                delay = newToken.getExpiresIn() != null ? (long) (newToken.getExpiresIn() * REFRESH_RATIO) : RETRY_DELAY;
+            } catch (Exception e) {
+                log.warn("Unable to refresh the Battle.net token of region " + region + ", retrying in " + RETRY_DELAY + " seconds", e);
+                bot.getStacktraceHandler().sendStacktrace(e, "region:" + region);
+                future.completeExceptionally(e);
+                delay = RETRY_DELAY;
+            } finally {
+                inFlight.set(null);
+            }
+            if (nextRefresh != null) {
+                nextRefresh.cancel(false);
+            }
+            try {
+                nextRefresh = executor.schedule(this::refresh, delay, TimeUnit.SECONDS);
+            } catch (RejectedExecutionException ignored) {
+                //Shutting down
+            }
+        }
+    }
+}
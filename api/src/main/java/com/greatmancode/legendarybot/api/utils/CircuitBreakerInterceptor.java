@@ -0,0 +1,280 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.utils;
+
+import com.greatmancode.legendarybot.api.LegendaryBot;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import org.influxdb.dto.Point;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OKHttp interceptor keeping a circuit breaker per upstream host. A breaker opens when too many of the last calls to its host failed
+ * or were slow, then every call to the host fails right away with a {@link CircuitOpenException} until the breaker lets a single trial call through.
+ * Errors and 5xx responses are failures, 429 responses are left to the quota handling and cancelled calls are not counted.
+ * Must be the last interceptor, so only the network is timed.
+ */
+public class CircuitBreakerInterceptor implements Interceptor {
+
+    /**
+     * The amount of calls the rates are computed on
+     */
+    private static final int WINDOW = 20;
+
+    /**
+     * The minimum amount of calls in the window before a breaker can open
+     */
+    private static final int MINIMUM_CALLS = 10;
+
+    /**
+     * The interval between two reports of the breaker states, in seconds
+     */
+    private static final long REPORT_INTERVAL = 10;
+
+    /**
+     * The state of a breaker
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Thrown when a call is refused because the breaker of its host is open
+     */
+    public static class CircuitOpenException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public CircuitOpenException(String host) {
+            super("Circuit breaker open for " + host);
+        }
+    }
+
+    /**
+     * A instance of the bot.
+     */
+    private final LegendaryBot bot;
+
+    /**
+     * The failure rate opening a breaker, between 0 and 1
+     */
+    private final double failureRateThreshold;
+
+    /**
+     * The slow call rate opening a breaker, between 0 and 1
+     */
+    private final double slowRateThreshold;
+
+    /**
+     * The duration after which a call is slow, in milliseconds
+     */
+    private final long slowCallDuration;
+
+    /**
+     * The time a breaker stays open before a trial call, in milliseconds
+     */
+    private final long openDuration;
+
+    /**
+     * The breakers by host
+     */
+    private final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+
+    /**
+     * A instance of {@link Logger} to send logs to
+     */
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Build an instance of the Interceptor
+     * @param bot A instance of the bot.
+     * @param scheduler The scheduler reporting the breaker states.
+     * @param failureRateThreshold The failure rate opening a breaker, between 0 and 1
+     * @param slowRateThreshold The slow call rate opening a breaker, between 0 and 1
+     * @param slowCallDuration The duration after which a call is slow, in milliseconds
+     * @param openDuration The time a breaker stays open before a trial call, in milliseconds
+     */
+    public CircuitBreakerInterceptor(LegendaryBot bot, ScheduledExecutorService scheduler, double failureRateThreshold, double slowRateThreshold, long slowCallDuration, long openDuration) {
+        this.bot = bot;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowRateThreshold = slowRateThreshold;
+        this.slowCallDuration = slowCallDuration;
+        this.openDuration = openDuration;
+        scheduler.scheduleAtFixedRate(this::report, REPORT_INTERVAL, REPORT_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        String host = chain.request().url().host();
+        Breaker breaker = breakers.computeIfAbsent(host, Breaker::new);
+        if (!breaker.allow()) {
+            throw new CircuitOpenException(host);
+        }
+        long start = System.currentTimeMillis();
+        try {
+            Response response = chain.proceed(chain.request());
+            breaker.record(response.code() >= 500, System.currentTimeMillis() - start);
+            return response;
+        } catch (IOException e) {
+            //A call cancelled by its caller says nothing about the upstream.
+            if ("Canceled".equals(e.getMessage())) {
+                breaker.release();
+            } else {
+                breaker.record(true, System.currentTimeMillis() - start);
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            breaker.record(true, System.currentTimeMillis() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * Retrieve the state of the breaker of a host
+     * @param host The host
+     * @return The state of its breaker, {@link State#CLOSED} if it was never called
+     */
+    public State getState(String host) {
+        Breaker breaker = breakers.get(host);
+        return breaker == null ? State.CLOSED : breaker.getState();
+    }
+
+    /**
+     * Write the state of every breaker to the stats
+     */
+    private void report() {
+        breakers.values().forEach(breaker -> {
+            synchronized (breaker) {
+                bot.getStatsClient().write(Point.measurement("circuitbreaker")
+                        .tag("host", breaker.host)
+                        .addField("state", breaker.getState().ordinal())
+                        .addField("failurerate", breaker.rate(breaker.failures))
+                        .addField("slowrate", breaker.rate(breaker.slows))
+                        .build());
+            }
+        });
+    }
+
+    /**
+     * The breaker of a host, computing its rates on the last {@link #WINDOW} calls
+     */
+    private class Breaker {
+        private final String host;
+        private final boolean[] failures = new boolean[WINDOW];
+        private final boolean[] slows = new boolean[WINDOW];
+        private int next;
+        private int calls;
+        private State state = State.CLOSED;
+        private long openedAt;
+        private boolean trialInFlight;
+
+        private Breaker(String host) {
+            this.host = host;
+        }
+
+        private synchronized State getState() {
+            return state;
+        }
+
+        private synchronized boolean allow() {
+            switch (state) {
+                case OPEN:
+                    if (System.currentTimeMillis() - openedAt < openDuration) {
+                        return false;
+                    }
+                    state = State.HALF_OPEN;
+                    trialInFlight = true;
+                    return true;
+                case HALF_OPEN:
+                    if (trialInFlight) {
+                        return false;
+                    }
+                    trialInFlight = true;
+                    return true;
+                default:
+                    return true;
+            }
+        }
+
+        /**
+         * Forget a call without recording its outcome, letting another trial call through if it was one
+         */
+        private synchronized void release() {
+            if (state == State.HALF_OPEN) {
+                trialInFlight = false;
+            }
+        }
+
+        private synchronized void record(boolean failure, long duration) {
+            boolean slow = duration >= slowCallDuration;
+            if (state == State.HALF_OPEN) {
+                trialInFlight = false;
+                if (failure || slow) {
+                    open();
+                } else {
+                    log.info("Circuit breaker of " + host + " closed.");
+                    state = State.CLOSED;
+                    calls = 0;
+                    next = 0;
+                }
+                return;
+            }
+            failures[next] = failure;
+            slows[next] = slow;
+            next = (next + 1) % WINDOW;
+            calls = Math.min(calls + 1, WINDOW);
+            if (state == State.CLOSED && calls >= MINIMUM_CALLS
+                    && (rate(failures) >= failureRateThreshold || rate(slows) >= slowRateThreshold)) {
+                open();
+            }
+        }
+
+        private void open() {
+            log.warn("Circuit breaker of " + host + " opened, failure rate " + rate(failures) + ", slow rate " + rate(slows));
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+
+        private double rate(boolean[] outcomes) {
+            if (calls == 0) {
+                return 0;
+            }
+            int count = 0;
+            for (int i = 0; i < calls; i++) {
+                if (outcomes[i]) {
+                    count++;
+                }
+            }
+            return count / (double) calls;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.utils;
+
+import com.greatmancode.legendarybot.api.LegendaryBot;
+import okhttp3.*;
+import org.influxdb.dto.Point;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OKHttp interceptor hedging the GET requests: when a request takes longer than the 95th percentile of the last calls to its host,
+ * a second identical request is sent and the first response wins. The requests are sent through the given client, which must hold
+ * every interceptor that runs after this one and its own {@link Dispatcher}: the call being intercepted may hold a slot of the
+ * dispatcher of the outer client while it waits for the attempts. Must run after any cache, so only the calls going to the network are timed.
+ */
+public class HedgingInterceptor implements Interceptor {
+
+    /**
+     * The amount of latencies kept per host
+     */
+    private static final int WINDOW = 100;
+
+    /**
+     * The minimum amount of latencies of a host before hedging its requests
+     */
+    private static final int MINIMUM_SAMPLES = 20;
+
+    /**
+     * The minimum delay before a hedged request, in milliseconds
+     */
+    private static final long MINIMUM_DELAY = 50;
+
+    /**
+     * A instance of the bot.
+     */
+    private final LegendaryBot bot;
+
+    /**
+     * The client sending the requests
+     */
+    private final OkHttpClient client;
+
+    /**
+     * The scheduler sending the hedged requests
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * The last latencies by host
+     */
+    private final Map<String, Latencies> latencies = new ConcurrentHashMap<>();
+
+    /**
+     * The maximum time waited for the attempts, in milliseconds. OkHttp has no call timeout, so it is the sum of the timeouts of the client.
+     */
+    private final long timeout;
+
+    /**
+     * Build an instance of the Interceptor
+     * @param bot A instance of the bot.
+     * @param client The client sending the requests, with a {@link Dispatcher} not used by the client this interceptor is added to.
+     * @param scheduler The scheduler sending the hedged requests.
+     */
+    public HedgingInterceptor(LegendaryBot bot, OkHttpClient client, ScheduledExecutorService scheduler) {
+        this.bot = bot;
+        this.client = client;
+        this.scheduler = scheduler;
+        this.timeout = client.connectTimeoutMillis() + client.writeTimeoutMillis() + client.readTimeoutMillis();
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!request.method().equals("GET")) {
+            return chain.proceed(request);
+        }
+        Latencies hostLatencies = latencies.computeIfAbsent(request.url().host(), k -> new Latencies());
+        long delay = hostLatencies.p95();
+        long start = System.currentTimeMillis();
+        if (delay < 0) {
+            //Run on the calling thread, never waiting on a dispatcher.
+            Response response = client.newCall(request).execute();
+            hostLatencies.add(System.currentTimeMillis() - start);
+            return response;
+        }
+
+        //The losing call is never cancelled, a cancelled call would count as a failure in the circuit breaker.
+        //It runs to completion and its response is closed.
+        CompletableFuture<Response> winner = new CompletableFuture<>();
+        AtomicInteger attempts = new AtomicInteger(1);
+        client.newCall(request).enqueue(new Attempt(winner, attempts));
+        ScheduledFuture<?> timer = scheduler.schedule(() -> {
+            if (winner.isDone()) {
+                return;
+            }
+            bot.getStatsClient().write(Point.measurement("legendarybot")
+                    .addField("httphedged", 1)
+                    .build());
+            attempts.incrementAndGet();
+            client.newCall(request).enqueue(new Attempt(winner, attempts));
+        }, Math.max(delay, MINIMUM_DELAY), TimeUnit.MILLISECONDS);
+        try {
+            Response response = winner.get(timeout, TimeUnit.MILLISECONDS);
+            hostLatencies.add(System.currentTimeMillis() - start);
+            return response;
+        } catch (TimeoutException e) {
+            //A late response is closed by its attempt.
+            winner.completeExceptionally(e);
+            throw new SocketTimeoutException("Hedged request to " + request.url().host() + " timed out after " + timeout + "ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a hedged request");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            timer.cancel(false);
+        }
+    }
+
+    /**
+     * One of the calls of a hedged request. The first response wins, the request fails once every call failed.
+     */
+    private static class Attempt implements Callback {
+        private final CompletableFuture<Response> winner;
+        private final AtomicInteger attempts;
+
+        private Attempt(CompletableFuture<Response> winner, AtomicInteger attempts) {
+            this.winner = winner;
+            this.attempts = attempts;
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            if (attempts.decrementAndGet() == 0) {
+                winner.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) {
+            if (!winner.complete(response)) {
+                response.close();
+            }
+        }
+    }
+
+    /**
+     * The last latencies of a host
+     */
+    private static class Latencies {
+        private final long[] values = new long[WINDOW];
+        private int next;
+        private int count;
+
+        private synchronized void add(long latency) {
+            values[next] = latency;
+            next = (next + 1) % WINDOW;
+            count = Math.min(count + 1, WINDOW);
+        }
+
+        /**
+         * @return The 95th percentile of the latencies, -1 if there are not enough of them
+         */
+        private synchronized long p95() {
+            if (count < MINIMUM_SAMPLES) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(values, count);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.ceil(count * 0.95) - 1];
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.utils;
+
+import com.greatmancode.legendarybot.api.LegendaryBot;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The HTTP clients of the bot, one per upstream. Every client shares the same connection pool and dispatcher, so the connections,
+ * TLS sessions and threads are reused across plugins and tuned in a single place. Concurrent identical GET requests on a client share
+ * a single call through a {@link RequestCoalescer}, every host gets a circuit breaker through the {@link CircuitBreakerInterceptor}, and the GET
+ * requests of the upstreams with http.hedge.[upstream] set are hedged through a {@link HedgingInterceptor}.
+ * Plugins must use these clients instead of building their own.
+ */
+public class HttpClientRegistry {
+
+    /**
+     * The Battle.net API. Requests go through the {@link BattleNetAPIInterceptor}.
+     */
+    public static final String BATTLENET = "battlenet";
+
+    /**
+     * The raider.io API
+     */
+    public static final String RAIDERIO = "raiderio";
+
+    /**
+     * The Twitch and Mixer APIs
+     */
+    public static final String TWITCH = "twitch";
+
+    /**
+     * The Warcraft Logs API
+     */
+    public static final String WARCRAFTLOGS = "warcraftlogs";
+
+    /**
+     * The Twitter API
+     */
+    public static final String TWITTER = "twitter";
+
+    /**
+     * Every other upstream
+     */
+    public static final String DEFAULT = "default";
+
+    /**
+     * A instance of the bot.
+     */
+    private final LegendaryBot bot;
+
+    /**
+     * The client every upstream client is derived from, holding the shared connection pool and dispatcher.
+     */
+    private final OkHttpClient base;
+
+    /**
+     * The clients by upstream
+     */
+    private final Map<String, OkHttpClient> clients = new ConcurrentHashMap<>();
+
+    /**
+     * The threads running the asynchronous calls
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The threads running the calls of the hedged requests
+     */
+    private final ExecutorService hedgeExecutor;
+
+    /**
+     * The dispatcher of the hedged requests. Separate from the shared one, whose slots are held by the calls waiting on their hedged requests.
+     */
+    private final Dispatcher hedgeDispatcher;
+
+    /**
+     * The Battle.net keys and tokens used by the Battle.net client
+     */
+    private final BattleNetTokenManager battleNetTokens;
+
+    /**
+     * The Battle.net quotas shared by every plugin
+     */
+    private final BattleNetQuotaManager battleNetQuotas;
+
+    /**
+     * The thread sending the hedged requests and reporting the circuit breakers
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * The circuit breakers of every upstream host
+     */
+    private final CircuitBreakerInterceptor circuitBreakers;
+
+    /**
+     * The bot configuration, holding the HTTP cache, circuit breaker and hedging settings
+     */
+    private final Properties props;
+
+    /**
+     * Build the HTTP clients
+     * @param bot A instance of the bot.
+     * @param props The bot configuration, holding the Battle.net keys.
+     * @param maxIdleConnections The maximum amount of idle connections kept alive, for all upstreams.
+     * @param keepAlive The time an idle connection is kept alive, in seconds.
+     * @param maxRequests The maximum amount of asynchronous calls running at once.
+     * @param maxRequestsPerHost The maximum amount of asynchronous calls running at once to the same host.
+     */
+    public HttpClientRegistry(LegendaryBot bot, Properties props, int maxIdleConnections, long keepAlive, int maxRequests, int maxRequestsPerHost) {
+        this.bot = bot;
+        this.props = props;
+        battleNetTokens = new BattleNetTokenManager(bot, props);
+        battleNetQuotas = new BattleNetQuotaManager(bot,
+                Integer.parseInt(props.getProperty("battlenet.quota.second", "100")),
+                Integer.parseInt(props.getProperty("battlenet.quota.hour", "36000")),
+                Double.parseDouble(props.getProperty("battlenet.quota.reserve", "0.2")));
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(0, maxRequests, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread thread = new Thread(r, "LegendaryBot-HTTP-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger hedgeThreadCount = new AtomicInteger();
+        hedgeExecutor = new ThreadPoolExecutor(0, maxRequests, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread thread = new Thread(r, "LegendaryBot-HTTP-Hedge-" + hedgeThreadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        hedgeDispatcher = new Dispatcher(hedgeExecutor);
+        hedgeDispatcher.setMaxRequests(maxRequests);
+        hedgeDispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "LegendaryBot-HTTP-Scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        circuitBreakers = new CircuitBreakerInterceptor(bot, scheduler,
+                Double.parseDouble(props.getProperty("http.breaker.failure", "0.5")),
+                Double.parseDouble(props.getProperty("http.breaker.slow", "0.5")),
+                Long.parseLong(props.getProperty("http.breaker.slowcall", "5000")),
+                TimeUnit.SECONDS.toMillis(Long.parseLong(props.getProperty("http.breaker.open", "30"))));
+        Dispatcher dispatcher = new Dispatcher(executor);
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        base = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive, TimeUnit.SECONDS))
+                .dispatcher(dispatcher)
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .readTimeout(15, TimeUnit.SECONDS)
+                .writeTimeout(15, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Build the HTTP clients with the default tuning
+     * @param bot A instance of the bot.
+     * @param props The bot configuration, holding the Battle.net keys.
+     */
+    public HttpClientRegistry(LegendaryBot bot, Properties props) {
+        this(bot, props, 50, 300, 128, 16);
+    }
+
+    /**
+     * Retrieve the client of an upstream
+     * @param upstream The upstream, one of the constants of this class or any other name.
+     * @return The shared {@link OkHttpClient} of the upstream.
+     */
+    public OkHttpClient get(String upstream) {
+        return clients.computeIfAbsent(upstream, this::createClient);
+    }
+
+    /**
+     * Retrieve the asynchronous Battle.net client
+     * @return A {@link BattleNetClient} sending its requests through the shared Battle.net client
+     */
+    public BattleNetClient getBattleNet() {
+        return new BattleNetClient(get(BATTLENET));
+    }
+
+    /**
+     * Build the client of an upstream
+     * @param upstream The upstream
+     * @return A client sharing the connection pool and dispatcher of every other client
+     */
+    private OkHttpClient createClient(String upstream) {
+        //The breaker goes last, so it only times the network and never sees the quota waits or the locally generated errors.
+        OkHttpClient.Builder builder = base.newBuilder();
+        if (upstream.equals(BATTLENET)) {
+            builder.addInterceptor(new BattleNetAPIInterceptor(bot, battleNetTokens, battleNetQuotas));
+        }
+        builder.addInterceptor(circuitBreakers);
+        OkHttpClient network = builder.build();
+
+        //Identical requests in flight share one call, before any cache, hedge or quota sees them.
+        List<Interceptor> interceptors = new ArrayList<>();
+        interceptors.add(new RequestCoalescer(bot, network.connectTimeoutMillis() + network.writeTimeoutMillis() + network.readTimeoutMillis()));
+        if (upstream.equals(BATTLENET)) {
+            //The cache comes before the credentials so the responses are keyed without the access token, which changes on every refresh,
+            //and before the hedge so only the calls going to the network are hedged and timed.
+            interceptors.add(createBattleNetCache());
+        }
+        if (Boolean.parseBoolean(props.getProperty("http.hedge." + upstream, "false"))) {
+            interceptors.add(new HedgingInterceptor(bot, network.newBuilder().dispatcher(hedgeDispatcher).build(), scheduler));
+        }
+        OkHttpClient.Builder outer = network.newBuilder();
+        outer.interceptors().addAll(0, interceptors);
+        return outer.build();
+    }
+
+    /**
+     * Build the cache of the Battle.net responses. Items never change, realm status must stay current, and the guild rosters and
+     * character feeds only need to be fresher than the legendary check interval. Other character requests, like the ones of the
+     * commands, follow the Cache-Control of Battle.net.
+     * @return The {@link HttpResponseCache} of the Battle.net client
+     */
+    private HttpResponseCache createBattleNetCache() {
+        File directory = new File(props.getProperty("http.cache.dir", "cache/http"), BATTLENET);
+        long memory = Long.parseLong(props.getProperty("http.cache.memory", "32")) * 1024 * 1024;
+        long disk = Long.parseLong(props.getProperty("http.cache.disk", "256")) * 1024 * 1024;
+        return new HttpResponseCache(directory, memory, disk)
+                .ttl("/wow/item/", HttpResponseCache.FOREVER)
+                .ttl("/wow/realm/status", 60)
+                .ttl("/wow/guild/", 600)
+                .ttl("^/wow/character/[^?]*\\?(.*&)?fields=feed(&|$)", 300);
+    }
+
+    /**
+     * Retrieve the Battle.net keys and tokens
+     * @return The {@link BattleNetTokenManager} used by the Battle.net client
+     */
+    public BattleNetTokenManager getBattleNetTokens() {
+        return battleNetTokens;
+    }
+
+    /**
+     * Retrieve the Battle.net quotas
+     * @return The {@link BattleNetQuotaManager} used by the Battle.net client
+     */
+    public BattleNetQuotaManager getBattleNetQuotas() {
+        return battleNetQuotas;
+    }
+
+    /**
+     * Retrieve the circuit breakers
+     * @return The {@link CircuitBreakerInterceptor} shared by every client
+     */
+    public CircuitBreakerInterceptor getCircuitBreakers() {
+        return circuitBreakers;
+    }
+
+    /**
+     * Close the idle connections and stop the dispatcher threads, the token refreshes, the quota reports and the breaker reports.
+     */
+    public void shutdown() {
+        battleNetTokens.shutdown();
+        battleNetQuotas.shutdown();
+        scheduler.shutdownNow();
+        executor.shutdown();
+        hedgeExecutor.shutdown();
+        base.connectionPool().evictAll();
+    }
+}
@@ -0,0 +1,459 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.utils;
+
+import okhttp3.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * OKHttp interceptor caching the GET responses in memory and on disk, both evicting the least recently used responses first.
+ * A response is fresh for the TTL set for its path, or else for its Cache-Control max-age. Stale responses are revalidated with
+ * If-None-Match / If-Modified-Since when the server sent an ETag or a Last-Modified header.
+ * When the upstream fails, the last cached response is served even if stale, with a Warning header.
+ * Must be added before the interceptors adding credentials to the URL, so the cached responses are keyed without them.
+ */
+public class HttpResponseCache implements Interceptor {
+
+    /**
+     * A TTL never expiring, for the responses that never change
+     */
+    public static final long FOREVER = Long.MAX_VALUE;
+
+    /**
+     * Bodies bigger than this are never cached
+     */
+    private static final int MAX_BODY_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * The directory holding the cached responses
+     */
+    private final File directory;
+
+    /**
+     * The maximum size of the responses kept in memory, in bytes
+     */
+    private final long maxMemorySize;
+
+    /**
+     * The maximum size of the responses kept on disk, in bytes
+     */
+    private final long maxDiskSize;
+
+    /**
+     * The TTL of the responses by path and query, in seconds. The first matching pattern wins.
+     */
+    private final Map<Pattern, Long> ttls = new LinkedHashMap<>();
+
+    /**
+     * The responses in memory, least recently used first
+     */
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(256, 0.75f, true);
+
+    /**
+     * The size of the responses in memory, guarded by {@link #memory}
+     */
+    private long memorySize;
+
+    /**
+     * The size of the responses on disk
+     */
+    private final AtomicLong diskSize = new AtomicLong();
+
+    /**
+     * A instance of {@link Logger} to send logs to
+     */
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Create a response cache
+     * @param directory The directory holding the cached responses
+     * @param maxMemorySize The maximum size of the responses kept in memory, in bytes
+     * @param maxDiskSize The maximum size of the responses kept on disk, in bytes
+     */
+    public HttpResponseCache(File directory, long maxMemorySize, long maxDiskSize) {
+        this.directory = directory;
+        this.maxMemorySize = maxMemorySize;
+        this.maxDiskSize = maxDiskSize;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            log.warn("Unable to create the HTTP cache directory " + directory + ", responses are only cached in memory.");
+        }
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                diskSize.addAndGet(file.length());
+            }
+        }
+    }
+
+    /**
+     * Override the freshness of the responses of some URLs, whatever their Cache-Control header says
+     * @param pathRegex A regular expression found in the encoded path of the URL, followed by '?' and its encoded query if it has one
+     * @param seconds The TTL in seconds, {@link #FOREVER} for responses that never change, 0 to always revalidate
+     * @return This cache
+     */
+    public HttpResponseCache ttl(String pathRegex, long seconds) {
+        ttls.put(Pattern.compile(pathRegex), seconds);
+        return this;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!request.method().equals("GET")) {
+            return chain.proceed(request);
+        }
+        String key = request.url().toString();
+        Entry entry = get(key);
+        boolean noCache = request.cacheControl().noCache();
+        if (entry != null && !noCache && entry.isFresh()) {
+            return entry.toResponse(request);
+        }
+
+        Request.Builder networkRequest = request.newBuilder();
+        if (entry != null) {
+            if (entry.headers.get("ETag") != null) {
+                networkRequest.header("If-None-Match", entry.headers.get("ETag"));
+            }
+            if (entry.headers.get("Last-Modified") != null) {
+                networkRequest.header("If-Modified-Since", entry.headers.get("Last-Modified"));
+            }
+        }
+        Response response;
+        try {
+            response = chain.proceed(networkRequest.build());
+        } catch (IOException e) {
+            if (entry == null) {
+                throw e;
+            }
+            //The upstream is down or its circuit breaker is open, a stale response beats no response.
+            log.warn("Serving a stale response of " + key + ": " + e.getMessage());
+            return entry.toStaleResponse(request);
+        }
+        if (response.code() >= 500 && entry != null) {
+            response.close();
+            log.warn("Serving a stale response of " + key + ": HTTP " + response.code());
+            return entry.toStaleResponse(request);
+        }
+        if (response.code() == 304 && entry != null) {
+            //Still valid, refresh its freshness with the new headers.
+            response.close();
+            Headers headers = combine(entry.headers, response.headers());
+            Entry refreshed = new Entry(key, entry.code, entry.message, headers, entry.body, expiresAt(request, CacheControl.parse(headers)));
+            put(refreshed);
+            return refreshed.toResponse(request);
+        }
+        if (response.code() != 200 || response.cacheControl().noStore()) {
+            return response;
+        }
+        long expiresAt = expiresAt(request, response.cacheControl());
+        boolean validators = response.header("ETag") != null || response.header("Last-Modified") != null;
+        ResponseBody body = response.body();
+        if ((expiresAt <= System.currentTimeMillis() && !validators) || body == null || body.contentLength() > MAX_BODY_SIZE) {
+            return response;
+        }
+        byte[] bytes = body.bytes();
+        Entry stored = new Entry(key, response.code(), response.message(), response.headers(), bytes, expiresAt);
+        if (bytes.length <= MAX_BODY_SIZE) {
+            put(stored);
+        }
+        return stored.toResponse(request);
+    }
+
+    /**
+     * Compute when a response stops being fresh
+     * @param request The request
+     * @param cacheControl The Cache-Control of the response
+     * @return The time in milliseconds
+     */
+    private long expiresAt(Request request, CacheControl cacheControl) {
+        long now = System.currentTimeMillis();
+        HttpUrl url = request.url();
+        String pathAndQuery = url.encodedQuery() == null ? url.encodedPath() : url.encodedPath() + "?" + url.encodedQuery();
+        for (Map.Entry<Pattern, Long> ttl : ttls.entrySet()) {
+            if (ttl.getKey().matcher(pathAndQuery).find()) {
+                return ttl.getValue() == FOREVER ? FOREVER : now + TimeUnit.SECONDS.toMillis(ttl.getValue());
+            }
+        }
+        if (cacheControl.noCache() || cacheControl.maxAgeSeconds() <= 0) {
+            return now;
+        }
+        return now + TimeUnit.SECONDS.toMillis(cacheControl.maxAgeSeconds());
+    }
+
+    /**
+     * Merge the headers of a 304 response into the cached ones, like a HTTP cache must: the end-to-end headers of the 304 replace the
+     * cached ones, the headers describing the body are kept, and the warnings about the freshness of the cached response are dropped.
+     * @param cached The headers of the cached response
+     * @param network The headers of the 304 response
+     * @return The headers of the refreshed response
+     */
+    private static Headers combine(Headers cached, Headers network) {
+        Headers.Builder result = new Headers.Builder();
+        for (int i = 0; i < cached.size(); i++) {
+            String name = cached.name(i);
+            String value = cached.value(i);
+            if (name.equalsIgnoreCase("Warning") && value.startsWith("1")) {
+                continue;
+            }
+            if (isContentHeader(name) || !isEndToEnd(name) || network.get(name) == null) {
+                result.add(name, value);
+            }
+        }
+        for (int i = 0; i < network.size(); i++) {
+            String name = network.name(i);
+            if (!isContentHeader(name) && isEndToEnd(name)) {
+                result.add(name, network.value(i));
+            }
+        }
+        return result.build();
+    }
+
+    /**
+     * Check if a header describes the body. A 304 has no body, those are kept from the cached response.
+     * @param name The header name
+     * @return True for Content-Length, Content-Encoding and Content-Type
+     */
+    private static boolean isContentHeader(String name) {
+        return name.equalsIgnoreCase("Content-Length") || name.equalsIgnoreCase("Content-Encoding") || name.equalsIgnoreCase("Content-Type");
+    }
+
+    /**
+     * Check if a header is end-to-end, as defined by RFC 2616 13.5.1
+     * @param name The header name
+     * @return False for the hop-by-hop headers
+     */
+    private static boolean isEndToEnd(String name) {
+        return !name.equalsIgnoreCase("Connection") && !name.equalsIgnoreCase("Keep-Alive") && !name.equalsIgnoreCase("Proxy-Authenticate")
+                && !name.equalsIgnoreCase("Proxy-Authorization") && !name.equalsIgnoreCase("TE") && !name.equalsIgnoreCase("Trailers")
+                && !name.equalsIgnoreCase("Transfer-Encoding") && !name.equalsIgnoreCase("Upgrade");
+    }
+
+    /**
+     * Retrieve a response from memory, or from disk then keep it in memory
+     * @param key The URL of the request
+     * @return The cached response, null if not cached
+     */
+    private Entry get(String key) {
+        synchronized (memory) {
+            Entry entry = memory.get(key);
+            if (entry != null) {
+                return entry;
+            }
+        }
+        Entry entry = readDisk(key);
+        if (entry != null) {
+            putMemory(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Cache a response in memory and on disk
+     * @param entry The response
+     */
+    private void put(Entry entry) {
+        putMemory(entry);
+        writeDisk(entry);
+    }
+
+    private void putMemory(Entry entry) {
+        synchronized (memory) {
+            Entry previous = memory.put(entry.key, entry);
+            if (previous != null) {
+                memorySize -= previous.size();
+            }
+            memorySize += entry.size();
+            Iterator<Entry> iterator = memory.values().iterator();
+            while (memorySize > maxMemorySize && iterator.hasNext()) {
+                memorySize -= iterator.next().size();
+                iterator.remove();
+            }
+        }
+    }
+
+    private Entry readDisk(String key) {
+        File file = new File(directory, fileName(key));
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            String storedKey = input.readUTF();
+            if (!storedKey.equals(key)) {
+                return null;
+            }
+            int code = input.readInt();
+            String message = input.readUTF();
+            long expiresAt = input.readLong();
+            Headers.Builder headers = new Headers.Builder();
+            int headerCount = input.readInt();
+            for (int i = 0; i < headerCount; i++) {
+                headers.add(input.readUTF(), input.readUTF());
+            }
+            byte[] body = new byte[input.readInt()];
+            input.readFully(body);
+            //Mark it as recently used for the disk eviction.
+            Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(System.currentTimeMillis()));
+            return new Entry(key, code, message, headers.build(), body, expiresAt);
+        } catch (IOException e) {
+            log.warn("Unable to read the cached response of " + key, e);
+            return null;
+        }
+    }
+
+    private void writeDisk(Entry entry) {
+        if (!directory.isDirectory()) {
+            return;
+        }
+        File file = new File(directory, fileName(entry.key));
+        File temporary = new File(directory, file.getName() + "." + Thread.currentThread().getId() + ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+                output.writeUTF(entry.key);
+                output.writeInt(entry.code);
+                output.writeUTF(entry.message);
+                output.writeLong(entry.expiresAt);
+                output.writeInt(entry.headers.size());
+                for (int i = 0; i < entry.headers.size(); i++) {
+                    output.writeUTF(entry.headers.name(i));
+                    output.writeUTF(entry.headers.value(i));
+                }
+                output.writeInt(entry.body.length);
+                output.write(entry.body);
+            }
+            long previous = file.length();
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (diskSize.addAndGet(file.length() - previous) > maxDiskSize) {
+                evictDisk();
+            }
+        } catch (IOException e) {
+            log.warn("Unable to cache the response of " + entry.key + " on disk", e);
+            temporary.delete();
+        }
+    }
+
+    /**
+     * Delete the least recently used responses on disk until the cache is back to 90% of its maximum size.
+     */
+    private synchronized void evictDisk() {
+        File[] files = directory.listFiles();
+        if (files == null || diskSize.get() <= maxDiskSize) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (diskSize.get() <= maxDiskSize * 0.9) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                diskSize.addAndGet(-length);
+            }
+        }
+    }
+
+    /**
+     * Retrieve the file name of a cached response
+     * @param key The URL of the request
+     * @return The SHA-256 of the URL, in hexadecimal
+     */
+    private static String fileName(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A cached response
+     */
+    private static class Entry {
+        private final String key;
+        private final int code;
+        private final String message;
+        private final Headers headers;
+        private final byte[] body;
+        private final long expiresAt;
+
+        private Entry(String key, int code, String message, Headers headers, byte[] body, long expiresAt) {
+            this.key = key;
+            this.code = code;
+            this.message = message;
+            this.headers = headers;
+            this.body = body;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isFresh() {
+            return System.currentTimeMillis() < expiresAt;
+        }
+
+        private long size() {
+            long size = body.length + key.length();
+            for (int i = 0; i < headers.size(); i++) {
+                size += headers.name(i).length() + headers.value(i).length();
+            }
+            return size;
+        }
+
+        private Response toStaleResponse(Request request) {
+            return toResponse(request).newBuilder()
+                    .addHeader("Warning", "110 - \"Response is Stale\"")
+                    .build();
+        }
+
+        private Response toResponse(Request request) {
+            String contentType = headers.get("Content-Type");
+            long now = System.currentTimeMillis();
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(code)
+                    .message(message)
+                    .headers(headers)
+                    .body(ResponseBody.create(contentType != null ? MediaType.parse(contentType) : null, body))
+                    .sentRequestAtMillis(now)
+                    .receivedResponseAtMillis(now)
+                    .build();
+        }
+    }
+}
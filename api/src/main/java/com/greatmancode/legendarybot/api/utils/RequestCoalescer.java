@@ -0,0 +1,207 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.utils;
+
+import com.greatmancode.legendarybot.api.LegendaryBot;
+import okhttp3.*;
+import org.influxdb.dto.Point;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+
+/**
+ * OKHttp interceptor sharing a single call between concurrent identical GET requests. The first request goes to the upstream,
+ * the requests arriving while it is in flight wait for it and get a copy of its response, or its failure. When the call gets cancelled
+ * or interrupted by its caller instead, a waiting request takes its place and calls the upstream.
+ * Requests are identical when their URL, once normalized, their Authorization header and their tag are the same.
+ */
+public class RequestCoalescer implements Interceptor {
+
+    /**
+     * A instance of the bot.
+     */
+    private final LegendaryBot bot;
+
+    /**
+     * The maximum time a request waits for an identical one, in milliseconds
+     */
+    private final long timeout;
+
+    /**
+     * The calls in flight by request key
+     */
+    private final Map<String, CompletableFuture<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Build an instance of the Interceptor
+     * @param bot A instance of the bot.
+     * @param timeout The maximum time a request waits for an identical one, in milliseconds. Should match the timeouts of the client,
+     *                the waits run on the threads of its dispatcher.
+     */
+    public RequestCoalescer(LegendaryBot bot, long timeout) {
+        this.bot = bot;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!request.method().equals("GET")) {
+            return chain.proceed(request);
+        }
+        String key = key(request);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        boolean coalesced = false;
+        while (true) {
+            CompletableFuture<SharedResponse> call = new CompletableFuture<>();
+            CompletableFuture<SharedResponse> existing = inFlight.putIfAbsent(key, call);
+            if (existing == null) {
+                return proceed(chain, request, key, call);
+            }
+            if (!coalesced) {
+                coalesced = true;
+                bot.getStatsClient().write(Point.measurement("legendarybot")
+                        .addField("httpcoalesced", 1)
+                        .build());
+            }
+            SharedResponse shared = await(existing, request, deadline);
+            if (shared != null) {
+                return shared.toResponse(request);
+            }
+            //The call got cancelled by its caller, this request takes its place.
+        }
+    }
+
+    /**
+     * Send a request to the upstream and share its response with the identical requests waiting for it
+     * @param chain The chain of the request
+     * @param request The request
+     * @param key The key of the request
+     * @param call The call of the request, registered in {@link #inFlight}
+     * @return The response
+     * @throws IOException If the call failed
+     */
+    private Response proceed(Chain chain, Request request, String key, CompletableFuture<SharedResponse> call) throws IOException {
+        SharedResponse shared;
+        try {
+            Response response = chain.proceed(request);
+            ResponseBody body = response.body();
+            shared = new SharedResponse(response, body == null ? null : body.contentType(), body == null ? new byte[0] : body.bytes());
+        } catch (IOException | RuntimeException e) {
+            //Removed first, so a waiting request taking the place of a cancelled call doesn't find it again.
+            inFlight.remove(key, call);
+            call.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(key, call);
+        call.complete(shared);
+        return shared.toResponse(request);
+    }
+
+    /**
+     * Wait for the call of another request
+     * @param call The call in flight
+     * @param request The request waiting
+     * @param deadline When to stop waiting, from {@link System#nanoTime()}
+     * @return The response of the call, null if the call got cancelled by its caller
+     * @throws IOException If the call failed, the deadline passed or the thread got interrupted
+     */
+    private SharedResponse await(CompletableFuture<SharedResponse> call, Request request, long deadline) throws IOException {
+        try {
+            return call.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an identical request");
+        } catch (TimeoutException e) {
+            throw new SocketTimeoutException("Timed out after " + timeout + "ms waiting for an identical request to " + request.url().host());
+        } catch (ExecutionException e) {
+            if (isCancellation(e.getCause())) {
+                return null;
+            }
+            if (e.getCause() instanceof IOException) {
+                throw new IOException(e.getCause().getMessage(), e.getCause());
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Check if a call failed because its caller cancelled or interrupted it, rather than because of the upstream
+     * @param cause The failure of the call
+     * @return True if the call got cancelled or interrupted
+     */
+    private static boolean isCancellation(Throwable cause) {
+        if (cause instanceof SocketTimeoutException) {
+            return false;
+        }
+        return cause instanceof InterruptedIOException || (cause instanceof IOException && "Canceled".equals(cause.getMessage()));
+    }
+
+    /**
+     * Build the key of a request: its host in lower case, its path, its query parameters sorted by name, its Authorization header and its tag.
+     * @param request The request
+     * @return The key
+     */
+    private static String key(Request request) {
+        HttpUrl url = request.url();
+        StringBuilder key = new StringBuilder(url.scheme()).append("://").append(url.host().toLowerCase()).append(':').append(url.port()).append(url.encodedPath());
+        Map<String, String> parameters = new TreeMap<>();
+        for (int i = 0; i < url.querySize(); i++) {
+            parameters.merge(url.queryParameterName(i), String.valueOf(url.queryParameterValue(i)), (a, b) -> a + "," + b);
+        }
+        parameters.forEach((name, value) -> key.append('&').append(name).append('=').append(value));
+        key.append('|').append(request.header("Authorization"));
+        //OkHttp tags the requests with themselves when no tag is set.
+        if (request.tag() != request) {
+            key.append('|').append(request.tag());
+        }
+        return key.toString();
+    }
+
+    /**
+     * A response read once and handed to every request of the call
+     */
+    private static class SharedResponse {
+        private final Response response;
+        private final MediaType contentType;
+        private final byte[] body;
+
+        private SharedResponse(Response response, MediaType contentType, byte[] body) {
+            this.response = response;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        private Response toResponse(Request request) {
+            return response.newBuilder()
+                    .request(request)
+                    .body(ResponseBody.create(contentType, body))
+                    .build();
+        }
+    }
+}
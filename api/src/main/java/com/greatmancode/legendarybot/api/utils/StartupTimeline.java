@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.utils;
+
+import org.influxdb.InfluxDB;
+import org.influxdb.dto.Point;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the phases of the bot startup, with their start and duration, and publishes them as a report once the bot is started.
+ * Phases can overlap and be recorded from any thread.
+ */
+public class StartupTimeline {
+
+    /**
+     * The time the startup began, in milliseconds since the epoch
+     */
+    private final long bootTime = System.currentTimeMillis();
+
+    /**
+     * The time the startup began, from {@link System#nanoTime()}
+     */
+    private final long origin = System.nanoTime();
+
+    /**
+     * The ended phases
+     */
+    private final Queue<Phase> phases = new ConcurrentLinkedQueue<>();
+
+    /**
+     * A instance of {@link Logger} to send logs to
+     */
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Start a phase. The phase is recorded once {@link Phase#end()} is called.
+     * @param name The name of the phase
+     * @return The started phase
+     */
+    public Phase start(String name) {
+        return new Phase(name, System.nanoTime());
+    }
+
+    /**
+     * Log the phases ordered by their start, then send them to the stats server, tagged with the version of the bot.
+     * @param statsClient The stats client
+     * @param version The version of the bot, to compare the startups across releases
+     */
+    public void report(InfluxDB statsClient, String version) {
+        List<Phase> ended = new ArrayList<>(phases);
+        ended.sort(Comparator.comparingLong(phase -> phase.start));
+        long total = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - origin);
+        StringBuilder report = new StringBuilder("Startup timeline (" + total + "ms):");
+        for (Phase phase : ended) {
+            report.append(String.format("%n  +%6dms %6dms  %s", phase.getOffset(), phase.getDuration(), phase.name));
+            statsClient.write(Point.measurement("startup")
+                    .time(bootTime, TimeUnit.MILLISECONDS)
+                    .tag("phase", phase.name)
+                    .tag("version", version)
+                    .addField("offset", phase.getOffset())
+                    .addField("duration", phase.getDuration())
+                    .build());
+        }
+        log.info(report.toString());
+        statsClient.write(Point.measurement("startup")
+                .time(bootTime, TimeUnit.MILLISECONDS)
+                .tag("phase", "total")
+                .tag("version", version)
+                .addField("offset", 0L)
+                .addField("duration", total)
+                .build());
+    }
+
+    /**
+     * A phase of the startup
+     */
+    public class Phase {
+
+        private final String name;
+        private final long start;
+        private long end;
+
+        private Phase(String name, long start) {
+            this.name = name;
+            this.start = start;
+        }
+
+        /**
+         * End the phase and record it in the timeline
+         */
+        public void end() {
+            end = System.nanoTime();
+            phases.add(this);
+        }
+
+        /**
+         * Retrieve the time between the beginning of the startup and the start of the phase
+         * @return The offset in milliseconds
+         */
+        public long getOffset() {
+            return TimeUnit.NANOSECONDS.toMillis(start - origin);
+        }
+
+        /**
+         * Retrieve the duration of the phase
+         * @return The duration in milliseconds
+         */
+        public long getDuration() {
+            return TimeUnit.NANOSECONDS.toMillis(end - start);
+        }
+    }
+}
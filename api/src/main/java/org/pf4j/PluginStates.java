@@ -0,0 +1,43 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.pf4j;
+
+/**
+ * Gives {@link com.greatmancode.legendarybot.api.plugin.LegendaryBotPluginManager} access to the plugin state setter of pf4j, which is package
+ * private. The plugin manager starts the plugins itself and records their state the way {@link AbstractPluginManager#startPlugin(String)} does.
+ */
+public final class PluginStates {
+
+    private PluginStates() {
+    }
+
+    /**
+     * Set the state of a plugin
+     * @param wrapper The plugin
+     * @param state The new state of the plugin
+     */
+    public static void setPluginState(PluginWrapper wrapper, PluginState state) {
+        wrapper.setPluginState(state);
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.commands;
+
+import com.greatmancode.legendarybot.api.TestBot;
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.Message;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+public class CommandDispatcherTest {
+
+    private final TestBot bot = new TestBot();
+    private final JDA jda = stub(JDA.class, null);
+    private CommandDispatcher dispatcher;
+
+    @After
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void commandsOfAGuildRunInOrder() throws InterruptedException {
+        dispatcher = new CommandDispatcher(bot, 8, 1000);
+        MessageReceivedEvent event = event("1");
+        List<Integer> ran = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(200);
+        for (int i = 0; i < 200; i++) {
+            int index = i;
+            assertTrue(dispatcher.dispatch(event, () -> {
+                sleepMicros(ThreadLocalRandom.current().nextInt(200));
+                ran.add(index);
+                done.countDown();
+            }));
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, (int) ran.get(i));
+        }
+    }
+
+    @Test
+    public void guildsRunInParallel() throws InterruptedException {
+        dispatcher = new CommandDispatcher(bot, 2, 1000);
+        CountDownLatch secondGuildRan = new CountDownLatch(1);
+        CountDownLatch firstGuildDone = new CountDownLatch(1);
+        dispatcher.dispatch(event("1"), () -> {
+            try {
+                if (secondGuildRan.await(5, TimeUnit.SECONDS)) {
+                    firstGuildDone.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        dispatcher.dispatch(event("2"), secondGuildRan::countDown);
+        assertTrue(firstGuildDone.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shardQueueIsBounded() throws InterruptedException {
+        dispatcher = new CommandDispatcher(bot, 4, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        Runnable blocked = () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.countDown();
+        };
+        assertTrue(dispatcher.dispatch(event("1"), blocked));
+        assertTrue(dispatcher.dispatch(event("2"), blocked));
+        assertFalse(dispatcher.dispatch(event("3"), () -> {}));
+        assertEquals(2, dispatcher.getPendingCommands(0));
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        waitForPending(0);
+        assertTrue(dispatcher.dispatch(event("3"), () -> {}));
+    }
+
+    @Test
+    public void asyncCommandHoldsItsGuildUntilCompleted() throws InterruptedException {
+        dispatcher = new CommandDispatcher(bot, 4, 1000);
+        CompletableFuture<Void> reply = new CompletableFuture<>();
+        CountDownLatch nextRan = new CountDownLatch(1);
+        dispatcher.dispatchAsync(event("1"), () -> reply);
+        dispatcher.dispatch(event("1"), nextRan::countDown);
+        assertFalse(nextRan.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(2, dispatcher.getPendingCommands(0));
+        reply.complete(null);
+        assertTrue(nextRan.await(5, TimeUnit.SECONDS));
+        waitForPending(0);
+    }
+
+    @Test
+    public void hungAsyncCommandReleasesItsGuild() throws InterruptedException {
+        dispatcher = new CommandDispatcher(bot, 4, 1000, 100);
+        CountDownLatch nextRan = new CountDownLatch(1);
+        dispatcher.dispatchAsync(event("1"), CompletableFuture::new);
+        dispatcher.dispatch(event("1"), nextRan::countDown);
+        assertTrue(nextRan.await(5, TimeUnit.SECONDS));
+        waitForPending(0);
+        assertEquals(1, bot.getStacktraces().size());
+        assertTrue(bot.getStacktraces().get(0) instanceof TimeoutException);
+    }
+
+    @Test
+    public void failingCommandDoesNotStopItsGuild() throws InterruptedException {
+        dispatcher = new CommandDispatcher(bot, 4, 1000);
+        CountDownLatch nextRan = new CountDownLatch(1);
+        dispatcher.dispatch(event("1"), () -> {
+            throw new IllegalStateException("boom");
+        });
+        dispatcher.dispatch(event("1"), nextRan::countDown);
+        assertTrue(nextRan.await(5, TimeUnit.SECONDS));
+        assertEquals(1, bot.getStacktraces().size());
+    }
+
+    private void waitForPending(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dispatcher.getPendingCommands(0) != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, dispatcher.getPendingCommands(0));
+    }
+
+    private MessageReceivedEvent event(String guildId) {
+        Guild guild = stub(Guild.class, guildId);
+        return new MessageReceivedEvent(jda, 0, stub(Message.class, null)) {
+            @Override
+            public Guild getGuild() {
+                return guild;
+            }
+        };
+    }
+
+    /**
+     * Build a stub answering its ID, and null, 0 or false to everything else
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, String id) {
+        return (T) Proxy.newProxyInstance(CommandDispatcherTest.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getName().equals("getId")) {
+                return id;
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class) {
+                return false;
+            } else if (returnType == long.class) {
+                return 0L;
+            } else if (returnType == int.class) {
+                return 0;
+            }
+            return null;
+        });
+    }
+
+    private static void sleepMicros(long micros) {
+        try {
+            TimeUnit.MICROSECONDS.sleep(micros);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.commands;
+
+import org.junit.Test;
+
+import static com.greatmancode.legendarybot.api.commands.CommandRateLimiter.Admission.*;
+import static org.junit.Assert.*;
+
+public class CommandRateLimiterTest {
+
+    private static final int UNLIMITED = 60000000;
+
+    @Test
+    public void userBurstIsEnforced() {
+        CommandRateLimiter limiter = new CommandRateLimiter(1, 8, UNLIMITED, UNLIMITED, UNLIMITED, UNLIMITED, UNLIMITED);
+        for (int i = 0; i < 8; i++) {
+            assertEquals(ALLOWED, limiter.acquire(1, 100, CommandCost.LIGHT));
+        }
+        assertEquals(USER_LIMITED, limiter.acquire(1, 100, CommandCost.LIGHT));
+        assertEquals(ALLOWED, limiter.acquire(2, 100, CommandCost.LIGHT));
+    }
+
+    @Test
+    public void costIsChargedInTokens() {
+        CommandRateLimiter limiter = new CommandRateLimiter(1, 5, UNLIMITED, UNLIMITED, UNLIMITED, UNLIMITED, UNLIMITED);
+        assertEquals(ALLOWED, limiter.acquire(1, 100, CommandCost.HEAVY));
+        assertEquals(USER_LIMITED, limiter.acquire(1, 100, CommandCost.LIGHT));
+    }
+
+    @Test
+    public void burstsFitTheMostExpensiveCommand() {
+        CommandRateLimiter limiter = new CommandRateLimiter(1, 1, 1, 1, UNLIMITED, UNLIMITED, UNLIMITED);
+        assertEquals(ALLOWED, limiter.acquire(1, 100, CommandCost.HEAVY));
+        assertEquals(USER_LIMITED, limiter.acquire(1, 200, CommandCost.LIGHT));
+        assertEquals(GUILD_LIMITED, limiter.acquire(2, 100, CommandCost.LIGHT));
+    }
+
+    @Test
+    public void guildRefusalGivesTheUserTokensBack() {
+        CommandRateLimiter limiter = new CommandRateLimiter(1, 5, 1, 5, UNLIMITED, UNLIMITED, UNLIMITED);
+        assertEquals(ALLOWED, limiter.acquire(1, 100, CommandCost.HEAVY));
+        assertEquals(GUILD_LIMITED, limiter.acquire(2, 100, CommandCost.LIGHT));
+        assertEquals(ALLOWED, limiter.acquire(2, 200, CommandCost.HEAVY));
+    }
+
+    @Test
+    public void costClassSaturates() {
+        CommandRateLimiter limiter = new CommandRateLimiter(UNLIMITED, UNLIMITED, UNLIMITED, UNLIMITED, UNLIMITED, UNLIMITED, 6);
+        assertEquals(ALLOWED, limiter.acquire(1, 100, CommandCost.HEAVY));
+        assertEquals(SATURATED, limiter.acquire(2, 200, CommandCost.HEAVY));
+        assertEquals(ALLOWED, limiter.acquire(2, 200, CommandCost.LIGHT));
+        //The user and guild tokens of the refused command were given back
+        assertEquals(ALLOWED, limiter.acquire(2, 200, CommandCost.LIGHT));
+    }
+
+    @Test
+    public void bucketsRefill() throws InterruptedException {
+        CommandRateLimiter limiter = new CommandRateLimiter(600, 5, UNLIMITED, UNLIMITED, UNLIMITED, UNLIMITED, UNLIMITED);
+        assertEquals(ALLOWED, limiter.acquire(1, 100, CommandCost.HEAVY));
+        assertEquals(USER_LIMITED, limiter.acquire(1, 100, CommandCost.LIGHT));
+        Thread.sleep(150);
+        assertEquals(ALLOWED, limiter.acquire(1, 100, CommandCost.LIGHT));
+    }
+
+    @Test
+    public void usersAreNotifiedOnce() {
+        CommandRateLimiter limiter = new CommandRateLimiter(1, 1, 1, 1, 1, 1, 1);
+        assertTrue(limiter.shouldNotify(1));
+        assertFalse(limiter.shouldNotify(1));
+        assertTrue(limiter.shouldNotify(2));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.utils;
+
+import com.greatmancode.legendarybot.api.TestBot;
+import com.greatmancode.legendarybot.api.utils.BattleNetQuotaManager.Lane;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BattleNetQuotaManagerTest {
+
+    private BattleNetQuotaManager quotas;
+
+    @After
+    public void shutdown() {
+        quotas.shutdown();
+    }
+
+    @Test
+    public void backgroundLeavesTheReserveToInteractive() throws Exception {
+        //The per second bucket is large enough to never matter, the hourly one barely refills during the test.
+        quotas = new BattleNetQuotaManager(new TestBot(), 1000, 10, 0.5);
+        for (int i = 0; i < 5; i++) {
+            quotas.acquire("us", "key", Lane.BACKGROUND);
+        }
+        assertEquals(5, quotas.getRemaining("us", "key"));
+
+        CompletableFuture<Throwable> background = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                quotas.acquire("us", "key", Lane.BACKGROUND);
+                background.complete(null);
+            } catch (IOException e) {
+                background.complete(e);
+            }
+        });
+        thread.start();
+        Thread.sleep(200);
+        assertFalse("Background requests must not use the reserve", background.isDone());
+
+        for (int i = 0; i < 5; i++) {
+            quotas.acquire("us", "key", Lane.INTERACTIVE);
+        }
+        assertEquals(0, quotas.getRemaining("us", "key"));
+
+        thread.interrupt();
+        assertTrue(background.get(5, TimeUnit.SECONDS) instanceof InterruptedIOException);
+    }
+
+    @Test
+    public void backgroundGivesUpQuickly() throws IOException {
+        quotas = new BattleNetQuotaManager(new TestBot(), 1000, 10, 0.5);
+        for (int i = 0; i < 5; i++) {
+            quotas.acquire("us", "key", Lane.BACKGROUND);
+        }
+        long start = System.currentTimeMillis();
+        try {
+            quotas.acquire("us", "key", Lane.BACKGROUND);
+            fail("The reserve must stay untouched");
+        } catch (BattleNetQuotaManager.QuotaExhaustedException e) {
+            assertTrue(System.currentTimeMillis() - start < 5000);
+        }
+    }
+
+    @Test
+    public void keysHaveTheirOwnQuota() throws IOException {
+        quotas = new BattleNetQuotaManager(new TestBot(), 1000, 10, 0.5);
+        for (int i = 0; i < 10; i++) {
+            quotas.acquire("us", "key", Lane.INTERACTIVE);
+        }
+        assertEquals(0, quotas.getRemaining("us", "key"));
+        assertEquals(10, quotas.getRemaining("eu", "key"));
+        assertEquals(10, quotas.getRemaining("us", "other"));
+        quotas.acquire("eu", "key", Lane.INTERACTIVE);
+    }
+
+    @Test
+    public void throttledKeyWaits() throws IOException {
+        quotas = new BattleNetQuotaManager(new TestBot(), 1000, 1000, 0);
+        quotas.throttled("us", "key", 1);
+        long start = System.currentTimeMillis();
+        quotas.acquire("us", "key", Lane.INTERACTIVE);
+        assertTrue(System.currentTimeMillis() - start >= 900);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.utils;
+
+import com.greatmancode.legendarybot.api.TestBot;
+import com.greatmancode.legendarybot.api.utils.CircuitBreakerInterceptor.CircuitOpenException;
+import com.greatmancode.legendarybot.api.utils.CircuitBreakerInterceptor.State;
+import okhttp3.Request;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerInterceptorTest {
+
+    private static final String HOST = "us.api.battle.net";
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final Request request = new Request.Builder().url("https://" + HOST + "/wow/realm/status").build();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @After
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void opensOnFailuresAndRecoversAfterATrialCall() throws Exception {
+        CircuitBreakerInterceptor breaker = breaker(60000, 100);
+        for (int i = 0; i < 9; i++) {
+            failingCall(breaker);
+        }
+        assertEquals(State.CLOSED, breaker.getState(HOST));
+        failingCall(breaker);
+        assertEquals(State.OPEN, breaker.getState(HOST));
+
+        calls.set(0);
+        try {
+            succeedingCall(breaker);
+            fail("The breaker should refuse the call");
+        } catch (CircuitOpenException e) {
+            assertEquals(0, calls.get());
+        }
+        assertEquals(State.CLOSED, breaker.getState("eu.api.battle.net"));
+
+        Thread.sleep(150);
+        succeedingCall(breaker);
+        assertEquals(1, calls.get());
+        assertEquals(State.CLOSED, breaker.getState(HOST));
+    }
+
+    @Test
+    public void failedTrialCallOpensAgain() throws Exception {
+        CircuitBreakerInterceptor breaker = breaker(60000, 100);
+        for (int i = 0; i < 10; i++) {
+            failingCall(breaker);
+        }
+        Thread.sleep(150);
+        failingCall(breaker);
+        assertEquals(State.OPEN, breaker.getState(HOST));
+    }
+
+    @Test
+    public void serverErrorsAreFailuresButNotRateLimits() throws IOException {
+        CircuitBreakerInterceptor breaker = breaker(60000, 100);
+        for (int i = 0; i < 20; i++) {
+            breaker.intercept(new TestChain(request, calls, r -> TestChain.response(r, 429, "")));
+        }
+        assertEquals(State.CLOSED, breaker.getState(HOST));
+        for (int i = 0; i < 10; i++) {
+            breaker.intercept(new TestChain(request, calls, r -> TestChain.response(r, 503, "")));
+        }
+        assertEquals(State.OPEN, breaker.getState(HOST));
+    }
+
+    @Test
+    public void slowCallsOpen() throws IOException {
+        //Every call takes at least 0ms, so every call is slow
+        CircuitBreakerInterceptor breaker = breaker(0, 100);
+        for (int i = 0; i < 10; i++) {
+            succeedingCall(breaker);
+        }
+        assertEquals(State.OPEN, breaker.getState(HOST));
+    }
+
+    @Test
+    public void cancelledCallsAreNotFailures() {
+        CircuitBreakerInterceptor breaker = breaker(60000, 100);
+        for (int i = 0; i < 20; i++) {
+            try {
+                breaker.intercept(new TestChain(request, calls, r -> {
+                    throw new IOException("Canceled");
+                }));
+            } catch (IOException e) {
+                assertEquals("Canceled", e.getMessage());
+            }
+        }
+        assertEquals(State.CLOSED, breaker.getState(HOST));
+    }
+
+    private CircuitBreakerInterceptor breaker(long slowCallDuration, long openDuration) {
+        return new CircuitBreakerInterceptor(new TestBot(), scheduler, 0.5, 0.5, slowCallDuration, openDuration);
+    }
+
+    private void succeedingCall(CircuitBreakerInterceptor breaker) throws IOException {
+        breaker.intercept(new TestChain(request, calls, r -> TestChain.response(r, 200, "{}")));
+    }
+
+    private void failingCall(CircuitBreakerInterceptor breaker) {
+        try {
+            breaker.intercept(new TestChain(request, calls, r -> {
+                throw new IOException("Connection refused");
+            }));
+            fail("The call should have failed");
+        } catch (IOException e) {
+            assertFalse(e instanceof CircuitOpenException);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.utils;
+
+import com.greatmancode.legendarybot.api.TestBot;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class HedgingInterceptorTest {
+
+    private final TestBot bot = new TestBot();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicBoolean slowNext = new AtomicBoolean();
+    private volatile long latency;
+    private ExecutorService serverThreads;
+    private HttpServer server;
+    private HttpClientRegistry clients;
+
+    @Before
+    public void start() throws IOException {
+        serverThreads = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverThreads);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(slowNext.getAndSet(false) ? 5000 : latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{}".getBytes();
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        Properties props = new Properties();
+        props.setProperty("http.hedge.test", "true");
+        clients = new HttpClientRegistry(bot, props, 5, 60, 8, 2);
+    }
+
+    @After
+    public void stop() {
+        clients.shutdown();
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    public void slowRequestIsHedged() throws IOException {
+        OkHttpClient client = clients.get("test");
+        warm(client);
+        slowNext.set(true);
+        long start = System.currentTimeMillis();
+        try (Response response = client.newCall(request(0)).execute()) {
+            assertEquals(200, response.code());
+        }
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertTrue(bot.getPoints().stream().anyMatch(point -> point.lineProtocol().contains("httphedged")));
+    }
+
+    @Test
+    public void hedgedRequestsDoNotWaitOnTheSlotsOfTheirCallers() throws Exception {
+        OkHttpClient client = clients.get("test");
+        warm(client);
+        //Every asynchronous call holds one of the 2 slots of the host while its attempts run.
+        latency = 100;
+        int calls = 6;
+        CountDownLatch done = new CountDownLatch(calls);
+        AtomicInteger succeeded = new AtomicInteger();
+        for (int i = 0; i < calls; i++) {
+            client.newCall(request(i)).enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    done.countDown();
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    if (response.isSuccessful()) {
+                        succeeded.incrementAndGet();
+                    }
+                    response.close();
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(calls, succeeded.get());
+    }
+
+    @Test
+    public void requestsAreNotHedgedBeforeEnoughSamples() throws IOException {
+        OkHttpClient client = clients.get("test");
+        latency = 100;
+        try (Response response = client.newCall(request(0)).execute()) {
+            assertEquals(200, response.code());
+        }
+        assertEquals(1, requests.get());
+        assertTrue(bot.getPoints().isEmpty());
+    }
+
+    /**
+     * Send enough fast requests to start hedging
+     */
+    private void warm(OkHttpClient client) throws IOException {
+        for (int i = 0; i < 20; i++) {
+            try (Response response = client.newCall(request(i)).execute()) {
+                assertEquals(200, response.code());
+            }
+        }
+    }
+
+    private Request request(int index) {
+        return new Request.Builder().url("http://127.0.0.1:" + server.getAddress().getPort() + "/?i=" + index).build();
+    }
+}
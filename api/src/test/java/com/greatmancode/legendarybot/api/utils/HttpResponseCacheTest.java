@@ -0,0 +1,143 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.utils;
+
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class HttpResponseCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private HttpResponseCache cache;
+
+    @Before
+    public void create() {
+        cache = new HttpResponseCache(folder.getRoot(), 1024 * 1024, 1024 * 1024)
+                .ttl("/wow/realm/status", 60)
+                .ttl("^/wow/character/[^?]*\\?(.*&)?fields=feed(&|$)", 300);
+    }
+
+    @Test
+    public void freshResponseIsServedFromTheCache() throws IOException {
+        Request request = request("/wow/realm/status?locale=en_US");
+        assertEquals("a", cache.intercept(new TestChain(request, calls, r -> TestChain.response(r, 200, "a"))).body().string());
+        assertEquals("a", cache.intercept(new TestChain(request, calls, r -> TestChain.response(r, 200, "b"))).body().string());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void responseIsFreshForItsMaxAge() throws IOException {
+        Request request = request("/wow/item/1");
+        cache.intercept(new TestChain(request, calls, r -> TestChain.response(r, 200, "a").newBuilder()
+                .header("Cache-Control", "public, max-age=60")
+                .build()));
+        assertEquals("a", cache.intercept(new TestChain(request, calls, r -> TestChain.response(r, 200, "b"))).body().string());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void notModifiedResponseRefreshesTheHeadersAndTheFreshness() throws IOException {
+        Request request = request("/wow/guild/illidan/a");
+        cache.intercept(new TestChain(request, calls, r -> TestChain.response(r, 200, "a").newBuilder()
+                .header("ETag", "\"1\"")
+                .header("Cache-Control", "max-age=0")
+                .header("Date", "Sun, 18 Oct 2026 09:00:00 GMT")
+                .header("Content-Type", "application/json")
+                .build()));
+
+        Response revalidated = cache.intercept(new TestChain(request, calls, r -> {
+            assertEquals("\"1\"", r.header("If-None-Match"));
+            return TestChain.response(r, 304, "").newBuilder()
+                    .header("ETag", "\"2\"")
+                    .header("Cache-Control", "max-age=60")
+                    .build();
+        }));
+        assertEquals(200, revalidated.code());
+        assertEquals("a", revalidated.body().string());
+        assertEquals("\"2\"", revalidated.header("ETag"));
+        assertEquals("max-age=60", revalidated.header("Cache-Control"));
+        assertEquals("Sun, 18 Oct 2026 09:00:00 GMT", revalidated.header("Date"));
+        assertEquals("application/json", revalidated.header("Content-Type"));
+
+        //The max-age of the 304 applies from now on.
+        assertEquals("a", cache.intercept(new TestChain(request, calls, r -> TestChain.response(r, 200, "b"))).body().string());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void staleResponseIsServedWhenTheUpstreamFails() throws IOException {
+        Request request = request("/wow/guild/illidan/a");
+        cache.intercept(new TestChain(request, calls, r -> TestChain.response(r, 200, "a").newBuilder()
+                .header("ETag", "\"1\"")
+                .build()));
+        Response stale = cache.intercept(new TestChain(request, calls, r -> {
+            throw new IOException("upstream down");
+        }));
+        assertEquals("a", stale.body().string());
+        assertNotNull(stale.header("Warning"));
+
+        Response error = cache.intercept(new TestChain(request, calls, r -> TestChain.response(r, 503, "")));
+        assertEquals(200, error.code());
+        assertEquals("a", error.body().string());
+    }
+
+    @Test
+    public void characterFeedsOnlyAreKeptForTheirTtl() throws IOException {
+        Request feed = request("/wow/character/illidan/a?fields=feed&locale=en_US");
+        Request items = request("/wow/character/illidan/a?fields=items&locale=en_US");
+        for (int i = 0; i < 2; i++) {
+            cache.intercept(new TestChain(feed, calls, r -> TestChain.response(r, 200, "feed")));
+            cache.intercept(new TestChain(items, calls, r -> TestChain.response(r, 200, "items").newBuilder()
+                    .header("ETag", "\"1\"")
+                    .build()));
+        }
+        //The feed is fetched once, the items every time.
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void responsesAreReadBackFromDisk() throws IOException {
+        Request request = request("/wow/realm/status?locale=en_US");
+        cache.intercept(new TestChain(request, calls, r -> TestChain.response(r, 200, "a")));
+        create();
+        assertEquals("a", cache.intercept(new TestChain(request, calls, r -> TestChain.response(r, 200, "b"))).body().string());
+        assertEquals(1, calls.get());
+    }
+
+    private static Request request(String pathAndQuery) {
+        return new Request.Builder().url("https://us.api.battle.net" + pathAndQuery).build();
+    }
+}
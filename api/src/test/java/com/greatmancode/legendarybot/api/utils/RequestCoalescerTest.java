@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.utils;
+
+import com.greatmancode.legendarybot.api.TestBot;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RequestCoalescerTest {
+
+    private final TestBot bot = new TestBot();
+    private final RequestCoalescer coalescer = new RequestCoalescer(bot, 5000);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    public void identicalRequestsShareOneCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Request first = new Request.Builder().url("https://us.api.battle.net/wow/character/illidan/a?fields=items&locale=en_US").build();
+        Request second = new Request.Builder().url("https://US.api.battle.net/wow/character/illidan/a?locale=en_US&fields=items").build();
+        Future<Response> firstResponse = executor.submit(() -> coalescer.intercept(new TestChain(first, calls, request -> {
+            release.await();
+            return TestChain.response(request, 200, "{\"name\":\"a\"}");
+        })));
+        waitFor(() -> calls.get() == 1);
+        Future<Response> secondResponse = executor.submit(() -> coalescer.intercept(new TestChain(second, calls, request -> TestChain.response(request, 200, "other"))));
+        waitFor(() -> bot.getPoints().size() == 1);
+        release.countDown();
+
+        assertEquals("{\"name\":\"a\"}", firstResponse.get(5, TimeUnit.SECONDS).body().string());
+        Response shared = secondResponse.get(5, TimeUnit.SECONDS);
+        assertEquals("{\"name\":\"a\"}", shared.body().string());
+        assertSame(second, shared.request());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void differentCredentialsAreNotShared() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Request first = new Request.Builder().url("https://raider.io/api").header("Authorization", "Bearer a").build();
+        Request second = new Request.Builder().url("https://raider.io/api").header("Authorization", "Bearer b").build();
+        Future<Response> firstResponse = executor.submit(() -> coalescer.intercept(new TestChain(first, calls, request -> {
+            release.await();
+            return TestChain.response(request, 200, "a");
+        })));
+        waitFor(() -> calls.get() == 1);
+        assertEquals("b", coalescer.intercept(new TestChain(second, calls, request -> TestChain.response(request, 200, "b"))).body().string());
+        release.countDown();
+        assertEquals("a", firstResponse.get(5, TimeUnit.SECONDS).body().string());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void postsAreNeverShared() throws IOException {
+        Request post = new Request.Builder().url("https://raider.io/api").post(RequestBody.create(null, "a")).build();
+        coalescer.intercept(new TestChain(post, calls, request -> TestChain.response(request, 200, "a")));
+        coalescer.intercept(new TestChain(post, calls, request -> TestChain.response(request, 200, "a")));
+        assertEquals(2, calls.get());
+        assertTrue(bot.getPoints().isEmpty());
+    }
+
+    @Test
+    public void failureIsSharedWithTheWaitingRequests() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Request request = new Request.Builder().url("https://raider.io/api").build();
+        Future<Response> firstResponse = executor.submit(() -> coalescer.intercept(new TestChain(request, calls, r -> {
+            release.await();
+            throw new IOException("upstream down");
+        })));
+        waitFor(() -> calls.get() == 1);
+        Future<Response> secondResponse = executor.submit(() -> coalescer.intercept(new TestChain(request, calls, r -> TestChain.response(r, 200, "a"))));
+        waitFor(() -> bot.getPoints().size() == 1);
+        release.countDown();
+        assertFailsWithIOException(firstResponse);
+        assertFailsWithIOException(secondResponse);
+        assertEquals(1, calls.get());
+
+        //Once the failed call is over, the next request goes to the upstream again.
+        assertEquals("a", coalescer.intercept(new TestChain(request, calls, r -> TestChain.response(r, 200, "a"))).body().string());
+    }
+
+    @Test
+    public void waitingRequestTakesThePlaceOfACancelledCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Request request = new Request.Builder().url("https://raider.io/api").build();
+        Future<Response> firstResponse = executor.submit(() -> coalescer.intercept(new TestChain(request, calls, r -> {
+            release.await();
+            throw new IOException("Canceled");
+        })));
+        waitFor(() -> calls.get() == 1);
+        Future<Response> secondResponse = executor.submit(() -> coalescer.intercept(new TestChain(request, calls, r -> TestChain.response(r, 200, "a"))));
+        waitFor(() -> bot.getPoints().size() == 1);
+        release.countDown();
+        assertFailsWithIOException(firstResponse);
+        assertEquals("a", secondResponse.get(5, TimeUnit.SECONDS).body().string());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void waitIsBounded() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(bot, 100);
+        CountDownLatch release = new CountDownLatch(1);
+        Request request = new Request.Builder().url("https://raider.io/api").build();
+        Future<Response> firstResponse = executor.submit(() -> coalescer.intercept(new TestChain(request, calls, r -> {
+            release.await();
+            return TestChain.response(r, 200, "a");
+        })));
+        waitFor(() -> calls.get() == 1);
+        try {
+            coalescer.intercept(new TestChain(request, calls, r -> TestChain.response(r, 200, "b")));
+            fail("The request should have timed out");
+        } catch (SocketTimeoutException e) {
+            assertEquals(1, calls.get());
+        }
+        release.countDown();
+        assertEquals("a", firstResponse.get(5, TimeUnit.SECONDS).body().string());
+    }
+
+    private static void assertFailsWithIOException(Future<Response> response) throws Exception {
+        try {
+            response.get(5, TimeUnit.SECONDS);
+            fail("The request should have failed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    private static void waitFor(Callable<Boolean> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.call()) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+}
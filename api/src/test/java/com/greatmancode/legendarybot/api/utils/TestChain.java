@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api.utils;
+
+import okhttp3.*;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link Interceptor.Chain} answering every request with the same response, or failure, without any network.
+ */
+class TestChain implements Interceptor.Chain {
+
+    /**
+     * What the upstream does with a request
+     */
+    interface Upstream {
+        Response call(Request request) throws IOException, InterruptedException;
+    }
+
+    private final Request request;
+    private final Upstream upstream;
+    private final AtomicInteger calls;
+
+    TestChain(Request request, AtomicInteger calls, Upstream upstream) {
+        this.request = request;
+        this.calls = calls;
+        this.upstream = upstream;
+    }
+
+    @Override
+    public Request request() {
+        return request;
+    }
+
+    @Override
+    public Response proceed(Request request) throws IOException {
+        calls.incrementAndGet();
+        try {
+            return upstream.call(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    @Override
+    public Connection connection() {
+        return null;
+    }
+
+    /**
+     * Build a response
+     * @param request The request answered
+     * @param code The status code
+     * @param body The body
+     * @return The response
+     */
+    static Response response(Request request, int code, String body) {
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("Test")
+                .body(ResponseBody.create(MediaType.parse("application/json"), body))
+                .build();
+    }
+}
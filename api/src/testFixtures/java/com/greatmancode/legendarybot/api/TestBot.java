@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.api;
+
+import com.greatmancode.legendarybot.api.commands.CommandHandler;
+import com.greatmancode.legendarybot.api.server.GuildRegistry;
+import com.greatmancode.legendarybot.api.server.GuildSettings;
+import com.greatmancode.legendarybot.api.translate.TranslateManager;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
+import com.greatmancode.legendarybot.api.utils.StacktraceHandler;
+import com.zaxxer.hikari.HikariDataSource;
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.Guild;
+import org.elasticsearch.client.RestClient;
+import org.influxdb.InfluxDB;
+import org.influxdb.dto.Point;
+import org.pf4j.PluginManager;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A {@link LegendaryBot} for the unit tests. It keeps the stats points and the stacktraces it receives, everything else is null.
+ */
+public class TestBot extends LegendaryBot {
+
+    /**
+     * The stats points written by the tested classes
+     */
+    private final List<Point> points = new CopyOnWriteArrayList<>();
+
+    /**
+     * The stacktraces sent by the tested classes
+     */
+    private final List<Throwable> stacktraces = new CopyOnWriteArrayList<>();
+
+    /**
+     * The stats client keeping the points
+     */
+    private final InfluxDB statsClient = (InfluxDB) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{InfluxDB.class}, (proxy, method, args) -> {
+        if (method.getName().equals("write") && args.length == 1 && args[0] instanceof Point) {
+            points.add((Point) args[0]);
+        }
+        return method.getReturnType() == boolean.class ? false : null;
+    });
+
+    /**
+     * The database returned by {@link #getDatabase()}
+     */
+    private final HikariDataSource database;
+
+    public TestBot() {
+        this(null);
+    }
+
+    /**
+     * Build the bot
+     * @param database The database returned by {@link #getDatabase()}
+     */
+    public TestBot(HikariDataSource database) {
+        this.database = database;
+    }
+
+    /**
+     * Retrieve the stats points written so far
+     * @return The points, in the order they were written
+     */
+    public List<Point> getPoints() {
+        return points;
+    }
+
+    /**
+     * Retrieve the stacktraces sent so far
+     * @return The stacktraces, in the order they were sent
+     */
+    public List<Throwable> getStacktraces() {
+        return stacktraces;
+    }
+
+    @Override
+    public InfluxDB getStatsClient() {
+        return statsClient;
+    }
+
+    @Override
+    public StacktraceHandler getStacktraceHandler() {
+        return (e, tags) -> stacktraces.add(e);
+    }
+
+    @Override
+    public HikariDataSource getDatabase() {
+        return database;
+    }
+
+    @Override
+    public CommandHandler getCommandHandler() {
+        return null;
+    }
+
+    @Override
+    public GuildSettings getGuildSettings(Guild guild) {
+        return null;
+    }
+
+    @Override
+    public PluginManager getPluginManager() {
+        return null;
+    }
+
+    @Override
+    public JDA getJDA(Guild guild) {
+        return null;
+    }
+
+    @Override
+    public List<JDA> getJDA() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public GuildRegistry getGuildRegistry() {
+        return null;
+    }
+
+    @Override
+    public void addGuild(Guild guild) {
+    }
+
+    @Override
+    public void removeGuild(Guild guild) {
+    }
+
+    @Override
+    public HttpClientRegistry getHttpClients() {
+        return null;
+    }
+
+    @Override
+    public RestClient getElasticSearch() {
+        return null;
+    }
+
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    @Override
+    public TranslateManager getTranslateManager() {
+        return null;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.benchmarks;
+
+import com.greatmancode.legendarybot.api.LegendaryBot;
+import com.greatmancode.legendarybot.api.commands.CommandHandler;
+import com.greatmancode.legendarybot.api.commands.CommandRateLimiter;
+import com.greatmancode.legendarybot.api.server.GuildRegistry;
+import com.greatmancode.legendarybot.api.server.GuildSettings;
+import com.greatmancode.legendarybot.api.translate.TranslateManager;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
+import com.greatmancode.legendarybot.api.utils.StacktraceHandler;
+import com.greatmancode.legendarybot.api.plugin.LegendaryBotPluginManager;
+import com.greatmancode.legendarybot.server.GuildSettingsWriter;
+import com.greatmancode.legendarybot.server.IGuildSettings;
+import com.zaxxer.hikari.HikariDataSource;
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.Guild;
+import org.elasticsearch.client.RestClient;
+import org.influxdb.InfluxDB;
+import org.pf4j.PluginManager;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * A {@link LegendaryBot} running without Discord, MySQL or InfluxDB. The settings come from a {@link BenchmarkDataSource},
+ * stats and stacktraces are dropped and the rate limits are high enough to never refuse a benchmark message.
+ */
+public class BenchmarkBot extends LegendaryBot {
+
+    private final List<JDA> shards;
+    private final GuildRegistry guildRegistry;
+    private final BenchmarkDataSource database = new BenchmarkDataSource();
+    private final InfluxDB statsClient = new StubInfluxDB();
+    private final GuildSettingsWriter settingsWriter = new GuildSettingsWriter(this, 1000, 500);
+    private final HttpClientRegistry httpClients = new HttpClientRegistry(this, new Properties());
+    private final StacktraceHandler stacktraceHandler = (e, tags) -> e.printStackTrace();
+    private final CommandHandler commandHandler;
+    private final LegendaryBotPluginManager pluginManager;
+    private final TranslateManager translateManager;
+
+    /**
+     * Build the bot. Must run from the project root for the languages to load.
+     * @throws IOException If the languages could not be loaded
+     */
+    public BenchmarkBot() throws IOException {
+        this(Collections.singletonList(Stubs.jda()), 4, Integer.MAX_VALUE, new CommandRateLimiter(60000000, 60000000, 60000000, 60000000, 60000000, 60000000, 60000000));
+    }
+
+    /**
+     * Build the bot with a custom command pipeline. Must run from the project root for the languages to load.
+     * @param shards The stub shards, guilds are spread over them like Discord does
+     * @param workerThreads The amount of threads running commands.
+     * @param shardQueueDepth The maximum amount of commands waiting or running for a single shard.
+     * @param rateLimiter The admission control of the commands
+     * @throws IOException If the languages could not be loaded
+     */
+    protected BenchmarkBot(List<JDA> shards, int workerThreads, int shardQueueDepth, CommandRateLimiter rateLimiter) throws IOException {
+        this.shards = Collections.unmodifiableList(shards);
+        guildRegistry = new GuildRegistry(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            guildRegistry.setShard(i, shards.get(i));
+        }
+        commandHandler = new CommandHandler(this, workerThreads, shardQueueDepth, rateLimiter);
+        pluginManager = new LegendaryBotPluginManager(this);
+        translateManager = new TranslateManager(this);
+    }
+
+    /**
+     * Retrieve the in-memory database, to register settings before calling {@link #addGuild(Guild)}
+     * @return The {@link BenchmarkDataSource}
+     */
+    public BenchmarkDataSource getBenchmarkDatabase() {
+        return database;
+    }
+
+    /**
+     * Retrieve the first shard, the one every stub guild belongs to when the bot is not sharded
+     * @return The JDA stub
+     */
+    public JDA getShard() {
+        return shards.get(0);
+    }
+
+    @Override
+    public CommandHandler getCommandHandler() {
+        return commandHandler;
+    }
+
+    @Override
+    public GuildSettings getGuildSettings(Guild guild) {
+        return guildRegistry.getEntry(guild).getSettings();
+    }
+
+    @Override
+    public PluginManager getPluginManager() {
+        return pluginManager;
+    }
+
+    @Override
+    public HikariDataSource getDatabase() {
+        return database;
+    }
+
+    @Override
+    public JDA getJDA(Guild guild) {
+        return guildRegistry.getJDA(guild);
+    }
+
+    @Override
+    public List<JDA> getJDA() {
+        return shards;
+    }
+
+    @Override
+    public GuildRegistry getGuildRegistry() {
+        return guildRegistry;
+    }
+
+    @Override
+    public void addGuild(Guild guild) {
+        IGuildSettings settings = new IGuildSettings(guild.getId(), this, settingsWriter);
+        settings.load();
+        guildRegistry.getEntry(guild).setSettings(settings);
+    }
+
+    @Override
+    public void removeGuild(Guild guild) {
+        guildRegistry.remove(guild.getIdLong());
+    }
+
+    @Override
+    public HttpClientRegistry getHttpClients() {
+        return httpClients;
+    }
+
+    @Override
+    public StacktraceHandler getStacktraceHandler() {
+        return stacktraceHandler;
+    }
+
+    @Override
+    public RestClient getElasticSearch() {
+        return null;
+    }
+
+    @Override
+    public InfluxDB getStatsClient() {
+        return statsClient;
+    }
+
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    @Override
+    public TranslateManager getTranslateManager() {
+        return translateManager;
+    }
+
+    /**
+     * Stop the command workers, the settings writer and the HTTP clients
+     */
+    public void shutdown() {
+        commandHandler.getDispatcher().shutdown();
+        settingsWriter.shutdown();
+        httpClients.shutdown();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.benchmarks;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A {@link HikariDataSource} answering from memory. SELECT statements return the rows registered for their first parameter, updates always succeed.
+ */
+public class BenchmarkDataSource extends HikariDataSource {
+
+    /**
+     * The rows returned by the SELECT statements, by first parameter. Each row is a column name to value map.
+     */
+    private final Map<String, List<Map<String, String>>> rows = new HashMap<>();
+
+    /**
+     * Register a guild_config row
+     * @param guildId The ID of the guild
+     * @param configName The setting name
+     * @param configValue The setting value
+     */
+    public void addSetting(String guildId, String configName, String configValue) {
+        Map<String, String> row = new HashMap<>();
+        row.put("configName", configName);
+        row.put("configValue", configValue);
+        rows.computeIfAbsent(guildId, k -> new ArrayList<>()).add(row);
+    }
+
+    @Override
+    public Connection getConnection() {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("prepareStatement", args -> statement());
+        return Stubs.stub(Connection.class, answers);
+    }
+
+    /**
+     * Build a statement remembering its first parameter
+     * @return The PreparedStatement stub
+     */
+    private PreparedStatement statement() {
+        String[] key = new String[1];
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("setString", args -> {
+            if ((int) args[0] == 1) {
+                key[0] = (String) args[1];
+            }
+            return null;
+        });
+        answers.put("executeQuery", args -> resultSet(rows.getOrDefault(key[0], Collections.emptyList())));
+        answers.put("executeUpdate", args -> 1);
+        return Stubs.stub(PreparedStatement.class, answers);
+    }
+
+    /**
+     * Build a result set over rows
+     * @param rows The rows
+     * @return The ResultSet stub
+     */
+    private ResultSet resultSet(List<Map<String, String>> rows) {
+        Iterator<Map<String, String>> iterator = rows.iterator();
+        Map<String, String>[] current = new Map[1];
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("next", args -> {
+            current[0] = iterator.hasNext() ? iterator.next() : null;
+            return current[0] != null;
+        });
+        answers.put("getString", args -> current[0].get((String) args[0]));
+        return Stubs.stub(ResultSet.class, answers);
+    }
+}
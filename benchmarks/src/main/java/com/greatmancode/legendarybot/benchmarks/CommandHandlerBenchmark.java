@@ -0,0 +1,157 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.benchmarks;
+
+import com.greatmancode.legendarybot.api.commands.CommandHandler;
+import com.greatmancode.legendarybot.api.commands.PublicCommand;
+import com.greatmancode.legendarybot.api.commands.ZeroArgsCommand;
+import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.TextChannel;
+import net.dv8tion.jda.core.entities.User;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link CommandHandler#handle(MessageReceivedEvent)} for the kinds of message a shard receives.
+ * The commands themselves do nothing, so a hit measures the matching, the admission and the hand-off to the command workers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandHandlerBenchmark {
+
+    /**
+     * The commands registered in production, to get a realistic command table.
+     */
+    private static final String[] COMMANDS = {"addsong", "addstreamer", "affix", "allowmembermusic", "blizzardcs", "botstats", "createcmd",
+            "debuguild", "disableautorank", "disableautorankupdate", "disablelc", "disallowmembermusic", "enableautorank", "enableautorankupdate",
+            "enablelc", "gif", "guildchars", "guildrank", "help", "info", "invasion", "invite", "legionbuilding", "linkwowchars", "listcommands",
+            "load", "log", "lookup", "lookupachievement", "lookupitem", "lookupquest", "mutelc", "nextaffix", "owrank", "playmusic", "privatelookup",
+            "reloadlanguage", "reloadplugins", "removecmd", "removestreamer", "server", "setlanguage", "setmainchar", "setmusicchannel", "setup",
+            "setvolume", "setwowrank", "skipsong", "stopmusic", "streamers", "syncguild", "syncrank", "token", "unload", "unsetmusicchannel"};
+
+    /**
+     * The amount of guilds the messages are spread over.
+     */
+    private static final int GUILDS = 64;
+
+    private BenchmarkBot bot;
+    private CommandHandler handler;
+    private MessageReceivedEvent[] commandHits;
+    private MessageReceivedEvent[] aliasHits;
+    private MessageReceivedEvent[] mentionHits;
+    private MessageReceivedEvent[] unknownCommands;
+    private MessageReceivedEvent[] chatter;
+
+    @Setup
+    public void setup() throws IOException {
+        bot = new BenchmarkBot();
+        handler = bot.getCommandHandler();
+        ZeroArgsCommand command = new NoopCommand();
+        handler.batch(() -> {
+            for (String name : COMMANDS) {
+                handler.addCommand(name, command, "Benchmark");
+            }
+            handler.addAlias("wprank", "guildrank");
+        });
+        handler.setUnknownCommandHandler(event -> {});
+
+        commandHits = new MessageReceivedEvent[GUILDS];
+        aliasHits = new MessageReceivedEvent[GUILDS];
+        mentionHits = new MessageReceivedEvent[GUILDS];
+        unknownCommands = new MessageReceivedEvent[GUILDS];
+        chatter = new MessageReceivedEvent[GUILDS];
+        for (int i = 0; i < GUILDS; i++) {
+            long guildId = 300000000000000000L + i;
+            bot.getBenchmarkDatabase().addSetting(Long.toString(guildId), "PREFIX", "!");
+            bot.getBenchmarkDatabase().addSetting(Long.toString(guildId), "LANGUAGE", "en");
+            Guild guild = Stubs.guild(guildId);
+            bot.addGuild(guild);
+            TextChannel channel = Stubs.channel(guild, 400000000000000000L + i);
+            User user = Stubs.user(200000000000000000L + i);
+            commandHits[i] = Stubs.message(bot.getShard(), channel, user, "!token");
+            aliasHits[i] = Stubs.message(bot.getShard(), channel, user, "!wprank");
+            mentionHits[i] = Stubs.message(bot.getShard(), channel, user, "<@" + Stubs.SELF_ID + "> guildrank");
+            unknownCommands[i] = Stubs.message(bot.getShard(), channel, user, "!raidtonight");
+            chatter[i] = Stubs.message(bot.getShard(), channel, user, "anyone up for some mythic+ keys tonight?");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        bot.shutdown();
+    }
+
+    /**
+     * Rotates the guild a thread sends its messages to.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next() {
+            return next++ & (GUILDS - 1);
+        }
+    }
+
+    @Benchmark
+    public void commandHit(Cursor cursor) {
+        handler.handle(commandHits[cursor.next()]);
+    }
+
+    @Benchmark
+    public void aliasHit(Cursor cursor) {
+        handler.handle(aliasHits[cursor.next()]);
+    }
+
+    @Benchmark
+    public void mentionHit(Cursor cursor) {
+        handler.handle(mentionHits[cursor.next()]);
+    }
+
+    @Benchmark
+    public void unknownCommand(Cursor cursor) {
+        handler.handle(unknownCommands[cursor.next()]);
+    }
+
+    @Benchmark
+    public void chatter(Cursor cursor) {
+        handler.handle(chatter[cursor.next()]);
+    }
+
+    /**
+     * A command that does nothing.
+     */
+    private static class NoopCommand implements ZeroArgsCommand, PublicCommand {
+        @Override
+        public void execute(MessageReceivedEvent event, String[] args) {
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.benchmarks;
+
+import com.greatmancode.legendarybot.api.server.GuildSettings;
+import com.greatmancode.legendarybot.server.IGuildSettings;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link IGuildSettings#getSetting(String)}, the lookup done for the prefix of every message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GuildSettingsBenchmark {
+
+    private BenchmarkBot bot;
+    private GuildSettings settings;
+
+    @Setup
+    public void setup() throws IOException {
+        bot = new BenchmarkBot();
+        String guildId = "300000000000000001";
+        bot.getBenchmarkDatabase().addSetting(guildId, "PREFIX", "?");
+        bot.getBenchmarkDatabase().addSetting(guildId, "LANGUAGE", "en");
+        bot.getBenchmarkDatabase().addSetting(guildId, "WOW_REGION_NAME", "us");
+        bot.getBenchmarkDatabase().addSetting(guildId, "WOW_SERVER_NAME", "Arthas");
+        bot.getBenchmarkDatabase().addSetting(guildId, "GUILD_NAME", "Legendary");
+        bot.addGuild(Stubs.guild(300000000000000001L));
+        settings = bot.getGuildSettings(Stubs.guild(300000000000000001L));
+    }
+
+    @TearDown
+    public void tearDown() {
+        bot.shutdown();
+    }
+
+    @Benchmark
+    public String prefix() {
+        return settings.getSetting("PREFIX");
+    }
+
+    @Benchmark
+    public String missingSetting() {
+        return settings.getSetting("MUSIC_CHANNEL");
+    }
+
+    @Benchmark
+    public String regionName() {
+        return settings.getRegionName();
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.benchmarks;
+
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.Region;
+import net.dv8tion.jda.core.entities.*;
+import net.dv8tion.jda.core.managers.AudioManager;
+import net.dv8tion.jda.core.managers.GuildController;
+import net.dv8tion.jda.core.managers.GuildManager;
+import net.dv8tion.jda.core.managers.GuildManagerUpdatable;
+import net.dv8tion.jda.core.requests.RestAction;
+import net.dv8tion.jda.core.requests.restaction.pagination.AuditLogPaginationAction;
+import net.dv8tion.jda.core.utils.cache.MemberCacheView;
+import net.dv8tion.jda.core.utils.cache.SnowflakeCacheView;
+import net.dv8tion.jda.core.utils.cache.SortedSnowflakeCacheView;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A stand-in Discord guild. Every user is a member of it. Only the identity of the guild and its members are known, the other methods return null, 0 or false.
+ */
+public class StubGuild implements Guild {
+
+    /**
+     * The ID of the guild
+     */
+    private final long id;
+
+    /**
+     * The ID of the guild, as a String
+     */
+    private final String idString;
+
+    /**
+     * The name of the guild
+     */
+    private final String name;
+
+    /**
+     * The members of the guild, built the first time each user is seen
+     */
+    private final Map<User, Member> members = new ConcurrentHashMap<>();
+
+    /**
+     * Build a guild
+     * @param id The ID of the guild
+     */
+    public StubGuild(long id) {
+        this.id = id;
+        this.idString = Long.toString(id);
+        this.name = "guild" + id;
+    }
+
+    public long getIdLong() {
+        return id;
+    }
+
+    public String getId() {
+        return idString;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isMember(User user) {
+        return true;
+    }
+
+    public Member getMember(User user) {
+        Member member = members.get(user);
+        if (member == null) {
+            member = Stubs.member(this, user);
+            Member previous = members.putIfAbsent(user, member);
+            if (previous != null) {
+                member = previous;
+            }
+        }
+        return member;
+    }
+
+    public boolean isAvailable() {
+        return true;
+    }
+
+    public String getIconId() {
+        return null;
+    }
+
+    public String getIconUrl() {
+        return null;
+    }
+
+    public Set<String> getFeatures() {
+        return Collections.emptySet();
+    }
+
+    public String getSplashId() {
+        return null;
+    }
+
+    public String getSplashUrl() {
+        return null;
+    }
+
+    public RestAction<String> getVanityUrl() {
+        return null;
+    }
+
+    public RestAction<EnumSet<Region>> retrieveRegions() {
+        return null;
+    }
+
+    public RestAction<EnumSet<Region>> retrieveRegions(boolean includeDeprecated) {
+        return null;
+    }
+
+    public VoiceChannel getAfkChannel() {
+        return null;
+    }
+
+    public TextChannel getSystemChannel() {
+        return null;
+    }
+
+    public Member getOwner() {
+        return null;
+    }
+
+    public Timeout getAfkTimeout() {
+        return null;
+    }
+
+    public String getRegionRaw() {
+        return null;
+    }
+
+    public Region getRegion() {
+        return null;
+    }
+
+    public Member getSelfMember() {
+        return null;
+    }
+
+    public MemberCacheView getMemberCache() {
+        return null;
+    }
+
+    public SortedSnowflakeCacheView<Category> getCategoryCache() {
+        return null;
+    }
+
+    public SortedSnowflakeCacheView<TextChannel> getTextChannelCache() {
+        return null;
+    }
+
+    public SortedSnowflakeCacheView<VoiceChannel> getVoiceChannelCache() {
+        return null;
+    }
+
+    public SortedSnowflakeCacheView<Role> getRoleCache() {
+        return null;
+    }
+
+    public SnowflakeCacheView<Emote> getEmoteCache() {
+        return null;
+    }
+
+    public RestAction<List<User>> getBans() {
+        return null;
+    }
+
+    public RestAction<List<Ban>> getBanList() {
+        return null;
+    }
+
+    public RestAction<Integer> getPrunableMemberCount(int days) {
+        return null;
+    }
+
+    public Role getPublicRole() {
+        return null;
+    }
+
+    public TextChannel getDefaultChannel() {
+        return null;
+    }
+
+    public GuildManager getManager() {
+        return null;
+    }
+
+    public GuildManagerUpdatable getManagerUpdatable() {
+        return null;
+    }
+
+    public GuildController getController() {
+        return null;
+    }
+
+    public AuditLogPaginationAction getAuditLogs() {
+        return null;
+    }
+
+    public RestAction<Void> leave() {
+        return null;
+    }
+
+    public RestAction<Void> delete() {
+        return null;
+    }
+
+    public RestAction<Void> delete(String mfaCode) {
+        return null;
+    }
+
+    public AudioManager getAudioManager() {
+        return null;
+    }
+
+    public JDA getJDA() {
+        return null;
+    }
+
+    public RestAction<List<Invite>> getInvites() {
+        return null;
+    }
+
+    public RestAction<List<Webhook>> getWebhooks() {
+        return null;
+    }
+
+    public List<GuildVoiceState> getVoiceStates() {
+        return Collections.emptyList();
+    }
+
+    public VerificationLevel getVerificationLevel() {
+        return null;
+    }
+
+    public NotificationLevel getDefaultNotificationLevel() {
+        return null;
+    }
+
+    public MFALevel getRequiredMFALevel() {
+        return null;
+    }
+
+    public ExplicitContentLevel getExplicitContentLevel() {
+        return null;
+    }
+
+    public boolean checkVerification() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "G:" + name + "(" + id + ")";
+    }
+}
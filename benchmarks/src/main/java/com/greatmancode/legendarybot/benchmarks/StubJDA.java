@@ -0,0 +1,243 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.benchmarks;
+
+import net.dv8tion.jda.bot.JDABot;
+import net.dv8tion.jda.bot.sharding.ShardManager;
+import net.dv8tion.jda.client.JDAClient;
+import net.dv8tion.jda.core.AccountType;
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.*;
+import net.dv8tion.jda.core.hooks.IEventManager;
+import net.dv8tion.jda.core.managers.AudioManager;
+import net.dv8tion.jda.core.managers.Presence;
+import net.dv8tion.jda.core.requests.RestAction;
+import net.dv8tion.jda.core.requests.restaction.AuditableRestAction;
+import net.dv8tion.jda.core.requests.restaction.GuildAction;
+import net.dv8tion.jda.core.utils.cache.CacheView;
+import net.dv8tion.jda.core.utils.cache.SnowflakeCacheView;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A stand-in shard that never connects to Discord. Only its bot user and shard information are known, the other methods return null, 0 or false.
+ */
+public class StubJDA implements JDA {
+
+    /**
+     * The bot user
+     */
+    private final SelfUser selfUser;
+
+    /**
+     * The shard information, null if the bot is not sharded
+     */
+    private final ShardInfo shardInfo;
+
+    /**
+     * Build a shard
+     * @param selfUser The bot user
+     * @param shardInfo The shard information, null if the bot is not sharded
+     */
+    public StubJDA(SelfUser selfUser, ShardInfo shardInfo) {
+        this.selfUser = selfUser;
+        this.shardInfo = shardInfo;
+    }
+
+    public SelfUser getSelfUser() {
+        return selfUser;
+    }
+
+    public ShardInfo getShardInfo() {
+        return shardInfo;
+    }
+
+    public Status getStatus() {
+        return Status.CONNECTED;
+    }
+
+    public AccountType getAccountType() {
+        return AccountType.BOT;
+    }
+
+    public long getPing() {
+        return 0;
+    }
+
+    public List<String> getCloudflareRays() {
+        return Collections.emptyList();
+    }
+
+    public List<String> getWebSocketTrace() {
+        return Collections.emptyList();
+    }
+
+    public void setEventManager(IEventManager manager) {
+    }
+
+    public IEventManager getEventManager() {
+        return null;
+    }
+
+    public void addEventListener(Object... listeners) {
+    }
+
+    public void removeEventListener(Object... listeners) {
+    }
+
+    public List<Object> getRegisteredListeners() {
+        return Collections.emptyList();
+    }
+
+    public GuildAction createGuild(String name) {
+        return null;
+    }
+
+    public CacheView<AudioManager> getAudioManagerCache() {
+        return null;
+    }
+
+    public SnowflakeCacheView<User> getUserCache() {
+        return null;
+    }
+
+    public List<Guild> getMutualGuilds(User... users) {
+        return Collections.emptyList();
+    }
+
+    public List<Guild> getMutualGuilds(Collection<User> users) {
+        return Collections.emptyList();
+    }
+
+    public RestAction<User> retrieveUserById(String id) {
+        return null;
+    }
+
+    public RestAction<User> retrieveUserById(long id) {
+        return null;
+    }
+
+    public SnowflakeCacheView<Guild> getGuildCache() {
+        return null;
+    }
+
+    public SnowflakeCacheView<Role> getRoleCache() {
+        return null;
+    }
+
+    public SnowflakeCacheView<Category> getCategoryCache() {
+        return null;
+    }
+
+    public SnowflakeCacheView<TextChannel> getTextChannelCache() {
+        return null;
+    }
+
+    public SnowflakeCacheView<VoiceChannel> getVoiceChannelCache() {
+        return null;
+    }
+
+    public SnowflakeCacheView<PrivateChannel> getPrivateChannelCache() {
+        return null;
+    }
+
+    public SnowflakeCacheView<Emote> getEmoteCache() {
+        return null;
+    }
+
+    public RestAction<Webhook> getWebhookById(String webhookId) {
+        return null;
+    }
+
+    public Presence getPresence() {
+        return null;
+    }
+
+    public String getToken() {
+        return null;
+    }
+
+    public long getResponseTotal() {
+        return 0;
+    }
+
+    public int getMaxReconnectDelay() {
+        return 0;
+    }
+
+    public void setAutoReconnect(boolean reconnect) {
+    }
+
+    public void setRequestTimeoutRetry(boolean retryOnTimeout) {
+    }
+
+    public boolean isAutoReconnect() {
+        return false;
+    }
+
+    public boolean isAudioEnabled() {
+        return false;
+    }
+
+    public boolean isBulkDeleteSplittingEnabled() {
+        return false;
+    }
+
+    public void shutdown() {
+    }
+
+    public void shutdownNow() {
+    }
+
+    public JDA awaitStatus(Status status) {
+        return this;
+    }
+
+    public JDA awaitReady() {
+        return this;
+    }
+
+    public ShardManager getShardManager() {
+        return null;
+    }
+
+    public JDAClient asClient() {
+        return null;
+    }
+
+    public JDABot asBot() {
+        return null;
+    }
+
+    public AuditableRestAction<Void> installAuxiliaryCable(int port) {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "JDA:" + selfUser.getName();
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.benchmarks;
+
+import net.dv8tion.jda.client.entities.Group;
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.*;
+import net.dv8tion.jda.core.requests.RestAction;
+import net.dv8tion.jda.core.requests.restaction.AuditableRestAction;
+import net.dv8tion.jda.core.requests.restaction.MessageAction;
+
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.Formatter;
+import java.util.List;
+
+/**
+ * A stand-in message received in a text channel. The raw and display content are the same and the message mentions nobody.
+ * Only the content, author and channel of the message are known, the other methods return null, 0 or false.
+ */
+public class StubMessage implements Message {
+
+    /**
+     * The shard that received the message
+     */
+    private final JDA jda;
+
+    /**
+     * The channel the message was sent in
+     */
+    private final TextChannel channel;
+
+    /**
+     * The author of the message
+     */
+    private final User author;
+
+    /**
+     * The content of the message
+     */
+    private final String content;
+
+    /**
+     * Build a message
+     * @param jda The shard that received the message
+     * @param channel The channel the message was sent in
+     * @param author The author of the message
+     * @param content The content of the message
+     */
+    public StubMessage(JDA jda, TextChannel channel, User author, String content) {
+        this.jda = jda;
+        this.channel = channel;
+        this.author = author;
+        this.content = content;
+    }
+
+    public long getIdLong() {
+        return 1;
+    }
+
+    public String getId() {
+        return "1";
+    }
+
+    public String getContentRaw() {
+        return content;
+    }
+
+    public String getContentDisplay() {
+        return content;
+    }
+
+    public String getContentStripped() {
+        return content;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public String getRawContent() {
+        return content;
+    }
+
+    public String getStrippedContent() {
+        return content;
+    }
+
+    public User getAuthor() {
+        return author;
+    }
+
+    public Member getMember() {
+        return channel.getGuild().getMember(author);
+    }
+
+    public Guild getGuild() {
+        return channel.getGuild();
+    }
+
+    public MessageChannel getChannel() {
+        return channel;
+    }
+
+    public TextChannel getTextChannel() {
+        return channel;
+    }
+
+    public ChannelType getChannelType() {
+        return ChannelType.TEXT;
+    }
+
+    public boolean isFromType(ChannelType type) {
+        return type == ChannelType.TEXT;
+    }
+
+    public JDA getJDA() {
+        return jda;
+    }
+
+    public PrivateChannel getPrivateChannel() {
+        return null;
+    }
+
+    public Group getGroup() {
+        return null;
+    }
+
+    public Category getCategory() {
+        return null;
+    }
+
+    public List<User> getMentionedUsers() {
+        return Collections.emptyList();
+    }
+
+    public List<TextChannel> getMentionedChannels() {
+        return Collections.emptyList();
+    }
+
+    public List<Role> getMentionedRoles() {
+        return Collections.emptyList();
+    }
+
+    public List<Member> getMentionedMembers(Guild guild) {
+        return Collections.emptyList();
+    }
+
+    public List<Member> getMentionedMembers() {
+        return Collections.emptyList();
+    }
+
+    public List<IMentionable> getMentions(MentionType... types) {
+        return Collections.emptyList();
+    }
+
+    public boolean isMentioned(IMentionable mentionable, MentionType... types) {
+        return false;
+    }
+
+    public boolean mentionsEveryone() {
+        return false;
+    }
+
+    public boolean isEdited() {
+        return false;
+    }
+
+    public OffsetDateTime getEditedTime() {
+        return null;
+    }
+
+    public List<String> getInvites() {
+        return Collections.emptyList();
+    }
+
+    public String getNonce() {
+        return null;
+    }
+
+    public boolean isWebhookMessage() {
+        return false;
+    }
+
+    public List<Attachment> getAttachments() {
+        return Collections.emptyList();
+    }
+
+    public List<MessageEmbed> getEmbeds() {
+        return Collections.emptyList();
+    }
+
+    public List<Emote> getEmotes() {
+        return Collections.emptyList();
+    }
+
+    public List<MessageReaction> getReactions() {
+        return Collections.emptyList();
+    }
+
+    public boolean isTTS() {
+        return false;
+    }
+
+    public boolean isPinned() {
+        return false;
+    }
+
+    public MessageType getType() {
+        return MessageType.DEFAULT;
+    }
+
+    public MessageAction editMessage(CharSequence newContent) {
+        return null;
+    }
+
+    public MessageAction editMessage(MessageEmbed newContent) {
+        return null;
+    }
+
+    public MessageAction editMessageFormat(String format, Object... args) {
+        return null;
+    }
+
+    public MessageAction editMessage(Message newContent) {
+        return null;
+    }
+
+    public AuditableRestAction<Void> delete() {
+        return null;
+    }
+
+    public RestAction<Void> pin() {
+        return null;
+    }
+
+    public RestAction<Void> unpin() {
+        return null;
+    }
+
+    public RestAction<Void> addReaction(Emote emote) {
+        return null;
+    }
+
+    public RestAction<Void> addReaction(String unicode) {
+        return null;
+    }
+
+    public RestAction<Void> clearReactions() {
+        return null;
+    }
+
+    public void formatTo(Formatter formatter, int flags, int width, int precision) {
+        formatter.format(content);
+    }
+
+    @Override
+    public String toString() {
+        return "M:" + author + ":" + content;
+    }
+}
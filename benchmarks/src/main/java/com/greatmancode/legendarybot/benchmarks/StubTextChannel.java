@@ -0,0 +1,277 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.benchmarks;
+
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.*;
+import net.dv8tion.jda.core.managers.ChannelManager;
+import net.dv8tion.jda.core.managers.ChannelManagerUpdatable;
+import net.dv8tion.jda.core.requests.RestAction;
+import net.dv8tion.jda.core.requests.restaction.AuditableRestAction;
+import net.dv8tion.jda.core.requests.restaction.ChannelAction;
+import net.dv8tion.jda.core.requests.restaction.InviteAction;
+import net.dv8tion.jda.core.requests.restaction.MessageAction;
+import net.dv8tion.jda.core.requests.restaction.PermissionOverrideAction;
+import net.dv8tion.jda.core.requests.restaction.WebhookAction;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Formatter;
+import java.util.List;
+
+/**
+ * A stand-in Discord text channel. The stubs can't reach Discord, sending a message in it throws a {@link Stubs.ReplyAttemptedException}.
+ * Only the identity of the channel is known, the other methods return null, 0 or false.
+ */
+public class StubTextChannel implements TextChannel {
+
+    /**
+     * The guild the channel is in
+     */
+    private final Guild guild;
+
+    /**
+     * The ID of the channel
+     */
+    private final long id;
+
+    /**
+     * The ID of the channel, as a String
+     */
+    private final String idString;
+
+    /**
+     * The name of the channel
+     */
+    private final String name;
+
+    /**
+     * Build a text channel
+     * @param guild The guild the channel is in
+     * @param id The ID of the channel
+     */
+    public StubTextChannel(Guild guild, long id) {
+        this.guild = guild;
+        this.id = id;
+        this.idString = Long.toString(id);
+        this.name = "channel" + id;
+    }
+
+    public long getIdLong() {
+        return id;
+    }
+
+    public String getId() {
+        return idString;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Guild getGuild() {
+        return guild;
+    }
+
+    public ChannelType getType() {
+        return ChannelType.TEXT;
+    }
+
+    public MessageAction sendMessage(CharSequence text) {
+        throw Stubs.ReplyAttemptedException.INSTANCE;
+    }
+
+    public MessageAction sendMessageFormat(String format, Object... args) {
+        throw Stubs.ReplyAttemptedException.INSTANCE;
+    }
+
+    public MessageAction sendMessage(MessageEmbed embed) {
+        throw Stubs.ReplyAttemptedException.INSTANCE;
+    }
+
+    public MessageAction sendMessage(Message msg) {
+        throw Stubs.ReplyAttemptedException.INSTANCE;
+    }
+
+    public boolean canTalk() {
+        return true;
+    }
+
+    public boolean canTalk(Member member) {
+        return true;
+    }
+
+    public String getAsMention() {
+        return "<#" + id + ">";
+    }
+
+    public void formatTo(Formatter formatter, int flags, int width, int precision) {
+        formatter.format(getAsMention());
+    }
+
+    public String getTopic() {
+        return null;
+    }
+
+    public boolean isNSFW() {
+        return false;
+    }
+
+    public int getSlowmode() {
+        return 0;
+    }
+
+    public RestAction<List<Webhook>> getWebhooks() {
+        return null;
+    }
+
+    public WebhookAction createWebhook(String name) {
+        return null;
+    }
+
+    public RestAction<Void> deleteMessages(Collection<Message> messages) {
+        return null;
+    }
+
+    public RestAction<Void> deleteMessagesByIds(Collection<String> messageIds) {
+        return null;
+    }
+
+    public AuditableRestAction<Void> deleteWebhookById(String id) {
+        return null;
+    }
+
+    public RestAction<Void> clearReactionsById(String messageId) {
+        return null;
+    }
+
+    public RestAction<Void> clearReactionsById(long messageId) {
+        return null;
+    }
+
+    public String getLatestMessageId() {
+        return null;
+    }
+
+    public long getLatestMessageIdLong() {
+        return 0;
+    }
+
+    public boolean hasLatestMessage() {
+        return false;
+    }
+
+    public Category getParent() {
+        return null;
+    }
+
+    public List<Member> getMembers() {
+        return Collections.emptyList();
+    }
+
+    public int getPosition() {
+        return 0;
+    }
+
+    public int getPositionRaw() {
+        return 0;
+    }
+
+    public JDA getJDA() {
+        return null;
+    }
+
+    public PermissionOverride getPermissionOverride(Member member) {
+        return null;
+    }
+
+    public PermissionOverride getPermissionOverride(Role role) {
+        return null;
+    }
+
+    public List<PermissionOverride> getPermissionOverrides() {
+        return Collections.emptyList();
+    }
+
+    public List<PermissionOverride> getMemberPermissionOverrides() {
+        return Collections.emptyList();
+    }
+
+    public List<PermissionOverride> getRolePermissionOverrides() {
+        return Collections.emptyList();
+    }
+
+    public ChannelAction createCopy(Guild guild) {
+        return null;
+    }
+
+    public ChannelAction createCopy() {
+        return null;
+    }
+
+    public ChannelManager getManager() {
+        return null;
+    }
+
+    public ChannelManagerUpdatable getManagerUpdatable() {
+        return null;
+    }
+
+    public AuditableRestAction<Void> delete() {
+        return null;
+    }
+
+    public PermissionOverrideAction createPermissionOverride(Member member) {
+        return null;
+    }
+
+    public PermissionOverrideAction createPermissionOverride(Role role) {
+        return null;
+    }
+
+    public PermissionOverrideAction putPermissionOverride(Member member) {
+        return null;
+    }
+
+    public PermissionOverrideAction putPermissionOverride(Role role) {
+        return null;
+    }
+
+    public RestAction<List<Invite>> getInvites() {
+        return null;
+    }
+
+    public InviteAction createInvite() {
+        return null;
+    }
+
+    public int compareTo(TextChannel channel) {
+        return Long.compare(id, channel.getIdLong());
+    }
+
+    @Override
+    public String toString() {
+        return "TC:" + name + "(" + id + ")";
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.benchmarks;
+
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.PrivateChannel;
+import net.dv8tion.jda.core.entities.SelfUser;
+import net.dv8tion.jda.core.managers.AccountManager;
+import net.dv8tion.jda.core.managers.AccountManagerUpdatable;
+import net.dv8tion.jda.core.requests.RestAction;
+
+import java.util.Collections;
+import java.util.Formatter;
+import java.util.List;
+
+/**
+ * A stand-in Discord user. Also usable as the bot user of a {@link StubJDA}. Only the identity of the user is known, the other methods return null, 0 or false.
+ */
+public class StubUser implements SelfUser {
+
+    /**
+     * The ID of the user
+     */
+    private final long id;
+
+    /**
+     * The ID of the user, as a String
+     */
+    private final String idString;
+
+    /**
+     * The mention of the user
+     */
+    private final String mention;
+
+    /**
+     * The name of the user
+     */
+    private final String name;
+
+    /**
+     * Build a user
+     * @param id The ID of the user
+     */
+    public StubUser(long id) {
+        this.id = id;
+        this.idString = Long.toString(id);
+        this.mention = "<@" + id + ">";
+        this.name = "user" + id;
+    }
+
+    public long getIdLong() {
+        return id;
+    }
+
+    public String getId() {
+        return idString;
+    }
+
+    public String getAsMention() {
+        return mention;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDiscriminator() {
+        return "0000";
+    }
+
+    public String getAvatarId() {
+        return null;
+    }
+
+    public String getAvatarUrl() {
+        return null;
+    }
+
+    public String getDefaultAvatarId() {
+        return null;
+    }
+
+    public String getDefaultAvatarUrl() {
+        return null;
+    }
+
+    public String getEffectiveAvatarUrl() {
+        return null;
+    }
+
+    public boolean hasPrivateChannel() {
+        return false;
+    }
+
+    public RestAction<PrivateChannel> openPrivateChannel() {
+        return null;
+    }
+
+    public List<Guild> getMutualGuilds() {
+        return Collections.emptyList();
+    }
+
+    public boolean isBot() {
+        return false;
+    }
+
+    public JDA getJDA() {
+        return null;
+    }
+
+    public boolean isFake() {
+        return false;
+    }
+
+    public void formatTo(Formatter formatter, int flags, int width, int precision) {
+        formatter.format(mention);
+    }
+
+    public String getApplicationId() {
+        return idString;
+    }
+
+    public long getApplicationIdLong() {
+        return id;
+    }
+
+    public boolean isVerified() {
+        return true;
+    }
+
+    public boolean isMfaEnabled() {
+        return false;
+    }
+
+    public String getEmail() {
+        return null;
+    }
+
+    public boolean isMobile() {
+        return false;
+    }
+
+    public boolean isNitro() {
+        return false;
+    }
+
+    public String getPhoneNumber() {
+        return null;
+    }
+
+    public long getAllowedFileSize() {
+        return 0;
+    }
+
+    public AccountManager getManager() {
+        return null;
+    }
+
+    public AccountManagerUpdatable getManagerUpdatable() {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "U:" + name + "(" + id + ")";
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.benchmarks;
+
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.*;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds stand-in JDA entities for the benchmarks. The entities the command path calls on every message are plain classes,
+ * so the benchmarks don't measure reflection, boxing or argument arrays. The others are a {@link Proxy} answering a fixed set of methods,
+ * the other methods return null, 0 or false.
+ */
+public final class Stubs {
+
+    /**
+     * The ID of the bot user
+     */
+    public static final long SELF_ID = 100000000000000001L;
+
+    private Stubs() {
+    }
+
+    /**
+     * Build a stub of an interface
+     * @param type The interface to stub
+     * @param answers The answer of each method, by method name. Receives the arguments of the call.
+     * @param <T> The interface type
+     * @return The stub
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName() + "Stub";
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class) {
+                return false;
+            } else if (returnType == long.class) {
+                return 0L;
+            } else if (returnType == int.class) {
+                return 0;
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Build the JDA instance of a shard
+     * @return A JDA stub whose self user is {@link #SELF_ID}
+     */
+    public static JDA jda() {
+        return jda(null);
+    }
+
+    /**
+     * Build the JDA instance of a shard
+     * @param shardInfo The shard information, null if the bot is not sharded
+     * @return A JDA stub whose self user is {@link #SELF_ID}
+     */
+    public static JDA jda(JDA.ShardInfo shardInfo) {
+        return new StubJDA(new StubUser(SELF_ID), shardInfo);
+    }
+
+    /**
+     * Build a user
+     * @param id The ID of the user
+     * @return The User stub
+     */
+    public static User user(long id) {
+        return new StubUser(id);
+    }
+
+    /**
+     * Build a guild. Every user is a member of it, the members are built once per user.
+     * @param id The ID of the guild
+     * @return The Guild stub
+     */
+    public static Guild guild(long id) {
+        return new StubGuild(id);
+    }
+
+    /**
+     * Build a member of a guild
+     * @param guild The guild
+     * @param user The user
+     * @return The Member stub
+     */
+    public static Member member(Guild guild, User user) {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("getGuild", args -> guild);
+        answers.put("getUser", args -> user);
+        answers.put("getAsMention", args -> user.getAsMention());
+        return stub(Member.class, answers);
+    }
+
+    /**
+     * Build a text channel. The stubs can't reach Discord, sending a message in it throws a {@link ReplyAttemptedException}.
+     * @param guild The guild the channel is in
+     * @param id The ID of the channel
+     * @return The TextChannel stub
+     */
+    public static TextChannel channel(Guild guild, long id) {
+        return new StubTextChannel(guild, id);
+    }
+
+    /**
+     * Build a message received in a text channel. The raw and display content are the same.
+     * @param jda The shard that received the message
+     * @param channel The channel the message was sent in
+     * @param author The author of the message
+     * @param content The content of the message
+     * @return The event of the message
+     */
+    public static MessageReceivedEvent message(JDA jda, TextChannel channel, User author, String content) {
+        return new MessageReceivedEvent(jda, 0, new StubMessage(jda, channel, author, content));
+    }
+
+    /**
+     * Thrown when a stub channel is asked to send a message.
+     */
+    public static final class ReplyAttemptedException extends RuntimeException {
+
+        /**
+         * The only instance, thrown without a stack trace.
+         */
+        public static final ReplyAttemptedException INSTANCE = new ReplyAttemptedException();
+
+        private ReplyAttemptedException() {
+            super("Stub channels can't send messages", null, false, false);
+        }
+    }
+}
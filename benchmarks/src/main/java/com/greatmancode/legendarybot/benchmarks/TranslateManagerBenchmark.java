@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.benchmarks;
+
+import com.greatmancode.legendarybot.api.translate.TranslateManager;
+import net.dv8tion.jda.core.entities.Guild;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link TranslateManager#translate(Guild, String, String...)} for guilds with and without a language set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranslateManagerBenchmark {
+
+    private BenchmarkBot bot;
+    private TranslateManager translateManager;
+    private Guild languageGuild;
+    private Guild defaultGuild;
+
+    @Setup
+    public void setup() throws IOException {
+        bot = new BenchmarkBot();
+        translateManager = bot.getTranslateManager();
+        bot.getBenchmarkDatabase().addSetting("300000000000000001", "LANGUAGE", "en");
+        languageGuild = Stubs.guild(300000000000000001L);
+        defaultGuild = Stubs.guild(300000000000000002L);
+        bot.addGuild(languageGuild);
+        bot.addGuild(defaultGuild);
+    }
+
+    @TearDown
+    public void tearDown() {
+        bot.shutdown();
+    }
+
+    @Benchmark
+    public String plainKey() {
+        return translateManager.translate(languageGuild, "error.occurred.try.again.later");
+    }
+
+    @Benchmark
+    public String formattedKey() {
+        return translateManager.translate(languageGuild, "command.ratelimited", "<@200000000000000000>");
+    }
+
+    @Benchmark
+    public String defaultLanguage() {
+        return translateManager.translate(defaultGuild, "error.occurred.try.again.later");
+    }
+}
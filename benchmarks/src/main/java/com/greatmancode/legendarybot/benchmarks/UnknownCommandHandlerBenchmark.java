@@ -0,0 +1,89 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.benchmarks;
+
+import com.greatmancode.legendarybot.plugin.customcommands.CustomCommandsPlugin;
+import com.greatmancode.legendarybot.plugin.customcommands.IUnknownCommandHandler;
+import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.TextChannel;
+import net.dv8tion.jda.core.entities.User;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+import org.pf4j.PluginDescriptor;
+import org.pf4j.PluginWrapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link IUnknownCommandHandler#handle(MessageReceivedEvent)} for prefixed messages that are not custom commands.
+ * A custom command hit ends in a Discord request and is left out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnknownCommandHandlerBenchmark {
+
+    private BenchmarkBot bot;
+    private IUnknownCommandHandler handler;
+    private MessageReceivedEvent unknownCommand;
+    private MessageReceivedEvent unknownCommandWithArgs;
+
+    @Setup
+    public void setup() throws IOException {
+        bot = new BenchmarkBot();
+        CustomCommandsPlugin plugin = new CustomCommandsPlugin(new PluginWrapper(bot.getPluginManager(), new PluginDescriptor(), null, getClass().getClassLoader()));
+        handler = new IUnknownCommandHandler(plugin);
+
+        bot.getBenchmarkDatabase().addSetting("300000000000000001", "PREFIX", "!");
+        Guild guild = Stubs.guild(300000000000000001L);
+        bot.addGuild(guild);
+        plugin.joinGuildEvent(guild);
+        for (int i = 0; i < 20; i++) {
+            plugin.createCommand(guild, "custom" + i, "Custom command " + i);
+        }
+        TextChannel channel = Stubs.channel(guild, 400000000000000001L);
+        User user = Stubs.user(200000000000000001L);
+        unknownCommand = Stubs.message(bot.getShard(), channel, user, "!raidtonight");
+        unknownCommandWithArgs = Stubs.message(bot.getShard(), channel, user, "!raid tonight at 8 server time, bring flasks");
+    }
+
+    @TearDown
+    public void tearDown() {
+        bot.shutdown();
+    }
+
+    @Benchmark
+    public void unknownCommand() {
+        handler.handle(unknownCommand);
+    }
+
+    @Benchmark
+    public void unknownCommandWithArgs() {
+        handler.handle(unknownCommandWithArgs);
+    }
+}
@@ -24,9 +24,11 @@
 
 package com.greatmancode.legendarybot.plugin.blizzazrdcscommand;
 
+import com.greatmancode.legendarybot.api.commands.CommandCost;
 import com.greatmancode.legendarybot.api.commands.PublicCommand;
 import com.greatmancode.legendarybot.api.commands.ZeroArgsCommand;
 import com.greatmancode.legendarybot.api.plugin.LegendaryBotPlugin;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
 import net.dv8tion.jda.core.entities.Guild;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
 import okhttp3.*;
@@ -49,7 +51,7 @@ public class BlizzardCSCommand extends LegendaryBotPlugin implements ZeroArgsCom
     /**
      * Instance of the HTTP Client
      */
-    private OkHttpClient client = new OkHttpClient();
+    private OkHttpClient client = getBot().getHttpClients().get(HttpClientRegistry.TWITTER);
 
     /**
      * A instance of the bot's configuration file
@@ -154,6 +156,11 @@ public class BlizzardCSCommand extends LegendaryBotPlugin implements ZeroArgsCom
 
     }
 
+    @Override
+    public CommandCost cost() {
+        return CommandCost.MEDIUM;
+    }
+
     @Override
     public String help(Guild guild) {
         return getBot().getTranslateManager().translate(guild, "command.blizzardcs.help");
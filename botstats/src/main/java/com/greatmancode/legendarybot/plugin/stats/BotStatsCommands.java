@@ -24,14 +24,18 @@
 package com.greatmancode.legendarybot.plugin.stats;
 
 import com.greatmancode.legendarybot.api.commands.Command;
+import com.greatmancode.legendarybot.api.commands.CommandMetrics;
 import net.dv8tion.jda.core.EmbedBuilder;
 import net.dv8tion.jda.core.entities.Member;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+import org.HdrHistogram.Histogram;
 import org.apache.commons.lang3.time.DurationFormatUtils;
 
 import java.awt.*;
 import java.lang.management.ManagementFactory;
 import java.lang.management.RuntimeMXBean;
+import java.util.Comparator;
+import java.util.Map;
 
 /**
  * The !botstats command.
@@ -51,8 +55,17 @@ public class BotStatsCommands implements Command {
         this.plugin = plugin;
     }
 
+    /**
+     * The maximum amount of commands shown in the performance report. Discord allows 25 fields per embed.
+     */
+    private static final int PERF_MAX_COMMANDS = 20;
+
     @Override
     public void execute(MessageReceivedEvent event, String[] args) {
+        if (args.length == 1 && args[0].equalsIgnoreCase("perf")) {
+            sendPerformanceReport(event);
+            return;
+        }
         EmbedBuilder eb = new EmbedBuilder();
         eb.setColor(Color.getHSBColor(217,65,0));
         eb.setAuthor("LegendaryBot Stats","https://github.com/greatman/legendarybot","https://cdn.discordapp.com/app-icons/267134720700186626/ba3e3856b551e0c425280571db7746ef.jpg");
@@ -84,6 +97,48 @@ public class BotStatsCommands implements Command {
 
     }
 
+    /**
+     * Send the latency percentiles of the slowest commands since the bot started.
+     * @param event The {@link MessageReceivedEvent} that triggered the command.
+     */
+    private void sendPerformanceReport(MessageReceivedEvent event) {
+        EmbedBuilder eb = new EmbedBuilder();
+        eb.setColor(Color.BLUE);
+        eb.setAuthor("LegendaryBot Command Performance","https://github.com/greatman/legendarybot","https://cdn.discordapp.com/app-icons/267134720700186626/ba3e3856b551e0c425280571db7746ef.jpg");
+        eb.setDescription("p50 / p95 / p99 in milliseconds since startup, slowest commands first.");
+
+        Map<String, Map<CommandMetrics.Phase, Histogram>> totals = plugin.getBot().getCommandHandler().getMetrics().getTotals();
+        totals.entrySet().stream()
+                .filter(e -> e.getValue().get(CommandMetrics.Phase.TOTAL).getTotalCount() > 0)
+                .sorted(Comparator.comparingLong((Map.Entry<String, Map<CommandMetrics.Phase, Histogram>> e) -> e.getValue().get(CommandMetrics.Phase.TOTAL).getValueAtPercentile(99)).reversed())
+                .limit(PERF_MAX_COMMANDS)
+                .forEach(e -> {
+                    StringBuilder builder = new StringBuilder();
+                    e.getValue().forEach((phase, histogram) -> {
+                        if (histogram.getTotalCount() > 0) {
+                            builder.append(phase.name().toLowerCase()).append(": ")
+                                    .append(formatMillis(histogram.getValueAtPercentile(50))).append(" / ")
+                                    .append(formatMillis(histogram.getValueAtPercentile(95))).append(" / ")
+                                    .append(formatMillis(histogram.getValueAtPercentile(99))).append("\n");
+                        }
+                    });
+                    eb.addField("!" + e.getKey() + " (" + e.getValue().get(CommandMetrics.Phase.TOTAL).getTotalCount() + " runs)", builder.toString(), true);
+                });
+        if (totals.isEmpty()) {
+            eb.addField("No data", "No command was run yet.", false);
+        }
+        event.getChannel().sendMessage(eb.build()).queue();
+    }
+
+    /**
+     * Format a value in microseconds as milliseconds.
+     * @param micros The value in microseconds
+     * @return The value in milliseconds with one decimal.
+     */
+    private String formatMillis(long micros) {
+        return String.format("%.1f", micros / 1000.0);
+    }
+
     @Override
     public boolean canExecute(Member member) {
         return member.getUser().getId().equals("95709957629939712");
@@ -96,12 +151,12 @@ public class BotStatsCommands implements Command {
 
     @Override
     public int maxArgs() {
-        return 0;
+        return 1;
     }
 
     @Override
     public String help() {
-        return "Shows Global stats about the bot.";
+        return "botstats [perf] - Shows Global stats about the bot. With perf, shows the latency of the commands.";
     }
 
     @Override
@@ -45,6 +45,7 @@ public class DashboardStatsHandler {
         final Runnable postStats = () -> {
             BatchPoints points = BatchPoints.database("legendarybot2")
                     .build();
+            plugin.refreshClusterStats();
             points.point(Point.measurement("legendarybot")
             .addField("totalservers", plugin.getGuildCount())
                     .build());
@@ -78,6 +79,19 @@ public class DashboardStatsHandler {
             points.point(Point.measurement("legendarybot")
                     .addField("configurated", plugin.getGuildConfiguredCount())
                     .build());
+            bot.getCommandHandler().getMetrics().flush().forEach((command, phases) -> phases.forEach((phase, histogram) -> {
+                if (histogram.getTotalCount() > 0) {
+                    points.point(Point.measurement("commandlatency")
+                            .tag("command", command)
+                            .tag("phase", phase.name().toLowerCase())
+                            .addField("count", histogram.getTotalCount())
+                            .addField("p50", histogram.getValueAtPercentile(50))
+                            .addField("p95", histogram.getValueAtPercentile(95))
+                            .addField("p99", histogram.getValueAtPercentile(99))
+                            .addField("max", histogram.getMaxValue())
+                            .build());
+                }
+            }));
             bot.getStatsClient().write(points);
         };
         scheduler.scheduleAtFixedRate(postStats,0, 10, TimeUnit.SECONDS);
@@ -24,6 +24,7 @@
 package com.greatmancode.legendarybot.plugin.stats;
 
 import com.greatmancode.legendarybot.api.LegendaryBot;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
 import net.dv8tion.jda.core.JDA;
 import okhttp3.*;
 import org.json.simple.JSONObject;
@@ -54,7 +55,7 @@ public class DiscordBotListHandler {
     /**
      * The OKHttp client.
      */
-    private OkHttpClient client = new OkHttpClient();
+    private final OkHttpClient client;
 
     /**
      * The logger
@@ -68,6 +69,7 @@ public class DiscordBotListHandler {
      */
     public DiscordBotListHandler(Properties properties, StatsPlugin plugin) {
         LegendaryBot bot = plugin.getBot();
+        client = bot.getHttpClients().get(HttpClientRegistry.DEFAULT);
         final Runnable postStats = () -> {
             Logger logger = LoggerFactory.getLogger(getClass());
             logger.info("Sending stats");
@@ -24,6 +24,7 @@
 package com.greatmancode.legendarybot.plugin.stats;
 
 import com.greatmancode.legendarybot.api.plugin.LegendaryBotPlugin;
+import com.greatmancode.legendarybot.api.server.ClusterStats;
 import com.greatmancode.legendarybot.api.server.GuildSettings;
 import com.greatmancode.legendarybot.plugin.legendarycheck.LegendaryCheckPlugin;
 import com.greatmancode.legendarybot.plugin.music.MusicPlugin;
@@ -52,6 +53,11 @@ public class StatsPlugin extends LegendaryBotPlugin {
      */
     private DiscordBotListHandler statsHandler;
 
+    /**
+     * The stats of the bot as of the last dashboard tick. Counting the members scans every guild, so it is done once per tick.
+     */
+    private volatile ClusterStats clusterStats;
+
     public StatsPlugin(PluginWrapper wrapper) {
         super(wrapper);
     }
@@ -88,13 +94,30 @@ public class StatsPlugin extends LegendaryBotPlugin {
     }
 
     /**
-     * Retrieve the total member count on all servers.
+     * Count the guilds, channels and members again. Called once per dashboard tick, the counts getters return the result of the last call.
+     * @return The refreshed stats of the bot
+     */
+    public ClusterStats refreshClusterStats() {
+        ClusterStats stats = getBot().getClusterStats();
+        clusterStats = stats;
+        return stats;
+    }
+
+    /**
+     * Retrieve the stats of the last refresh, refreshing them if they were never counted.
+     * @return The stats of the bot
+     */
+    private ClusterStats getClusterStats() {
+        ClusterStats stats = clusterStats;
+        return stats != null ? stats : refreshClusterStats();
+    }
+
+    /**
+     * Retrieve the total member count on all servers, of every node of the cluster.
      * @return The number of members on all discord servers the bot is connected to.
      */
     public int getMemberCount() {
-        final int[] membersAmount = new int[1];
-        getBot().getJDA().forEach(jda -> jda.getGuilds().forEach(g -> membersAmount[0] += g.getMembers().stream().filter((m) -> !m.getUser().isBot()).count()));
-        return membersAmount[0];
+        return getClusterStats().getMembers();
     }
 
     /**
@@ -128,23 +151,19 @@ public class StatsPlugin extends LegendaryBotPlugin {
     }
 
     /**
-     * Get the total count of text channels in all Discord guilds currently connected to.
+     * Get the total count of text channels in all Discord guilds currently connected to, by every node of the cluster.
      * @return The total count of text channels.
      */
     public int getTextChannelCount() {
-        final int[] i = {0};
-        getBot().getJDA().forEach(jda -> i[0] += jda.getTextChannels().size() );
-        return i[0];
+        return getClusterStats().getTextChannels();
     }
 
     /**
-     * Get the total count of voice channels in all Discord guilds currently connected to.
+     * Get the total count of voice channels in all Discord guilds currently connected to, by every node of the cluster.
      * @return The total count of voice channels.
      */
     public int getVoiceChannelCount() {
-        final int[] i = {0};
-        getBot().getJDA().forEach(jda -> i[0] += jda.getVoiceChannels().size() );
-        return i[0];
+        return getClusterStats().getVoiceChannels();
     }
 
     /**
@@ -156,13 +175,11 @@ public class StatsPlugin extends LegendaryBotPlugin {
     }
 
     /**
-     * Get the amount of guilds the bot is connected to.
+     * Get the amount of guilds the bot is connected to, by every node of the cluster.
      * @return The total amount of guilds the bot is connected to.
      */
     public int getGuildCount() {
-        final int[] i = {0};
-        getBot().getJDA().forEach(jda -> i[0] += jda.getGuilds().size());
-        return i[0];
+        return getClusterStats().getGuilds();
     }
 
     /**
@@ -35,12 +35,16 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CustomCommandsPlugin extends LegendaryBotPlugin {
 
-    private Map<String, Map<String, String>> guildCustomCommands = new HashMap<>();
+    /**
+     * The key of the custom commands in the state of the guild entries
+     */
+    private static final String STATE_KEY = "customcommands";
+
     private GuildJoinListener listener = new GuildJoinListener(this);
 
     public CustomCommandsPlugin(PluginWrapper wrapper) {
@@ -67,7 +71,7 @@ public class CustomCommandsPlugin extends LegendaryBotPlugin {
         }
         log.info("Loading custom commands");
         getBot().getJDA().forEach(jda -> jda.getGuilds().forEach(g -> {
-            Map<String, String> result = new HashMap<>();
+            Map<String, String> result = new ConcurrentHashMap<>();
             try {
                 Connection connection = getBot().getDatabase().getConnection();
                 PreparedStatement statement = connection.prepareStatement("SELECT * FROM guild_commands WHERE guild_id=?");
@@ -78,7 +82,7 @@ public class CustomCommandsPlugin extends LegendaryBotPlugin {
                 }
                 statement.close();
                 connection.close();
-                guildCustomCommands.put(g.getId(), result);
+                getBot().getGuildRegistry().getEntry(g).setState(STATE_KEY, result);
             } catch (SQLException e) {
                 e.printStackTrace();
                 getBot().getStacktraceHandler().sendStacktrace(e, "guildId:" + g.getId());
@@ -101,6 +105,7 @@ public class CustomCommandsPlugin extends LegendaryBotPlugin {
         getBot().getCommandHandler().removeCommand("listcommands");
         getBot().getCommandHandler().setUnknownCommandHandler(null);
         getBot().getJDA().forEach((jda) -> jda.removeEventListener(listener));
+        getBot().getGuildRegistry().forEach(entry -> entry.removeState(STATE_KEY));
         log.info("Plugin Custom Commands unloaded!");
         log.info("Command !createcmd unloaded!");
     }
@@ -121,7 +126,7 @@ public class CustomCommandsPlugin extends LegendaryBotPlugin {
             statement.executeUpdate();
             statement.close();
             conn.close();
-            guildCustomCommands.get(guild.getId()).put(commandName, value);
+            getCommands(guild).put(commandName, value);
         } catch (SQLException e) {
             e.printStackTrace();
             getBot().getStacktraceHandler().sendStacktrace(e, "guildID:" + guild.getId(), "commandName:" + commandName, "commandValue:" + value);
@@ -134,7 +139,7 @@ public class CustomCommandsPlugin extends LegendaryBotPlugin {
      * @param commandName The command name (The trigger)
      */
     public void removeCommand(Guild guild, String commandName) {
-        if (guildCustomCommands.get(guild.getId()).containsKey(commandName)) {
+        if (getCommands(guild).containsKey(commandName)) {
             try {
                 Connection conn = getBot().getDatabase().getConnection();
                 PreparedStatement statement = conn.prepareStatement("DELETE FROM guild_commands WHERE guild_id=? AND command_name=?");
@@ -142,7 +147,7 @@ public class CustomCommandsPlugin extends LegendaryBotPlugin {
                 statement.setString(2, commandName);
                 int result = statement.executeUpdate();
                 if (result == 1) {
-                    guildCustomCommands.get(guild.getId()).remove(commandName);
+                    getCommands(guild).remove(commandName);
                 }
                 statement.close();
                 conn.close();
@@ -159,7 +164,7 @@ public class CustomCommandsPlugin extends LegendaryBotPlugin {
      */
     public void joinGuildEvent(Guild guild) {
         //TODO load current commands if it's a rejoin
-        guildCustomCommands.put(guild.getId(), new HashMap<>());
+        getBot().getGuildRegistry().getEntry(guild).setState(STATE_KEY, new ConcurrentHashMap<String, String>());
     }
 
     /**
@@ -168,6 +173,15 @@ public class CustomCommandsPlugin extends LegendaryBotPlugin {
      * @return A Map containing the Trigger and the value of each custom commands.
      */
     public Map<String,String> getServerCommands(Guild guild) {
-        return Collections.unmodifiableMap(guildCustomCommands.get(guild.getId()));
+        return Collections.unmodifiableMap(getCommands(guild));
+    }
+
+    /**
+     * Retrieve the modifiable custom commands of the Guild, held in its {@link com.greatmancode.legendarybot.api.server.GuildEntry}.
+     * @param guild The Guild to retrieve the custom commands from.
+     * @return A Map containing the Trigger and the value of each custom commands.
+     */
+    private Map<String, String> getCommands(Guild guild) {
+        return getBot().getGuildRegistry().getEntry(guild).getState(STATE_KEY, ConcurrentHashMap::new);
     }
 }
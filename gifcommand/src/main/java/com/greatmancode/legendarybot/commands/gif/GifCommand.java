@@ -24,8 +24,10 @@
 
 package com.greatmancode.legendarybot.commands.gif;
 
+import com.greatmancode.legendarybot.api.commands.CommandCost;
 import com.greatmancode.legendarybot.api.commands.PublicCommand;
 import com.greatmancode.legendarybot.api.plugin.LegendaryBotPlugin;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
 import net.dv8tion.jda.core.entities.Guild;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
 import okhttp3.*;
@@ -46,7 +48,7 @@ public class GifCommand extends LegendaryBotPlugin implements PublicCommand {
     /**
      * The HTTP Client to do web requests
      */
-    private OkHttpClient client = new OkHttpClient();
+    private OkHttpClient client = getBot().getHttpClients().get(HttpClientRegistry.DEFAULT);
 
     /**
      * The config file containing the api key.
@@ -101,6 +103,11 @@ public class GifCommand extends LegendaryBotPlugin implements PublicCommand {
         return 99;
     }
 
+    @Override
+    public CommandCost cost() {
+        return CommandCost.MEDIUM;
+    }
+
     @Override
     public String help(Guild guild) {
         return getBot().getTranslateManager().translate(guild,"command.gif.longhelp");
@@ -23,17 +23,19 @@
  */
 package com.greatmancode.legendarybot.commands.ilvl;
 
+import com.greatmancode.legendarybot.api.commands.AsyncCommand;
+import com.greatmancode.legendarybot.api.commands.CommandCost;
 import com.greatmancode.legendarybot.api.commands.PublicCommand;
 import com.greatmancode.legendarybot.api.plugin.LegendaryBotPlugin;
-import com.greatmancode.legendarybot.api.utils.BattleNetAPIInterceptor;
+import com.greatmancode.legendarybot.api.utils.BattleNetClient;
 import com.greatmancode.legendarybot.api.utils.HeroClass;
 import com.greatmancode.legendarybot.api.utils.HeroRace;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
 import com.greatmancode.legendarybot.api.utils.WoWUtils;
 import com.greatmancode.legendarybot.plugins.wowlink.utils.WowCommand;
 import net.dv8tion.jda.core.EmbedBuilder;
 import net.dv8tion.jda.core.entities.Guild;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
-import okhttp3.ConnectionPool;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -43,31 +45,27 @@ import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import org.pf4j.PluginWrapper;
 
-import java.io.IOException;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 /**
  * The !lookup command
  */
-public class IlvlCommand extends LegendaryBotPlugin implements WowCommand, PublicCommand {
+public class IlvlCommand extends LegendaryBotPlugin implements WowCommand, PublicCommand, AsyncCommand {
 
 
     /**
      * The OKHttp client
      */
-    private final OkHttpClient client = new OkHttpClient.Builder()
-            .build();
+    private final OkHttpClient client = getBot().getHttpClients().get(HttpClientRegistry.RAIDERIO);
 
     public static final String SETTING_PRIVATE_LOOKUP = "lookupCommandPrivate";
 
-    OkHttpClient clientBattleNet = new OkHttpClient.Builder()
-            .addInterceptor(new BattleNetAPIInterceptor(getBot()))
-            .connectionPool(new ConnectionPool(300, 1, TimeUnit.SECONDS))
-            .build();
-
     public IlvlCommand(PluginWrapper wrapper) {
         super(wrapper);
     }
@@ -92,7 +90,8 @@ public class IlvlCommand extends LegendaryBotPlugin implements WowCommand, Publi
         log.info("command !ilvl unloaded");
     }
 
-    public void execute(MessageReceivedEvent event, String[] args) {
+    @Override
+    public CompletableFuture<Void> executeAsync(MessageReceivedEvent event, String[] args, Executor executor) {
         String serverName = null;
         String region = null;
         try {
@@ -129,11 +128,13 @@ public class IlvlCommand extends LegendaryBotPlugin implements WowCommand, Publi
             String realmData = WoWUtils.getRealmInformation(getBot(),region,serverName);
             if (realmData == null) {
                 event.getChannel().sendMessage("Realm not found! Did you make a typo?").queue();
-                return;
+                return CompletableFuture.completedFuture(null);
             }
             JSONParser parser = new JSONParser();
             JSONObject realmInformation = (JSONObject) parser.parse(realmData);
             String serverSlug = (String) realmInformation.get("slug");
+            String lookupRegion = region;
+            String lookupServerName = serverName;
 
             HttpUrl url = new HttpUrl.Builder().scheme("https")
                     .host("raider.io")
@@ -144,222 +145,230 @@ public class IlvlCommand extends LegendaryBotPlugin implements WowCommand, Publi
                     .addQueryParameter("fields", "gear,raid_progression,mythic_plus_scores,previous_mythic_plus_scores,mythic_plus_best_runs")
                     .build();
             Request request = new Request.Builder().url(url).build();
-            String result = client.newCall(request).execute().body().string();
-            if (result != null) {
-                JSONObject jsonObject = (JSONObject) parser.parse(result);
+            //Both calls run at the same time. The Battle.net profile holds the achievements for the raider.io embed,
+            //and everything the embed needs when raider.io doesn't know the character. The embed is built on the command workers, not the HTTP threads.
+            CompletableFuture<JSONObject> raiderIo = BattleNetClient.getJson(client, request);
+            CompletableFuture<JSONObject> battleNet = getBot().getHttpClients().getBattleNet().getCharacter(region, serverSlug, args[0], "progression", "items", "achievements");
+            return raiderIo.thenAcceptBothAsync(battleNet, (jsonObject, battleNetObject) -> {
                 if (!jsonObject.containsKey("error")) {
+                    sendRaiderIoLookup(event, lookupRegion, serverSlug, jsonObject, battleNetObject);
+                } else if (battleNetObject.containsKey("status")) {
+                    //We got an error from raider.io, maybe he was never added to the site. And Battle.net doesn't know him either.
+                    event.getChannel().sendMessage("Character not found. Did you make an error?").queue();
+                } else {
+                    sendBattleNetLookup(event, lookupRegion, serverSlug, jsonObject, battleNetObject);
+                }
+            }, executor).exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                cause.printStackTrace();
+                getBot().getStacktraceHandler().sendStacktrace(cause, "serverName:" + lookupServerName);
+                event.getChannel().sendMessage(getBot().getTranslateManager().translate(event.getGuild(), "error.occurred.try.again.later")).queue();
+                return null;
+            });
+        } catch (ParseException e) {
+            e.printStackTrace();
+            getBot().getStacktraceHandler().sendStacktrace(e, "serverName:" + serverName);
+            event.getChannel().sendMessage(getBot().getTranslateManager().translate(event.getGuild(), "error.occurred.try.again.later")).queue();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
 
-                    EmbedBuilder eb = new EmbedBuilder();
-                    if (jsonObject.get("name").equals("Pepyte") && jsonObject.get("realm").equals("Arthas")) {
-                        eb.setThumbnail("https://lumiere-a.akamaihd.net/v1/images/b5e11dc889c5696799a6bd3ec5d819c1f7dfe8b4.jpeg");
-                    } else if (jsonObject.get("name").equals("Xdntgivitoya") && jsonObject.get("realm").equals("Arthas")) {
-                        eb.setThumbnail("https://cdn.discordapp.com/attachments/239729214004133889/389452254823841792/20171210_112359.jpg");
-                    } else {
-                        eb.setThumbnail(jsonObject.get("thumbnail_url").toString());
-                    }
-
-                    String className = jsonObject.get("class").toString().toLowerCase();
-                    eb.setColor(WoWUtils.getClassColor(className));
-                    
-                    StringBuilder titleBuilder = new StringBuilder();
-                    titleBuilder.append(jsonObject.get("name"));
-                    titleBuilder.append(" ");
-                    titleBuilder.append(jsonObject.get("realm"));
-                    titleBuilder.append(" - ");
-                    titleBuilder.append(((String) jsonObject.get("region")).toUpperCase());
-                    titleBuilder.append(" | ");
-                    titleBuilder.append(jsonObject.get("race"));
-                    titleBuilder.append(" ");
-                    titleBuilder.append(jsonObject.get("active_spec_name"));
-                    titleBuilder.append(" ");
-                    titleBuilder.append(jsonObject.get("class"));
-                    String wowLink = null;
-                    if (((String) jsonObject.get("region")).equalsIgnoreCase("us")) {
-                        wowLink = "https://worldofwarcraft.com/en-us/character/" + serverSlug + "/" + jsonObject.get("name");
-                    } else {
-                        wowLink = "https://worldofwarcraft.com/en-gb/character/" + serverSlug + "/" + jsonObject.get("name");
-                    }
-                    eb.setTitle(titleBuilder.toString(), wowLink);
-
-                    StringBuilder progressionBuilder = new StringBuilder();
-                    JSONObject raidProgression = (JSONObject) jsonObject.get("raid_progression");
-                    JSONObject emeraldNightmare = (JSONObject) raidProgression.get("the-emerald-nightmare");
-                    JSONObject trialOfValor = (JSONObject) raidProgression.get("trial-of-valor");
-                    JSONObject theNighthold = (JSONObject) raidProgression.get("the-nighthold");
-                    JSONObject tombOfSargeras = (JSONObject) raidProgression.get("tomb-of-sargeras");
-                    JSONObject antorus = (JSONObject) raidProgression.get("antorus-the-burning-throne");
-                    progressionBuilder.append("**EN**: ");
-                    progressionBuilder.append(emeraldNightmare.get("summary"));
-                    progressionBuilder.append(" - ");
-                    progressionBuilder.append("**ToV**:");
-                    progressionBuilder.append(trialOfValor.get("summary"));
-                    progressionBuilder.append(" - ");
-                    progressionBuilder.append("**NH**: ");
-                    progressionBuilder.append(theNighthold.get("summary"));
-                    progressionBuilder.append(" - ");
-                    progressionBuilder.append("**ToS**: ");
-                    progressionBuilder.append(tombOfSargeras.get("summary"));
-                    progressionBuilder.append("\n");
-                    progressionBuilder.append("**ABT**: ");
-                    progressionBuilder.append(antorus.get("summary"));
-                    eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"progression"), progressionBuilder.toString(), false);
-
-
-                    //We fetch the Battle.net achivement record
-                    HttpUrl battleneturl = new HttpUrl.Builder().scheme("https")
-                            .host(region + ".api.battle.net")
-                            .addPathSegments("wow/character/"+serverSlug+"/" +args[0])
-                            .addQueryParameter("fields", "achievements")
-                            .build();
-                    Request battlenetRequest = new Request.Builder().url(battleneturl).build();
-                    String battlenetResult = clientBattleNet.newCall(battlenetRequest).execute().body().string();
-                    String apAmount = getAP(event.getGuild(), battlenetResult);
-
-                    JSONObject gear = (JSONObject) jsonObject.get("gear");
-                    eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"ilvl"), gear.get("item_level_equipped") + "/" + gear.get("item_level_total"), true);
-
-                    if (apAmount != null) {
-                        eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"artifact.power"), gear.get("artifact_traits").toString() + " / " + apAmount + " " + getBot().getTranslateManager().translate(event.getGuild(),"ap.gathered"), true);
-                    } else {
-                        eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"artifact.power"), gear.get("artifact_traits").toString(), true);
-                    }
-
-
+    /**
+     * Send the lookup embed built from the raider.io profile
+     * @param event The event of the command
+     * @param region The region of the character
+     * @param serverSlug The realm slug of the character
+     * @param jsonObject The raider.io profile
+     * @param battleNetObject The Battle.net profile, holding the achievements
+     */
+    private void sendRaiderIoLookup(MessageReceivedEvent event, String region, String serverSlug, JSONObject jsonObject, JSONObject battleNetObject) {
+        EmbedBuilder eb = new EmbedBuilder();
+        if (jsonObject.get("name").equals("Pepyte") && jsonObject.get("realm").equals("Arthas")) {
+            eb.setThumbnail("https://lumiere-a.akamaihd.net/v1/images/b5e11dc889c5696799a6bd3ec5d819c1f7dfe8b4.jpeg");
+        } else if (jsonObject.get("name").equals("Xdntgivitoya") && jsonObject.get("realm").equals("Arthas")) {
+            eb.setThumbnail("https://cdn.discordapp.com/attachments/239729214004133889/389452254823841792/20171210_112359.jpg");
+        } else {
+            eb.setThumbnail(jsonObject.get("thumbnail_url").toString());
+        }
 
+        String className = jsonObject.get("class").toString().toLowerCase();
+        eb.setColor(WoWUtils.getClassColor(className));
+        
+        StringBuilder titleBuilder = new StringBuilder();
+        titleBuilder.append(jsonObject.get("name"));
+        titleBuilder.append(" ");
+        titleBuilder.append(jsonObject.get("realm"));
+        titleBuilder.append(" - ");
+        titleBuilder.append(((String) jsonObject.get("region")).toUpperCase());
+        titleBuilder.append(" | ");
+        titleBuilder.append(jsonObject.get("race"));
+        titleBuilder.append(" ");
+        titleBuilder.append(jsonObject.get("active_spec_name"));
+        titleBuilder.append(" ");
+        titleBuilder.append(jsonObject.get("class"));
+        String wowLink = null;
+        if (((String) jsonObject.get("region")).equalsIgnoreCase("us")) {
+            wowLink = "https://worldofwarcraft.com/en-us/character/" + serverSlug + "/" + jsonObject.get("name");
+        } else {
+            wowLink = "https://worldofwarcraft.com/en-gb/character/" + serverSlug + "/" + jsonObject.get("name");
+        }
+        eb.setTitle(titleBuilder.toString(), wowLink);
+
+        StringBuilder progressionBuilder = new StringBuilder();
+        JSONObject raidProgression = (JSONObject) jsonObject.get("raid_progression");
+        JSONObject emeraldNightmare = (JSONObject) raidProgression.get("the-emerald-nightmare");
+        JSONObject trialOfValor = (JSONObject) raidProgression.get("trial-of-valor");
+        JSONObject theNighthold = (JSONObject) raidProgression.get("the-nighthold");
+        JSONObject tombOfSargeras = (JSONObject) raidProgression.get("tomb-of-sargeras");
+        JSONObject antorus = (JSONObject) raidProgression.get("antorus-the-burning-throne");
+        progressionBuilder.append("**EN**: ");
+        progressionBuilder.append(emeraldNightmare.get("summary"));
+        progressionBuilder.append(" - ");
+        progressionBuilder.append("**ToV**:");
+        progressionBuilder.append(trialOfValor.get("summary"));
+        progressionBuilder.append(" - ");
+        progressionBuilder.append("**NH**: ");
+        progressionBuilder.append(theNighthold.get("summary"));
+        progressionBuilder.append(" - ");
+        progressionBuilder.append("**ToS**: ");
+        progressionBuilder.append(tombOfSargeras.get("summary"));
+        progressionBuilder.append("\n");
+        progressionBuilder.append("**ABT**: ");
+        progressionBuilder.append(antorus.get("summary"));
+        eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"progression"), progressionBuilder.toString(), false);
+
+
+        String apAmount = getAP(event.getGuild(), battleNetObject);
+
+        JSONObject gear = (JSONObject) jsonObject.get("gear");
+        eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"ilvl"), gear.get("item_level_equipped") + "/" + gear.get("item_level_total"), true);
+
+        if (apAmount != null) {
+            eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"artifact.power"), gear.get("artifact_traits").toString() + " / " + apAmount + " " + getBot().getTranslateManager().translate(event.getGuild(),"ap.gathered"), true);
+        } else {
+            eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"artifact.power"), gear.get("artifact_traits").toString(), true);
+        }
 
-                    JSONObject mplusRank = (JSONObject) jsonObject.get("mythic_plus_scores");
-                    eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"mythicplus.score"), mplusRank.get("all").toString(), true);
-                    JSONObject lastMplusRank = (JSONObject) jsonObject.get("previous_mythic_plus_scores");
-                    eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"last.season.mythicplus.score"), lastMplusRank.get("all").toString(), true);
-
-
-                    StringBuilder runsBuilder = new StringBuilder();
-                    JSONArray bestRuns = (JSONArray) jsonObject.get("mythic_plus_best_runs");
-                    for (Object runObject : bestRuns) {
-                        JSONObject run = (JSONObject) runObject;
-                        runsBuilder.append("[");
-                        runsBuilder.append(run.get("dungeon"));
-                        runsBuilder.append(" **+");
-                        runsBuilder.append(run.get("mythic_level"));
-                        runsBuilder.append("**](");
-                        runsBuilder.append(run.get("url"));
-                        runsBuilder.append(")\n");
-                        long time = (long) run.get("clear_time_ms");
-                        long hours = TimeUnit.MILLISECONDS.toHours(time);
-                        long minutes = TimeUnit.MILLISECONDS.toMinutes(time);
-                        long seconds = TimeUnit.MILLISECONDS.toSeconds(time) - TimeUnit.MINUTES.toSeconds(TimeUnit.MILLISECONDS.toMinutes(time));
-                        runsBuilder.append("    ");
-                        if (hours >= 1) {
-                            runsBuilder.append(getBot().getTranslateManager().translate(event.getGuild(), "hour.minutes.seconds", hours + "", minutes + "", seconds + ""));
-                        } else {
-                            runsBuilder.append(getBot().getTranslateManager().translate(event.getGuild(), "minutes.seconds", minutes + "", seconds + ""));
-                        }
-                        runsBuilder.append(" | ");
-                        runsBuilder.append(run.get("num_keystone_upgrades").toString() + " ");
-                        runsBuilder.append(getBot().getTranslateManager().translate(event.getGuild(), "mythicplus.chests"));
-                        runsBuilder.append("\n\n");
-                    }
-                    eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"best.mythicplus.runs"), runsBuilder.toString(),    true);
-                    long m5 = getM5(battlenetResult);
-                    long m10 = getM10(battlenetResult);
-                    long m15 = getM15(battlenetResult);
-                    StringBuilder completedBuilder = new StringBuilder();
-                    completedBuilder.append("**M+5**: " + m5 + "\n");
-                    completedBuilder.append("**M+10**: " + m10 + "\n");
-                    completedBuilder.append("**M+15**: " + m15 + "\n");
-                    eb.addField(getBot().getTranslateManager().translate(event.getGuild(), "mythicplus.completed"), completedBuilder.toString(), true);
-                    eb.addField("WoWProgress", "[Click Here](https://www.wowprogress.com/character/"+region.toLowerCase()+"/"+serverSlug+"/"+jsonObject.get("name") + ")", true);
-                    eb.addField("Raider.IO", "[Click Here](https://raider.io/characters/"+region.toLowerCase()+"/"+serverSlug+"/"+jsonObject.get("name") + ")", true);
-                    eb.addField("WarcraftLogs","[Click Here](https://www.warcraftlogs.com/character/"+region.toLowerCase()+"/"+serverSlug+"/"+jsonObject.get("name") + ")", true);
-                    eb.setFooter(getBot().getTranslateManager().translate(event.getGuild(),"information.taken.raider.io"),null);
-
-                    if (getBot().getGuildSettings(event.getGuild()).getSetting(SETTING_PRIVATE_LOOKUP) != null) {
-                        event.getAuthor().openPrivateChannel().complete().sendMessage(eb.build()).queue();
-                    } else {
-                        event.getChannel().sendMessage(eb.build()).queue();
-                    }
-                } else {
 
-                    //We got an error from raider.io, maybe he was never added to the site. Let's try through battle.net
-                    HttpUrl battleneturl = new HttpUrl.Builder().scheme("https")
-                            .host(region + ".api.battle.net")
-                            .addPathSegments("wow/character/"+serverSlug+"/" +args[0])
-                            .addQueryParameter("fields", "progression,items,achievements")
-                            .build();
-                    Request battlenetRequest = new Request.Builder().url(battleneturl).build();
-                    String battlenetResult = clientBattleNet.newCall(battlenetRequest).execute().body().string();
-
-                    JSONObject battleNetObject = (JSONObject) parser.parse(battlenetResult);
-                    if (battleNetObject.containsKey("status")) {
-                        //Error
-                        event.getChannel().sendMessage("Character not found. Did you make an error?").queue();
-                        return;
 
-                    }
 
-                    StringBuilder titleBuilder = new StringBuilder();
-                    titleBuilder.append(battleNetObject.get("name"));
-                    titleBuilder.append(" ");
-                    titleBuilder.append(battleNetObject.get("realm"));
-                    titleBuilder.append(" - ");
-                    titleBuilder.append(region.toUpperCase());
-                    titleBuilder.append(" | ");
-                    titleBuilder.append(HeroRace.values()[((Long) battleNetObject.get("race")).intValue()]);
-                    titleBuilder.append(" ");
-                    titleBuilder.append(HeroClass.values()[((Long) battleNetObject.get("class")).intValue()]);
-                    titleBuilder.append(" ");
-                    //event.getChannel().sendMessage(jsonObject.get("message").toString()).queue();
-
-                    String wowLink = null;
-
-                    if (region.equalsIgnoreCase("us")) {
-                        wowLink = "https://worldofwarcraft.com/en-us/character/" + serverSlug + "/" + jsonObject.get("name");
-                    } else {
-                        wowLink = "https://worldofwarcraft.com/en-gb/character/" + serverSlug + "/" + jsonObject.get("name");
-                    }
+        JSONObject mplusRank = (JSONObject) jsonObject.get("mythic_plus_scores");
+        eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"mythicplus.score"), mplusRank.get("all").toString(), true);
+        JSONObject lastMplusRank = (JSONObject) jsonObject.get("previous_mythic_plus_scores");
+        eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"last.season.mythicplus.score"), lastMplusRank.get("all").toString(), true);
+
+
+        StringBuilder runsBuilder = new StringBuilder();
+        JSONArray bestRuns = (JSONArray) jsonObject.get("mythic_plus_best_runs");
+        for (Object runObject : bestRuns) {
+            JSONObject run = (JSONObject) runObject;
+            runsBuilder.append("[");
+            runsBuilder.append(run.get("dungeon"));
+            runsBuilder.append(" **+");
+            runsBuilder.append(run.get("mythic_level"));
+            runsBuilder.append("**](");
+            runsBuilder.append(run.get("url"));
+            runsBuilder.append(")\n");
+            long time = (long) run.get("clear_time_ms");
+            long hours = TimeUnit.MILLISECONDS.toHours(time);
+            long minutes = TimeUnit.MILLISECONDS.toMinutes(time);
+            long seconds = TimeUnit.MILLISECONDS.toSeconds(time) - TimeUnit.MINUTES.toSeconds(TimeUnit.MILLISECONDS.toMinutes(time));
+            runsBuilder.append("    ");
+            if (hours >= 1) {
+                runsBuilder.append(getBot().getTranslateManager().translate(event.getGuild(), "hour.minutes.seconds", hours + "", minutes + "", seconds + ""));
+            } else {
+                runsBuilder.append(getBot().getTranslateManager().translate(event.getGuild(), "minutes.seconds", minutes + "", seconds + ""));
+            }
+            runsBuilder.append(" | ");
+            runsBuilder.append(run.get("num_keystone_upgrades").toString() + " ");
+            runsBuilder.append(getBot().getTranslateManager().translate(event.getGuild(), "mythicplus.chests"));
+            runsBuilder.append("\n\n");
+        }
+        eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"best.mythicplus.runs"), runsBuilder.toString(),    true);
+        long m5 = getM5(battleNetObject);
+        long m10 = getM10(battleNetObject);
+        long m15 = getM15(battleNetObject);
+        StringBuilder completedBuilder = new StringBuilder();
+        completedBuilder.append("**M+5**: " + m5 + "\n");
+        completedBuilder.append("**M+10**: " + m10 + "\n");
+        completedBuilder.append("**M+15**: " + m15 + "\n");
+        eb.addField(getBot().getTranslateManager().translate(event.getGuild(), "mythicplus.completed"), completedBuilder.toString(), true);
+        eb.addField("WoWProgress", "[Click Here](https://www.wowprogress.com/character/"+region.toLowerCase()+"/"+serverSlug+"/"+jsonObject.get("name") + ")", true);
+        eb.addField("Raider.IO", "[Click Here](https://raider.io/characters/"+region.toLowerCase()+"/"+serverSlug+"/"+jsonObject.get("name") + ")", true);
+        eb.addField("WarcraftLogs","[Click Here](https://www.warcraftlogs.com/character/"+region.toLowerCase()+"/"+serverSlug+"/"+jsonObject.get("name") + ")", true);
+        eb.setFooter(getBot().getTranslateManager().translate(event.getGuild(),"information.taken.raider.io"),null);
+
+        sendLookup(event, eb);
+    }
 
-                    EmbedBuilder eb = new EmbedBuilder();
-                    eb.setTitle(titleBuilder.toString(), wowLink);
-                    eb.setThumbnail("http://render-" + region.toLowerCase() + ".worldofwarcraft.com/character/" + battleNetObject.get("thumbnail"));
-                    String apAmount = getAP(event.getGuild(), battlenetResult);
-                    JSONObject gear = (JSONObject) battleNetObject.get("items");
-                    eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"ilvl"), gear.get("averageItemLevelEquipped") + "/" + gear.get("averageItemLevel"), true);
+    /**
+     * Send the lookup embed built from the Battle.net profile, when raider.io doesn't know the character
+     * @param event The event of the command
+     * @param region The region of the character
+     * @param serverSlug The realm slug of the character
+     * @param jsonObject The raider.io error
+     * @param battleNetObject The Battle.net profile
+     */
+    private void sendBattleNetLookup(MessageReceivedEvent event, String region, String serverSlug, JSONObject jsonObject, JSONObject battleNetObject) {
+        StringBuilder titleBuilder = new StringBuilder();
+        titleBuilder.append(battleNetObject.get("name"));
+        titleBuilder.append(" ");
+        titleBuilder.append(battleNetObject.get("realm"));
+        titleBuilder.append(" - ");
+        titleBuilder.append(region.toUpperCase());
+        titleBuilder.append(" | ");
+        titleBuilder.append(HeroRace.values()[((Long) battleNetObject.get("race")).intValue()]);
+        titleBuilder.append(" ");
+        titleBuilder.append(HeroClass.values()[((Long) battleNetObject.get("class")).intValue()]);
+        titleBuilder.append(" ");
+        //event.getChannel().sendMessage(jsonObject.get("message").toString()).queue();
+
+        String wowLink = null;
+
+        if (region.equalsIgnoreCase("us")) {
+            wowLink = "https://worldofwarcraft.com/en-us/character/" + serverSlug + "/" + jsonObject.get("name");
+        } else {
+            wowLink = "https://worldofwarcraft.com/en-gb/character/" + serverSlug + "/" + jsonObject.get("name");
+        }
 
-                    if (apAmount != null) {
-                        eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"artifact.power"), apAmount + " " + getBot().getTranslateManager().translate(event.getGuild(),"ap.gathered"), true);
-                    }
-                    long m5 = getM5(battlenetResult);
-                    long m10 = getM10(battlenetResult);
-                    long m15 = getM15(battlenetResult);
-                    StringBuilder completedBuilder = new StringBuilder();
-                    completedBuilder.append("**M+5**: " + m5 + "\n");
-                    completedBuilder.append("**M+10**: " + m10 + "\n");
-                    completedBuilder.append("**M+15**: " + m15 + "\n");
-                    eb.addField(getBot().getTranslateManager().translate(event.getGuild(), "mythicplus.completed"), completedBuilder.toString(), false);
-                    eb.addField("WoWProgress", "[Click Here](https://www.wowprogress.com/character/"+region.toLowerCase()+"/"+serverSlug+"/"+battleNetObject.get("name") + ")", true);
-                    eb.addField("Raider.IO", "[Click Here](https://raider.io/characters/"+region.toLowerCase()+"/"+serverSlug+"/"+battleNetObject.get("name") + ")", true);
-                    eb.addField("WarcraftLogs","[Click Here](https://www.warcraftlogs.com/character/"+region.toLowerCase()+"/"+serverSlug+"/"+battleNetObject.get("name") + ")", true);
-                    eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"information"), getBot().getTranslateManager().translate(event.getGuild(),"command.lookup.charnotfound"), false);
-                    eb.setFooter(getBot().getTranslateManager().translate(event.getGuild(),"information.taken.battle.net"),null);
-
-                    if (getBot().getGuildSettings(event.getGuild()).getSetting(SETTING_PRIVATE_LOOKUP) != null) {
-                        event.getAuthor().openPrivateChannel().complete().sendMessage(eb.build()).queue();
-                    } else {
-                        event.getChannel().sendMessage(eb.build()).queue();
-                    }
+        EmbedBuilder eb = new EmbedBuilder();
+        eb.setTitle(titleBuilder.toString(), wowLink);
+        eb.setThumbnail("http://render-" + region.toLowerCase() + ".worldofwarcraft.com/character/" + battleNetObject.get("thumbnail"));
+        String apAmount = getAP(event.getGuild(), battleNetObject);
+        JSONObject gear = (JSONObject) battleNetObject.get("items");
+        eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"ilvl"), gear.get("averageItemLevelEquipped") + "/" + gear.get("averageItemLevel"), true);
 
-                    return;
-                }
-            }
-        } catch (IOException e) {
-            getBot().getStacktraceHandler().sendStacktrace(e, "serverName:" + serverName);
-            event.getChannel().sendMessage(getBot().getTranslateManager().translate(event.getGuild(), "error.occurred.try.again.later")).queue();
-        } catch (ParseException e) {
-            e.printStackTrace();
-            getBot().getStacktraceHandler().sendStacktrace(e, "serverName:" + serverName);
-            event.getChannel().sendMessage(getBot().getTranslateManager().translate(event.getGuild(), "error.occurred.try.again.later")).queue();
+        if (apAmount != null) {
+            eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"artifact.power"), apAmount + " " + getBot().getTranslateManager().translate(event.getGuild(),"ap.gathered"), true);
         }
+        long m5 = getM5(battleNetObject);
+        long m10 = getM10(battleNetObject);
+        long m15 = getM15(battleNetObject);
+        StringBuilder completedBuilder = new StringBuilder();
+        completedBuilder.append("**M+5**: " + m5 + "\n");
+        completedBuilder.append("**M+10**: " + m10 + "\n");
+        completedBuilder.append("**M+15**: " + m15 + "\n");
+        eb.addField(getBot().getTranslateManager().translate(event.getGuild(), "mythicplus.completed"), completedBuilder.toString(), false);
+        eb.addField("WoWProgress", "[Click Here](https://www.wowprogress.com/character/"+region.toLowerCase()+"/"+serverSlug+"/"+battleNetObject.get("name") + ")", true);
+        eb.addField("Raider.IO", "[Click Here](https://raider.io/characters/"+region.toLowerCase()+"/"+serverSlug+"/"+battleNetObject.get("name") + ")", true);
+        eb.addField("WarcraftLogs","[Click Here](https://www.warcraftlogs.com/character/"+region.toLowerCase()+"/"+serverSlug+"/"+battleNetObject.get("name") + ")", true);
+        eb.addField(getBot().getTranslateManager().translate(event.getGuild(),"information"), getBot().getTranslateManager().translate(event.getGuild(),"command.lookup.charnotfound"), false);
+        eb.setFooter(getBot().getTranslateManager().translate(event.getGuild(),"information.taken.battle.net"),null);
+
+        sendLookup(event, eb);
+    }
 
+    /**
+     * Send a lookup embed, in private if the guild asked for it
+     * @param event The event of the command
+     * @param eb The embed
+     */
+    private void sendLookup(MessageReceivedEvent event, EmbedBuilder eb) {
+        if (getBot().getGuildSettings(event.getGuild()).getSetting(SETTING_PRIVATE_LOOKUP) != null) {
+            event.getAuthor().openPrivateChannel().queue(channel -> channel.sendMessage(eb.build()).queue());
+        } else {
+            event.getChannel().sendMessage(eb.build()).queue();
+        }
     }
 
     public int minArgs() {
@@ -374,6 +383,11 @@ public class IlvlCommand extends LegendaryBotPlugin implements WowCommand, Publi
         return getBot().getTranslateManager().translate(guild,"command.lookup.longhelp");
     }
 
+    @Override
+    public CommandCost cost() {
+        return CommandCost.HEAVY;
+    }
+
     @Override
     public String shortDescription(Guild guild) {
         return getBot().getTranslateManager().translate(guild, "command.lookup.shorthelp");
@@ -404,11 +418,9 @@ public class IlvlCommand extends LegendaryBotPlugin implements WowCommand, Publi
         return hasDecimal ? (truncated / 10d) + " " +  suffix : (truncated / 10) + " " + suffix;
     }
 
-    public String getAP(Guild guild, String json) throws ParseException {
+    public String getAP(Guild guild, JSONObject battleNetCharacter) {
         long apAmount = -1;
-        if (json != null) {
-            JSONParser parser = new JSONParser();
-            JSONObject battleNetCharacter = (JSONObject) parser.parse(json);
+        if (battleNetCharacter != null && battleNetCharacter.containsKey("achievements")) {
             JSONObject achivements = (JSONObject) battleNetCharacter.get("achievements");
             JSONArray criteriaObject = (JSONArray) achivements.get("criteria");
             int criteriaNumber = -1;
@@ -430,11 +442,9 @@ public class IlvlCommand extends LegendaryBotPlugin implements WowCommand, Publi
 
     }
 
-    public long getM5(String json) throws ParseException {
+    public long getM5(JSONObject battleNetCharacter) {
         long m5 = 0;
-        if (json != null) {
-            JSONParser parser = new JSONParser();
-            JSONObject battleNetCharacter = (JSONObject) parser.parse(json);
+        if (battleNetCharacter != null && battleNetCharacter.containsKey("achievements")) {
             JSONObject achivements = (JSONObject) battleNetCharacter.get("achievements");
             JSONArray criteriaObject = (JSONArray) achivements.get("criteria");
             int criteriaNumber = -1;
@@ -454,11 +464,9 @@ public class IlvlCommand extends LegendaryBotPlugin implements WowCommand, Publi
         return m5;
     }
 
-    public long getM10(String json) throws ParseException {
+    public long getM10(JSONObject battleNetCharacter) {
         long m10 = 0;
-        if (json != null) {
-            JSONParser parser = new JSONParser();
-            JSONObject battleNetCharacter = (JSONObject) parser.parse(json);
+        if (battleNetCharacter != null && battleNetCharacter.containsKey("achievements")) {
             JSONObject achivements = (JSONObject) battleNetCharacter.get("achievements");
             JSONArray criteriaObject = (JSONArray) achivements.get("criteria");
             int criteriaNumber = -1;
@@ -478,11 +486,9 @@ public class IlvlCommand extends LegendaryBotPlugin implements WowCommand, Publi
         return m10;
     }
 
-    public long getM15(String json) throws ParseException {
+    public long getM15(JSONObject battleNetCharacter) {
         long m15 = 0;
-        if (json != null) {
-            JSONParser parser = new JSONParser();
-            JSONObject battleNetCharacter = (JSONObject) parser.parse(json);
+        if (battleNetCharacter != null && battleNetCharacter.containsKey("achievements")) {
             JSONObject achivements = (JSONObject) battleNetCharacter.get("achievements");
             JSONArray criteriaObject = (JSONArray) achivements.get("criteria");
             int criteriaNumber = -1;
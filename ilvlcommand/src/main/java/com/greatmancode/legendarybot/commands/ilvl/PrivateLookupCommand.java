@@ -2,6 +2,7 @@ package com.greatmancode.legendarybot.commands.ilvl;
 
 import com.greatmancode.legendarybot.api.LegendaryBot;
 import com.greatmancode.legendarybot.api.commands.AdminCommand;
+import com.greatmancode.legendarybot.api.commands.CommandCost;
 import net.dv8tion.jda.core.entities.Guild;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
 
@@ -35,6 +36,11 @@ public class PrivateLookupCommand extends AdminCommand {
         return 0;
     }
 
+    @Override
+    public CommandCost cost() {
+        return CommandCost.HEAVY;
+    }
+
     @Override
     public String help(Guild guild) {
         return bot.getTranslateManager().translate(guild, "command.privatelookup.help");
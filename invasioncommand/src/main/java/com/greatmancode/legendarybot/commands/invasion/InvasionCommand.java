@@ -23,10 +23,11 @@
  */
 package com.greatmancode.legendarybot.commands.invasion;
 
+import com.greatmancode.legendarybot.api.commands.CommandCost;
 import com.greatmancode.legendarybot.api.commands.PublicCommand;
 import com.greatmancode.legendarybot.api.commands.ZeroArgsCommand;
 import com.greatmancode.legendarybot.api.plugin.LegendaryBotPlugin;
-import com.greatmancode.legendarybot.api.utils.BattleNetAPIInterceptor;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
 import net.dv8tion.jda.core.MessageBuilder;
 import net.dv8tion.jda.core.entities.Guild;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
@@ -46,9 +47,7 @@ import java.io.IOException;
 
 public class InvasionCommand extends LegendaryBotPlugin implements PublicCommand, ZeroArgsCommand {
 
-    private final OkHttpClient client = new OkHttpClient.Builder()
-            .addInterceptor(new BattleNetAPIInterceptor(getBot()))
-            .build();
+    private final OkHttpClient client = getBot().getHttpClients().get(HttpClientRegistry.BATTLENET);
     //Start date of the Invasion
     private final DateTime startDateInvasion = new DateTime(2017,4,14,17,0, DateTimeZone.forID("America/Montreal"));
     private final DateTime startDateInvasionEu = new DateTime(2017,7,9,21,0, DateTimeZone.UTC);
@@ -113,6 +112,11 @@ public class InvasionCommand extends LegendaryBotPlugin implements PublicCommand
         }
     }
 
+    @Override
+    public CommandCost cost() {
+        return CommandCost.MEDIUM;
+    }
+
     @Override
     public String help(Guild guild) {
         return getBot().getTranslateManager().translate(guild, "command.invasion.help");
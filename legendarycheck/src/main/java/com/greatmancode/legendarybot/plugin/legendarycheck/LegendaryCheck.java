@@ -24,10 +24,10 @@
 package com.greatmancode.legendarybot.plugin.legendarycheck;
 
 import com.greatmancode.legendarybot.api.LegendaryBot;
-import com.greatmancode.legendarybot.api.utils.BattleNetAPIInterceptor;
+import com.greatmancode.legendarybot.api.utils.BattleNetQuotaManager;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
 import net.dv8tion.jda.core.entities.Guild;
 import net.dv8tion.jda.core.entities.TextChannel;
-import okhttp3.ConnectionPool;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -88,10 +88,7 @@ public class LegendaryCheck {
     public LegendaryCheck(LegendaryBot bot, Guild guild, LegendaryCheckPlugin plugin, int initialDelay) {
         this.bot = bot;
         final Runnable checkNews = () -> {
-            OkHttpClient client = new OkHttpClient.Builder()
-                    .addInterceptor(new BattleNetAPIInterceptor(bot))
-                    .connectionPool(new ConnectionPool(300, 1, TimeUnit.SECONDS))
-                    .build();
+            OkHttpClient client = bot.getHttpClients().get(HttpClientRegistry.BATTLENET);
             try {
                 String serverName = plugin.getBot().getGuildSettings(guild).getWowServerName();
                 String regionName = plugin.getBot().getGuildSettings(guild).getRegionName();
@@ -106,7 +103,7 @@ public class LegendaryCheck {
                         .addPathSegments("wow/guild/" + serverName + "/" + guildName)
                         .addQueryParameter("fields", "members")
                         .build();
-                Request webRequest = new Request.Builder().url(url).build();
+                Request webRequest = new Request.Builder().url(url).tag(BattleNetQuotaManager.Lane.BACKGROUND).build();
 
                 okhttp3.Response response = client.newCall(webRequest).execute();
                 String request = response.body().string();
@@ -136,7 +133,7 @@ public class LegendaryCheck {
                                 .addPathSegments("/wow/character/" + realm + "/" + name)
                                 .addQueryParameter("fields", "feed")
                                 .build();
-                        webRequest = new Request.Builder().url(url).build();
+                        webRequest = new Request.Builder().url(url).tag(BattleNetQuotaManager.Lane.BACKGROUND).build();
                         response = client.newCall(webRequest).execute();
                         String memberFeedRequest = response.body().string();
                         response.close();
@@ -193,6 +190,9 @@ public class LegendaryCheck {
                     e.printStackTrace();
                     bot.getStacktraceHandler().sendStacktrace(e, "guildId:" + guild.getId(), "region:" + regionName, "wowGuild:" + guildName, "serverName:" + serverName, "channelName:" + channelName);
                 }
+            } catch (BattleNetQuotaManager.QuotaExhaustedException e) {
+                //The next run checks the guild again.
+                log.warn("Skipped the Legendary check of guild " + guild.getName() + ":" + guild.getId() + ", " + e.getMessage());
             } catch (Throwable e) {
                 e.printStackTrace();
 
@@ -217,9 +217,7 @@ public class LegendaryCheck {
      * @return True if the item is a legendary. Else false.
      */
     public boolean isItemLegendary(String regionName, long itemID) {
-        OkHttpClient client = new OkHttpClient.Builder()
-                .addInterceptor(new BattleNetAPIInterceptor(bot))
-                .build();
+        OkHttpClient client = bot.getHttpClients().get(HttpClientRegistry.BATTLENET);
         try {
             Map<String, String> paramMap = new HashMap<>();
             paramMap.put("q", "id:" + itemID);
@@ -234,7 +232,7 @@ public class LegendaryCheck {
                             .host(regionName + ".api.battle.net")
                             .addPathSegments("/wow/item/" + itemID)
                             .build();
-                    Request webRequest = new Request.Builder().url(url).build();
+                    Request webRequest = new Request.Builder().url(url).tag(BattleNetQuotaManager.Lane.BACKGROUND).build();
                     okhttp3.Response responseBattleNet = client.newCall(webRequest).execute();
                     String itemRequest = responseBattleNet.body().string();
                     responseBattleNet.close();
@@ -280,9 +278,7 @@ public class LegendaryCheck {
      * @return The name of the item. Else null if not found.
      */
     public String getItemName(String regionName, long itemID) {
-        OkHttpClient client = new OkHttpClient.Builder()
-                .addInterceptor(new BattleNetAPIInterceptor(bot))
-                .build();
+        OkHttpClient client = bot.getHttpClients().get(HttpClientRegistry.BATTLENET);
         try {
             Map<String, String> paramMap = new HashMap<>();
             paramMap.put("q", "id:" + itemID);
@@ -297,7 +293,7 @@ public class LegendaryCheck {
                             .host(regionName + ".api.battle.net")
                             .addPathSegments("/wow/item/" + itemID)
                             .build();
-                    Request webRequest = new Request.Builder().url(url).build();
+                    Request webRequest = new Request.Builder().url(url).tag(BattleNetQuotaManager.Lane.BACKGROUND).build();
                     okhttp3.Response responseBattleNet = client.newCall(webRequest).execute();
                     String itemRequest = responseBattleNet.body().string();
                     responseBattleNet.close();
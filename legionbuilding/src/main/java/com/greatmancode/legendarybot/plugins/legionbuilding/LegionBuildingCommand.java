@@ -23,10 +23,14 @@
  */
 package com.greatmancode.legendarybot.plugins.legionbuilding;
 
+import com.greatmancode.legendarybot.api.commands.CacheableCommand;
+import com.greatmancode.legendarybot.api.commands.CommandCost;
 import com.greatmancode.legendarybot.api.commands.PublicCommand;
 import com.greatmancode.legendarybot.api.commands.ZeroArgsCommand;
 import com.greatmancode.legendarybot.api.plugin.LegendaryBotPlugin;
+import net.dv8tion.jda.core.MessageBuilder;
 import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.Message;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
@@ -39,17 +43,17 @@ import java.util.List;
 /**
  * The !legionbuilding command
  */
-public class LegionBuildingCommand extends LegendaryBotPlugin implements PublicCommand, ZeroArgsCommand {
+public class LegionBuildingCommand extends LegendaryBotPlugin implements PublicCommand, ZeroArgsCommand, CacheableCommand {
 
     public LegionBuildingCommand(PluginWrapper wrapper) {
         super(wrapper);
     }
 
     @Override
-    public void execute(MessageReceivedEvent event, String[] args) {
+    public Message render(MessageReceivedEvent event, String[] args) {
         if (getBot().getGuildSettings(event.getGuild()).getRegionName() == null) {
             event.getChannel().sendMessage(getBot().getTranslateManager().translate(event.getGuild(), "server.region.must.be.set")).queue();
-            return;
+            return null;
         }
         List<String> buildingStatus = new ArrayList<>();
         List<String> buildingStatusString = new ArrayList<>();
@@ -59,13 +63,13 @@ public class LegionBuildingCommand extends LegendaryBotPlugin implements PublicC
             document.getElementsByClass("imitation-heading heading-size-5").stream().skip(skip).forEach(element -> buildingStatusString.add(element.ownText()));
             document.getElementsByClass("tiw-bs-status-progress").stream().skip(skip).forEach(element ->
                     element.getElementsByTag("span").forEach( value -> buildingStatus.add(value.ownText())));
-            event.getChannel().sendMessage(getBot().getTranslateManager().translate(event.getGuild(),"command.legionbuilding.message",
+            return new MessageBuilder().append(getBot().getTranslateManager().translate(event.getGuild(),"command.legionbuilding.message",
                     getBot().getTranslateManager().translate(event.getGuild(),buildingStatusString.get(0).replaceAll(" ",".").toLowerCase()),
                     buildingStatus.get(0),
                     getBot().getTranslateManager().translate(event.getGuild(),buildingStatusString.get(1).replaceAll(" ",".").toLowerCase()),
                     buildingStatus.get(1),
                     getBot().getTranslateManager().translate(event.getGuild(),buildingStatusString.get(2).replaceAll(" ",".").toLowerCase()),
-                    buildingStatus.get(2))).queue();
+                    buildingStatus.get(2))).build();
         } catch (IOException e) {
             e.printStackTrace();
             getBot().getStacktraceHandler().sendStacktrace(e, "region:" + getBot().getGuildSettings(event.getGuild()).getRegionName(), "guildId:" + event.getGuild().getId());
@@ -73,7 +77,17 @@ public class LegionBuildingCommand extends LegendaryBotPlugin implements PublicC
         } catch (NullPointerException e) {
             event.getChannel().sendMessage(getBot().getTranslateManager().translate(event.getGuild(),"error.occurred.try.again.later")).queue();
         }
+        return null;
+    }
 
+    @Override
+    public long cacheDuration() {
+        return 5 * 60 * 1000;
+    }
+
+    @Override
+    public CommandCost cost() {
+        return CommandCost.MEDIUM;
     }
 
     @Override
@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.loadgen;
+
+import com.greatmancode.legendarybot.api.commands.CommandCost;
+import com.greatmancode.legendarybot.api.commands.PublicCommand;
+import com.greatmancode.legendarybot.api.commands.ZeroArgsCommand;
+import com.greatmancode.legendarybot.api.server.GuildSettings;
+import net.dv8tion.jda.core.EmbedBuilder;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+
+/**
+ * Stand-in of the !guildrank command. Does the same raider.io guild profile request and builds the same embed, against the stand-in raider.io server.
+ */
+public class GuildRankCommand implements ZeroArgsCommand, PublicCommand {
+
+    private final LoadBot bot;
+    private final OkHttpClient client;
+    private final HttpUrl raiderIo;
+
+    public GuildRankCommand(LoadBot bot, OkHttpClient client, String raiderIoUrl) {
+        this.bot = bot;
+        this.client = client;
+        this.raiderIo = HttpUrl.parse(raiderIoUrl);
+    }
+
+    @Override
+    public void execute(MessageReceivedEvent event, String[] args) {
+        GuildSettings settings = bot.getGuildSettings(event.getGuild());
+        HttpUrl url = raiderIo.newBuilder()
+                .addPathSegments("api/v1/guilds/profile")
+                .addQueryParameter("region", settings.getRegionName())
+                .addQueryParameter("realm", settings.getWowServerName())
+                .addQueryParameter("name", settings.getGuildName())
+                .addQueryParameter("fields", "raid_rankings")
+                .build();
+        try (Response response = client.newCall(new Request.Builder().url(url).build()).execute()) {
+            JSONObject object = (JSONObject) new JSONParser().parse(response.body().string());
+            JSONObject raidRankings = (JSONObject) object.get("raid_rankings");
+            EmbedBuilder eb = new EmbedBuilder();
+            eb.setTitle(settings.getGuildName() + "-" + object.get("realm") + " Raid Rankings");
+            for (Object raid : raidRankings.keySet()) {
+                JSONObject mythic = (JSONObject) ((JSONObject) raidRankings.get(raid)).get("mythic");
+                eb.addField(raid.toString(), "World: **" + mythic.get("world") + "**\nRegion: **" + mythic.get("region") + "**\nRealm: **" + mythic.get("realm") + "**", true);
+            }
+            bot.reply(eb.build());
+        } catch (IOException | ParseException e) {
+            bot.getStacktraceHandler().sendStacktrace(e, "wowguild:" + settings.getGuildName());
+        }
+    }
+
+    @Override
+    public CommandCost cost() {
+        return CommandCost.HEAVY;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.loadgen;
+
+import com.greatmancode.legendarybot.api.commands.CommandCost;
+import com.greatmancode.legendarybot.api.commands.PublicCommand;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.entity.NStringEntity;
+import org.apache.http.util.EntityUtils;
+import org.elasticsearch.client.Response;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * Stand-in of the !lookupitem command. Does the same Elasticsearch search through {@link LoadBot#getElasticSearch()}, which points to the stand-in Elasticsearch server.
+ */
+public class ItemLookupCommand implements PublicCommand {
+
+    private final LoadBot bot;
+
+    public ItemLookupCommand(LoadBot bot) {
+        this.bot = bot;
+    }
+
+    @Override
+    public void execute(MessageReceivedEvent event, String[] args) {
+        String query = String.join(" ", args);
+        try {
+            HttpEntity entity = new NStringEntity("{ \"query\": { \"match\" : { \"name\" : \""+query+"\" } } }", ContentType.APPLICATION_JSON);
+            Response response = bot.getElasticSearch().performRequest("POST", "/wow/item/_search", Collections.emptyMap(), entity);
+            JSONObject obj = (JSONObject) new JSONParser().parse(EntityUtils.toString(response.getEntity()));
+            JSONArray hit = (JSONArray) ((JSONObject)obj.get("hits")).get("hits");
+            bot.reply("http://www.wowhead.com/item=" + ((JSONObject) hit.get(0)).get("_id"));
+        } catch (IOException | ParseException e) {
+            bot.getStacktraceHandler().sendStacktrace(e, "query:" + query);
+        }
+    }
+
+    @Override
+    public int minArgs() {
+        return 1;
+    }
+
+    @Override
+    public int maxArgs() {
+        return 99;
+    }
+
+    @Override
+    public CommandCost cost() {
+        return CommandCost.MEDIUM;
+    }
+}
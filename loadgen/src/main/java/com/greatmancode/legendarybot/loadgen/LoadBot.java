@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.loadgen;
+
+import com.greatmancode.legendarybot.api.commands.CommandRateLimiter;
+import com.greatmancode.legendarybot.api.utils.StacktraceHandler;
+import com.greatmancode.legendarybot.benchmarks.BenchmarkBot;
+import net.dv8tion.jda.core.JDA;
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.RestClient;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The bot driven by the load generator. Spread over several stub shards, uses the stand-in Elasticsearch server and counts the replies
+ * and errors of the commands instead of sending them.
+ */
+public class LoadBot extends BenchmarkBot {
+
+    private final RestClient elasticSearch;
+    private final LongAdder replies = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final StacktraceHandler stacktraceHandler = (e, tags) -> errors.increment();
+
+    /**
+     * Build the bot. Must run from the project root for the languages to load.
+     * @param shards The stub shards
+     * @param workerThreads The amount of threads running commands.
+     * @param shardQueueDepth The maximum amount of commands waiting or running for a single shard.
+     * @param rateLimiter The admission control of the commands
+     * @param elasticSearch The stand-in Elasticsearch server
+     * @throws IOException If the languages could not be loaded
+     */
+    public LoadBot(List<JDA> shards, int workerThreads, int shardQueueDepth, CommandRateLimiter rateLimiter, StandInServer elasticSearch) throws IOException {
+        super(shards, workerThreads, shardQueueDepth, rateLimiter);
+        this.elasticSearch = RestClient.builder(new HttpHost("127.0.0.1", elasticSearch.getPort(), "http")).build();
+    }
+
+    /**
+     * Count a reply built by a command
+     * @param message The reply
+     */
+    public void reply(Object message) {
+        replies.increment();
+    }
+
+    /**
+     * Retrieve the amount of replies built by the commands
+     * @return The amount of replies
+     */
+    public long getReplies() {
+        return replies.sum();
+    }
+
+    /**
+     * Retrieve the amount of errors sent to the {@link StacktraceHandler}
+     * @return The amount of errors
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public RestClient getElasticSearch() {
+        return elasticSearch;
+    }
+
+    @Override
+    public StacktraceHandler getStacktraceHandler() {
+        return stacktraceHandler;
+    }
+
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        try {
+            elasticSearch.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.loadgen;
+
+import com.greatmancode.legendarybot.MessageListener;
+import com.greatmancode.legendarybot.api.commands.CommandHandler;
+import com.greatmancode.legendarybot.api.commands.CommandMetrics;
+import com.greatmancode.legendarybot.api.commands.CommandRateLimiter;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
+import com.greatmancode.legendarybot.benchmarks.Stubs;
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.User;
+import okhttp3.OkHttpClient;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays synthetic Discord traffic against the command pipeline, without Discord. Builds thousands of stub guilds and members,
+ * sends their messages to {@link MessageListener} at a fixed rate and reports the throughput, the latency percentiles and the heap usage.
+ *
+ * The upstream APIs are local stand-in servers. The WoW commands registered here do the same requests as !server, !guildrank and !lookupitem against them.
+ *
+ * Arguments are key=value pairs, see {@link #DEFAULTS}. Must run from the project root for the languages to load.
+ */
+public class LoadGenerator {
+
+    /**
+     * The default value of every argument
+     */
+    private static final String[][] DEFAULTS = {
+            {"guilds", "5000", "Amount of guilds"},
+            {"members", "50", "Amount of members talking in each guild"},
+            {"shards", "4", "Amount of shards, each one sending from its own thread"},
+            {"rate", "1000", "Messages per second, for all shards"},
+            {"duration", "60", "Seconds to send messages for"},
+            {"commands", "10", "Percentage of messages that are commands"},
+            {"unknown", "5", "Percentage of messages that are unknown commands"},
+            {"latency", "50", "Milliseconds the stand-in servers take to answer"},
+            {"workers", "16", "Command worker threads (bot.command.threads)"},
+            {"queue", "100", "Commands waiting or running per shard (bot.command.queue)"},
+            {"ratelimit", "true", "Apply the default rate limits, false to admit every command"},
+            {"report", "10", "Seconds between reports"}
+    };
+
+    private static final String[] CHATTER = {
+            "anyone up for some mythic+ keys tonight?",
+            "gz on the legendary!",
+            "raid is at 8 server time, bring flasks and food",
+            "lol",
+            "does anyone know where the quest giver for the invasion is? I've been looking around Azsuna for a while now",
+            "brb",
+            "we need one more healer for heroic Antorus"
+    };
+
+    private static final String[] REALMS = {"Arthas", "Illidan", "Stormrage", "Zul'jin", "Area 52", "Tichondrius", "Kazzak", "Draenor"};
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Properties props = new Properties();
+        for (String[] value : DEFAULTS) {
+            props.setProperty(value[0], value[1]);
+        }
+        for (String arg : args) {
+            String[] split = arg.split("=", 2);
+            if (split.length != 2 || !props.containsKey(split[0])) {
+                System.out.println("Usage: LoadGenerator [key=value]...");
+                for (String[] value : DEFAULTS) {
+                    System.out.println("  " + value[0] + " (default " + value[1] + ") : " + value[2]);
+                }
+                return;
+            }
+            props.setProperty(split[0], split[1]);
+        }
+        int guildCount = Integer.parseInt(props.getProperty("guilds"));
+        int members = Integer.parseInt(props.getProperty("members"));
+        int shardCount = Integer.parseInt(props.getProperty("shards"));
+        double rate = Double.parseDouble(props.getProperty("rate"));
+        long duration = Long.parseLong(props.getProperty("duration"));
+        long latency = Long.parseLong(props.getProperty("latency"));
+        long reportInterval = TimeUnit.SECONDS.toMillis(Long.parseLong(props.getProperty("report")));
+
+        StandInServer battleNet = new StandInServer("Battle.net", latency)
+                .route("/wow/realm/status", "{\"realms\":[{\"type\":\"pvp\",\"population\":\"high\",\"queue\":false,\"status\":true,\"name\":\"Arthas\",\"slug\":\"arthas\",\"battlegroup\":\"Ruin\",\"locale\":\"en_US\",\"timezone\":\"America/New_York\",\"connected_realms\":[\"arthas\"]}]}");
+        StandInServer raiderIo = new StandInServer("raider.io", latency)
+                .route("/api/v1/guilds/profile", "{\"name\":\"Legendary\",\"faction\":\"horde\",\"region\":\"us\",\"realm\":\"Arthas\",\"raid_rankings\":{"
+                        + "\"antorus-the-burning-throne\":{\"normal\":{\"world\":0,\"region\":0,\"realm\":0},\"heroic\":{\"world\":812,\"region\":401,\"realm\":12},\"mythic\":{\"world\":1208,\"region\":598,\"realm\":14}},"
+                        + "\"tomb-of-sargeras\":{\"normal\":{\"world\":0,\"region\":0,\"realm\":0},\"heroic\":{\"world\":0,\"region\":0,\"realm\":0},\"mythic\":{\"world\":964,\"region\":455,\"realm\":10}}}}");
+        StandInServer elasticSearch = new StandInServer("Elasticsearch", latency)
+                .route("/wow/", "{\"took\":3,\"timed_out\":false,\"hits\":{\"total\":1,\"max_score\":9.5,\"hits\":[{\"_index\":\"wow\",\"_type\":\"item\",\"_id\":\"19019\",\"_score\":9.5,\"_source\":{\"name\":\"Thunderfury, Blessed Blade of the Windseeker\"}}]}}");
+        List<StandInServer> upstreams = Arrays.asList(battleNet, raiderIo, elasticSearch);
+
+        List<JDA> shards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(Stubs.jda(new JDA.ShardInfo(i, shardCount)));
+        }
+        CommandRateLimiter rateLimiter = Boolean.parseBoolean(props.getProperty("ratelimit"))
+                ? new CommandRateLimiter(30, 15, 300, 100, 6000, 1200, 600)
+                : new CommandRateLimiter(60000000, 60000000, 60000000, 60000000, 60000000, 60000000, 60000000);
+        LoadBot bot = new LoadBot(shards, Integer.parseInt(props.getProperty("workers")), Integer.parseInt(props.getProperty("queue")), rateLimiter, elasticSearch);
+        OkHttpClient client = bot.getHttpClients().get(HttpClientRegistry.DEFAULT);
+        CommandHandler handler = bot.getCommandHandler();
+        handler.batch(() -> {
+            handler.addCommand("server", new RealmStatusCommand(bot, client, battleNet.getUrl()), "World of Warcraft");
+            handler.addCommand("guildrank", new GuildRankCommand(bot, client, raiderIo.getUrl()), "World of Warcraft");
+            handler.addAlias("wprank", "guildrank");
+            handler.addCommand("lookupitem", new ItemLookupCommand(bot), "World of Warcraft");
+        });
+        handler.setUnknownCommandHandler(event -> {});
+        String[] commands = {"!server", "!server Illidan", "!guildrank", "!wprank", "!lookupitem Thunderfury"};
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.out.println("Building " + guildCount + " guilds over " + shardCount + " shards");
+        List<List<ShardDriver.GuildEntry>> shardGuilds = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            shardGuilds.add(new ArrayList<>());
+        }
+        for (int i = 0; i < guildCount; i++) {
+            long guildId = (1000000L + i) << 22;
+            String id = Long.toString(guildId);
+            bot.getBenchmarkDatabase().addSetting(id, "PREFIX", "!");
+            bot.getBenchmarkDatabase().addSetting(id, "LANGUAGE", "en");
+            bot.getBenchmarkDatabase().addSetting(id, "WOW_REGION_NAME", i % 3 == 0 ? "eu" : "us");
+            bot.getBenchmarkDatabase().addSetting(id, "WOW_SERVER_NAME", REALMS[i % REALMS.length]);
+            bot.getBenchmarkDatabase().addSetting(id, "GUILD_NAME", "Guild " + i);
+            Guild guild = Stubs.guild(guildId);
+            shardGuilds.get((int) ((guildId >> 22) % shardCount)).add(new ShardDriver.GuildEntry(guild, Stubs.channel(guild, guildId + 1)));
+        }
+        User[] users = new User[Math.min(100000, guildCount * members)];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = Stubs.user((2000000L + i) << 22);
+        }
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        long settingsStart = System.nanoTime();
+        shardGuilds.forEach(guilds -> guilds.forEach(entry -> bot.addGuild(entry.getGuild())));
+        long settingsTime = System.nanoTime() - settingsStart;
+        System.gc();
+        long heapAfter = memory.getHeapMemoryUsage().getUsed();
+        System.out.println(String.format("Loaded the settings of %d guilds in %d ms, %.1f MB of heap (%d bytes per guild)",
+                guildCount, TimeUnit.NANOSECONDS.toMillis(settingsTime), (heapAfter - heapBefore) / 1048576.0, (heapAfter - heapBefore) / Math.max(1, guildCount)));
+
+        MessageListener listener = new MessageListener(bot);
+        Recorder gatewayLatency = new Recorder(TimeUnit.MINUTES.toMicros(1), 2);
+        LongAdder sent = new LongAdder();
+        LongAdder gatewayReplies = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            ShardDriver driver = new ShardDriver(shards.get(i), listener, shardGuilds.get(i), users, members, commands, CHATTER,
+                    Integer.parseInt(props.getProperty("commands")), Integer.parseInt(props.getProperty("unknown")), rate / shardCount, duration, gatewayLatency, sent, gatewayReplies);
+            Thread thread = new Thread(driver, "Shard-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+        }
+        System.out.println("Sending " + rate + " messages per second for " + duration + " seconds");
+        long start = System.currentTimeMillis();
+        threads.forEach(Thread::start);
+
+        Histogram gatewayTotal = new Histogram(TimeUnit.MINUTES.toMicros(1), 2);
+        long lastReport = start;
+        long lastSent = 0;
+        long peakHeap = 0;
+        while (threads.stream().anyMatch(Thread::isAlive)) {
+            for (Thread thread : threads) {
+                thread.join(Math.max(1, lastReport + reportInterval - System.currentTimeMillis()));
+            }
+            long now = System.currentTimeMillis();
+            if (now - lastReport < reportInterval && threads.stream().anyMatch(Thread::isAlive)) {
+                continue;
+            }
+            Histogram gateway = gatewayLatency.getIntervalHistogram();
+            gatewayTotal.add(gateway);
+            Histogram commandTotal = new Histogram(TimeUnit.MINUTES.toMicros(5), 2);
+            bot.getCommandHandler().getMetrics().flush().values().forEach(phases -> {
+                Histogram total = phases.get(CommandMetrics.Phase.TOTAL);
+                if (total != null) {
+                    commandTotal.add(total);
+                }
+            });
+            int pending = 0;
+            for (int i = 0; i < shardCount; i++) {
+                pending += bot.getCommandHandler().getDispatcher().getPendingCommands(i);
+            }
+            long heap = memory.getHeapMemoryUsage().getUsed();
+            peakHeap = Math.max(peakHeap, heap);
+            long total = sent.sum();
+            System.out.println(String.format("[%4ds] %8.0f msg/s | listener p50 %6d p99 %6d p99.9 %6d max %6d us | commands %6d p50 %5.1f p99 %7.1f ms | pending %4d | heap %5.0f MB",
+                    (now - start) / 1000, (total - lastSent) * 1000.0 / Math.max(1, now - lastReport),
+                    gateway.getValueAtPercentile(50), gateway.getValueAtPercentile(99), gateway.getValueAtPercentile(99.9), gateway.getMaxValue(),
+                    commandTotal.getTotalCount(), commandTotal.getValueAtPercentile(50) / 1000.0, commandTotal.getValueAtPercentile(99) / 1000.0,
+                    pending, heap / 1048576.0));
+            lastReport = now;
+            lastSent = total;
+        }
+        long elapsed = System.currentTimeMillis() - start;
+
+        //Let the commands still queued finish
+        Thread.sleep(TimeUnit.SECONDS.toMillis(2) + latency * 2);
+        System.out.println();
+        System.out.println(String.format("Sent %d messages in %.1f s, %.0f msg/s", sent.sum(), elapsed / 1000.0, sent.sum() * 1000.0 / elapsed));
+        System.out.println(String.format("Listener latency: p50 %d us, p99 %d us, p99.9 %d us, max %d us",
+                gatewayTotal.getValueAtPercentile(50), gatewayTotal.getValueAtPercentile(99), gatewayTotal.getValueAtPercentile(99.9), gatewayTotal.getMaxValue()));
+        System.out.println(String.format("Replies built: %d, refusal notices: %d, errors: %d", bot.getReplies(), gatewayReplies.sum(), bot.getErrors()));
+        System.out.println(String.format("Peak heap: %.0f MB, %d guilds", peakHeap / 1048576.0, guildCount));
+        upstreams.forEach(server -> System.out.println(server.getName() + " requests: " + server.getRequests()));
+        System.out.println("Command latency (ms):");
+        bot.getCommandHandler().getMetrics().getTotals().forEach((command, phases) -> {
+            Histogram queue = phases.get(CommandMetrics.Phase.QUEUE);
+            Histogram total = phases.get(CommandMetrics.Phase.TOTAL);
+            if (total == null || queue == null) {
+                return;
+            }
+            System.out.println(String.format("  %-12s count %7d | queue p50 %7.1f p99 %7.1f | total p50 %7.1f p95 %7.1f p99 %7.1f max %7.1f",
+                    command, total.getTotalCount(),
+                    queue.getValueAtPercentile(50) / 1000.0, queue.getValueAtPercentile(99) / 1000.0,
+                    total.getValueAtPercentile(50) / 1000.0, total.getValueAtPercentile(95) / 1000.0, total.getValueAtPercentile(99) / 1000.0, total.getMaxValue() / 1000.0));
+        });
+
+        bot.shutdown();
+        upstreams.forEach(StandInServer::stop);
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+}
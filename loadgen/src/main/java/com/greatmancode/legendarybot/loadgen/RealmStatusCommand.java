@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.loadgen;
+
+import com.greatmancode.legendarybot.api.commands.CommandCost;
+import com.greatmancode.legendarybot.api.commands.PublicCommand;
+import net.dv8tion.jda.core.EmbedBuilder;
+import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+
+/**
+ * Stand-in of the !server command. Does the same Battle.net realm status request and builds the same embed, against the stand-in Battle.net server.
+ */
+public class RealmStatusCommand implements PublicCommand {
+
+    private final LoadBot bot;
+    private final OkHttpClient client;
+    private final HttpUrl battleNet;
+
+    public RealmStatusCommand(LoadBot bot, OkHttpClient client, String battleNetUrl) {
+        this.bot = bot;
+        this.client = client;
+        this.battleNet = HttpUrl.parse(battleNetUrl);
+    }
+
+    @Override
+    public void execute(MessageReceivedEvent event, String[] args) {
+        String serverName = args.length == 1 ? args[0] : bot.getGuildSettings(event.getGuild()).getWowServerName();
+        HttpUrl url = battleNet.newBuilder()
+                .addPathSegments("wow/realm/status")
+                .addQueryParameter("realms", serverName)
+                .addQueryParameter("locale", bot.getGuildSettings(event.getGuild()).getRegionName())
+                .build();
+        try (Response response = client.newCall(new Request.Builder().url(url).build()).execute()) {
+            JSONObject object = (JSONObject) new JSONParser().parse(response.body().string());
+            EmbedBuilder eb = new EmbedBuilder();
+            for (Object realmObject : (JSONArray) object.get("realms")) {
+                JSONObject realm = (JSONObject) realmObject;
+                eb.setTitle(realm.get("name") + " - " + bot.getGuildSettings(event.getGuild()).getRegionName().toUpperCase());
+                eb.addField("Status", (Boolean) realm.get("status") ? "Online" : "Offline", true);
+                eb.addField("Population", (String) realm.get("population"), true);
+                eb.addField("Currently a Queue?", (Boolean) realm.get("queue") ? "Yes" : "No", true);
+            }
+            bot.reply(eb.build());
+        } catch (IOException | ParseException e) {
+            bot.getStacktraceHandler().sendStacktrace(e, "serverName:" + serverName);
+        }
+    }
+
+    @Override
+    public int minArgs() {
+        return 0;
+    }
+
+    @Override
+    public int maxArgs() {
+        return 1;
+    }
+
+    @Override
+    public CommandCost cost() {
+        return CommandCost.MEDIUM;
+    }
+}
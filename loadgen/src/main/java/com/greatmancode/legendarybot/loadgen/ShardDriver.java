@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.loadgen;
+
+import com.greatmancode.legendarybot.MessageListener;
+import com.greatmancode.legendarybot.benchmarks.Stubs;
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.TextChannel;
+import net.dv8tion.jda.core.entities.User;
+import org.HdrHistogram.Recorder;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays the event thread of one shard: sends messages to {@link MessageListener#onMessageReceived} at a fixed rate.
+ * The latency of a message is measured from the time it was scheduled to be sent, so a listener that falls behind shows in the percentiles.
+ */
+public class ShardDriver implements Runnable {
+
+    /**
+     * A guild of the shard and the channel its members talk in.
+     */
+    public static class GuildEntry {
+        private final Guild guild;
+        private final TextChannel channel;
+
+        public GuildEntry(Guild guild, TextChannel channel) {
+            this.guild = guild;
+            this.channel = channel;
+        }
+
+        public Guild getGuild() {
+            return guild;
+        }
+    }
+
+    private final JDA jda;
+    private final MessageListener listener;
+    private final List<GuildEntry> guilds;
+    private final User[] users;
+    private final int members;
+    private final String[] commands;
+    private final String[] chatter;
+    private final int commandPercent;
+    private final int unknownPercent;
+    private final long interval;
+    private final long duration;
+    private final Recorder latency;
+    private final LongAdder sent;
+    private final LongAdder gatewayReplies;
+
+    /**
+     * Build a shard driver
+     * @param jda The shard
+     * @param listener The listener receiving the messages
+     * @param guilds The guilds of the shard
+     * @param users The users the members are picked from
+     * @param members The amount of members talking in each guild
+     * @param commands The command messages to send
+     * @param chatter The non-command messages to send
+     * @param commandPercent The percentage of messages that are commands
+     * @param unknownPercent The percentage of messages that are unknown commands
+     * @param rate The amount of messages to send per second
+     * @param duration The time to send messages for, in seconds
+     * @param latency Where to record the time spent in the listener, in microseconds
+     * @param sent Counter of the messages sent
+     * @param gatewayReplies Counter of the replies the listener tried to send from the event thread (Refusal notices)
+     */
+    public ShardDriver(JDA jda, MessageListener listener, List<GuildEntry> guilds, User[] users, int members, String[] commands, String[] chatter,
+                       int commandPercent, int unknownPercent, double rate, long duration, Recorder latency, LongAdder sent, LongAdder gatewayReplies) {
+        this.jda = jda;
+        this.listener = listener;
+        this.guilds = guilds;
+        this.users = users;
+        this.members = members;
+        this.commands = commands;
+        this.chatter = chatter;
+        this.commandPercent = commandPercent;
+        this.unknownPercent = unknownPercent;
+        this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        this.duration = TimeUnit.SECONDS.toNanos(duration);
+        this.latency = latency;
+        this.sent = sent;
+        this.gatewayReplies = gatewayReplies;
+    }
+
+    @Override
+    public void run() {
+        if (guilds.isEmpty()) {
+            return;
+        }
+        SplittableRandom random = new SplittableRandom(jda.getShardInfo().getShardId());
+        long highest = TimeUnit.MINUTES.toMicros(1);
+        long next = System.nanoTime();
+        long end = next + duration;
+        while (next < end && !Thread.currentThread().isInterrupted()) {
+            long now;
+            while ((now = System.nanoTime()) < next) {
+                LockSupport.parkNanos(next - now);
+            }
+            int guildIndex = random.nextInt(guilds.size());
+            GuildEntry entry = guilds.get(guildIndex);
+            User author = users[(guildIndex * 31 + random.nextInt(members)) % users.length];
+            try {
+                listener.onMessageReceived(Stubs.message(jda, entry.channel, author, nextContent(random)));
+            } catch (Stubs.ReplyAttemptedException e) {
+                gatewayReplies.increment();
+            }
+            latency.recordValue(Math.min(highest, Math.max(0, (System.nanoTime() - next) / 1000)));
+            sent.increment();
+            next += interval;
+        }
+    }
+
+    /**
+     * Pick the content of the next message
+     * @param random The random generator of this shard
+     * @return The message content
+     */
+    private String nextContent(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        if (roll < commandPercent) {
+            return commands[random.nextInt(commands.length)];
+        } else if (roll < commandPercent + unknownPercent) {
+            return "!raid" + random.nextInt(1000);
+        }
+        return chatter[random.nextInt(chatter.length)];
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.loadgen;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local HTTP server standing in for an upstream API (Battle.net, raider.io, Elasticsearch). Every route answers a fixed JSON body after a fixed delay.
+ */
+public class StandInServer {
+
+    /**
+     * The name of the upstream, for the reports
+     */
+    private final String name;
+
+    /**
+     * The time every request takes to be answered
+     */
+    private final long latency;
+
+    /**
+     * The HTTP server
+     */
+    private final HttpServer server;
+
+    /**
+     * The amount of requests answered
+     */
+    private final AtomicLong requests = new AtomicLong();
+
+    /**
+     * Start a stand-in server on a free local port
+     * @param name The name of the upstream
+     * @param latency The time every request takes to be answered, in milliseconds
+     * @throws IOException If the server can't bind
+     */
+    public StandInServer(String name, long latency) throws IOException {
+        this.name = name;
+        this.latency = latency;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "StandIn-" + name);
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+    }
+
+    /**
+     * Answer a path with a JSON body
+     * @param path The path prefix
+     * @param body The JSON body to answer
+     * @return This server
+     */
+    public StandInServer route(String path, String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        server.createContext(path, exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                while (in.read() != -1) {
+                    //Drain the request body
+                }
+                Thread.sleep(latency);
+                exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+                requests.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Retrieve the base URL of this server
+     * @return The URL, without a trailing slash
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Retrieve the port this server listens on
+     * @return The port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Retrieve the name of the upstream
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Retrieve the amount of requests answered
+     * @return The amount of requests
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Stop the server
+     */
+    public void stop() {
+        server.stop(0);
+    }
+}
@@ -23,10 +23,15 @@
  */
 package com.greatmancode.legendarybot.commands.log;
 
+import com.greatmancode.legendarybot.api.commands.CacheableCommand;
+import com.greatmancode.legendarybot.api.commands.CommandCost;
 import com.greatmancode.legendarybot.api.commands.PublicCommand;
 import com.greatmancode.legendarybot.api.commands.ZeroArgsCommand;
 import com.greatmancode.legendarybot.api.plugin.LegendaryBotPlugin;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
+import net.dv8tion.jda.core.MessageBuilder;
 import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.Message;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
@@ -46,12 +51,12 @@ import java.util.TimeZone;
 /**
  * The !log command
  */
-public class LogCommand extends LegendaryBotPlugin implements ZeroArgsCommand, PublicCommand {
+public class LogCommand extends LegendaryBotPlugin implements ZeroArgsCommand, PublicCommand, CacheableCommand {
 
     /**
      * The OKHttp client
      */
-    private OkHttpClient client = new OkHttpClient();
+    private OkHttpClient client = getBot().getHttpClients().get(HttpClientRegistry.WARCRAFTLOGS);
 
     /**
      * The properties file containing the settings.
@@ -63,7 +68,7 @@ public class LogCommand extends LegendaryBotPlugin implements ZeroArgsCommand, P
     }
 
     @Override
-    public void execute(MessageReceivedEvent event, String[] args) {
+    public Message render(MessageReceivedEvent event, String[] args) {
         HttpUrl url = new HttpUrl.Builder().scheme("https")
                 .host("www.warcraftlogs.com")
                 .addPathSegments("/v1/reports/guild/"+ getBot().getGuildSettings(event.getGuild()).getGuildName()+"/"+ getBot().getGuildSettings(event.getGuild()).getWowServerName()+"/"+getBot().getGuildSettings(event.getGuild()).getRegionName())
@@ -75,7 +80,7 @@ public class LogCommand extends LegendaryBotPlugin implements ZeroArgsCommand, P
             String request = client.newCall(webRequest).execute().body().string();
             if (request == null) {
                 event.getChannel().sendMessage(getBot().getTranslateManager().translate(event.getGuild(), "command.log.guild.not.found")).queue();
-                return;
+                return null;
             }
 
             try {
@@ -84,18 +89,18 @@ public class LogCommand extends LegendaryBotPlugin implements ZeroArgsCommand, P
                     JSONArray jsonArray = (JSONArray) parser.parse(request);
                     if (jsonArray.size() == 0) {
                         event.getChannel().sendMessage(getBot().getTranslateManager().translate(event.getGuild(),"command.log.no.log.found")).queue();
-                        return;
+                        return null;
                     }
                     JSONObject jsonObject = (JSONObject) jsonArray.toArray()[jsonArray.size() - 1];
                     Calendar calendar = Calendar.getInstance();
                     calendar.setTimeZone(TimeZone.getTimeZone("America/Montreal")); //Todo, proper timezone
                     calendar.setTimeInMillis((Long) jsonObject.get("start"));
-                    event.getChannel().sendMessage(getBot().getTranslateManager().translate(event.getGuild(), "command.log.message",
+                    return new MessageBuilder().append(getBot().getTranslateManager().translate(event.getGuild(), "command.log.message",
                             jsonObject.get("title").toString(),
                             jsonObject.get("owner").toString(),
                             calendar.get(Calendar.DAY_OF_MONTH) + "",
                             (calendar.get(Calendar.MONTH) + 1) + "",
-                            calendar.get(Calendar.YEAR) + "") + " https://www.warcraftlogs.com/reports/" + jsonObject.get("id")).queue();
+                            calendar.get(Calendar.YEAR) + "") + " https://www.warcraftlogs.com/reports/" + jsonObject.get("id")).build();
                 } catch (ClassCastException e) {
                     event.getChannel().sendMessage(getBot().getTranslateManager().translate(event.getGuild(), "command.log.guild.not.found")).queue();
                 }
@@ -108,6 +113,17 @@ public class LogCommand extends LegendaryBotPlugin implements ZeroArgsCommand, P
             getBot().getStacktraceHandler().sendStacktrace(e, "guildId:" + event.getGuild().getId(), "guildName:" + getBot().getGuildSettings(event.getGuild()).getGuildName(), "serverName:" + getBot().getGuildSettings(event.getGuild()).getWowServerName(),"region:" + getBot().getGuildSettings(event.getGuild()).getRegionName());
             event.getChannel().sendMessage(getBot().getTranslateManager().translate(event.getGuild(),"error.occurred.try.again.later")).queue();
         }
+        return null;
+    }
+
+    @Override
+    public long cacheDuration() {
+        return 5 * 60 * 1000;
+    }
+
+    @Override
+    public CommandCost cost() {
+        return CommandCost.MEDIUM;
     }
 
     @Override
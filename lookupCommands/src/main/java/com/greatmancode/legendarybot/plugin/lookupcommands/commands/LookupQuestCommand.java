@@ -23,6 +23,7 @@
  */
 package com.greatmancode.legendarybot.plugin.lookupcommands.commands;
 
+import com.greatmancode.legendarybot.api.commands.CommandCost;
 import com.greatmancode.legendarybot.api.commands.PublicCommand;
 import com.greatmancode.legendarybot.plugin.lookupcommands.LookupCommandsPlugin;
 import net.dv8tion.jda.core.entities.Guild;
@@ -88,6 +89,11 @@ public class LookupQuestCommand implements PublicCommand {
         return 99;
     }
 
+    @Override
+    public CommandCost cost() {
+        return CommandCost.MEDIUM;
+    }
+
     @Override
     public String help(Guild guild) {
         return plugin.getBot().getTranslateManager().translate(guild, "command.lookupquest.longhelp");
@@ -23,6 +23,7 @@
  */
 package com.greatmancode.legendarybot.plugin.music.commands;
 
+import com.greatmancode.legendarybot.api.commands.CommandCost;
 import com.greatmancode.legendarybot.api.commands.PublicCommand;
 import com.greatmancode.legendarybot.plugin.music.MusicPlugin;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
@@ -60,6 +61,11 @@ public class AddSongCommand implements PublicCommand {
         return 1;
     }
 
+    @Override
+    public CommandCost cost() {
+        return CommandCost.MEDIUM;
+    }
+
     @Override
     public String help() {
         return "Add a song to the queue.\n\n" +
@@ -24,6 +24,7 @@
 package com.greatmancode.legendarybot.plugin.music.commands;
 
 import com.greatmancode.legendarybot.api.commands.AdminCommand;
+import com.greatmancode.legendarybot.api.commands.CommandCost;
 import com.greatmancode.legendarybot.plugin.music.MusicPlugin;
 import net.dv8tion.jda.core.entities.Member;
 import net.dv8tion.jda.core.entities.VoiceChannel;
@@ -82,6 +83,11 @@ public class PlayMusicCommand extends AdminCommand {
         return 1;
     }
 
+    @Override
+    public CommandCost cost() {
+        return CommandCost.MEDIUM;
+    }
+
     @Override
     public String help() {
         return "Play music in the voice channel you are currently in.\n\n" +
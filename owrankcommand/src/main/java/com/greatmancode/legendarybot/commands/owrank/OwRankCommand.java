@@ -24,8 +24,10 @@
 
 package com.greatmancode.legendarybot.commands.owrank;
 
+import com.greatmancode.legendarybot.api.commands.CommandCost;
 import com.greatmancode.legendarybot.api.commands.PublicCommand;
 import com.greatmancode.legendarybot.api.plugin.LegendaryBotPlugin;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
 import net.dv8tion.jda.core.EmbedBuilder;
 import net.dv8tion.jda.core.MessageBuilder;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
@@ -46,7 +48,7 @@ public class OwRankCommand extends LegendaryBotPlugin implements PublicCommand {
     /**
      * The Http Client to do web requests.
      */
-    private OkHttpClient client = new OkHttpClient();
+    private OkHttpClient client = getBot().getHttpClients().get(HttpClientRegistry.DEFAULT);
 
     public OwRankCommand(PluginWrapper wrapper) {
         super(wrapper);
@@ -130,6 +132,11 @@ public class OwRankCommand extends LegendaryBotPlugin implements PublicCommand {
         return 2;
     }
 
+    @Override
+    public CommandCost cost() {
+        return CommandCost.MEDIUM;
+    }
+
     @Override
     public String help() {
         return "Get a player's Overwatch competitive rank.\n\n" +
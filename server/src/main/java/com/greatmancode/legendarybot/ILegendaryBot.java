@@ -26,13 +26,21 @@ package com.greatmancode.legendarybot;
 
 import com.greatmancode.legendarybot.api.LegendaryBot;
 import com.greatmancode.legendarybot.api.commands.CommandHandler;
+import com.greatmancode.legendarybot.api.commands.CommandRateLimiter;
 import com.greatmancode.legendarybot.api.plugin.LegendaryBotPluginManager;
+import com.greatmancode.legendarybot.api.server.ClusterStats;
+import com.greatmancode.legendarybot.api.server.GuildRegistry;
 import com.greatmancode.legendarybot.api.server.GuildSettings;
 import com.greatmancode.legendarybot.api.translate.TranslateManager;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
 import com.greatmancode.legendarybot.api.utils.NullStacktraceHandler;
 import com.greatmancode.legendarybot.api.utils.StacktraceHandler;
+import com.greatmancode.legendarybot.api.utils.StartupTimeline;
 import com.greatmancode.legendarybot.commands.*;
-import com.greatmancode.legendarybot.server.IGuildSettings;
+import com.greatmancode.legendarybot.server.ClusterCoordinator;
+import com.greatmancode.legendarybot.server.GuildSettingsCache;
+import com.greatmancode.legendarybot.server.GuildSettingsLoader;
+import com.greatmancode.legendarybot.server.GuildSettingsWriter;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import net.dv8tion.jda.core.AccountType;
@@ -41,7 +49,6 @@ import net.dv8tion.jda.core.JDABuilder;
 import net.dv8tion.jda.core.entities.Guild;
 import net.dv8tion.jda.core.exceptions.RateLimitedException;
 import net.dv8tion.jda.core.requests.SessionReconnectQueue;
-import org.apache.commons.io.FileUtils;
 import org.apache.http.HttpHost;
 import org.elasticsearch.client.RestClient;
 import org.influxdb.InfluxDB;
@@ -52,13 +59,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.security.auth.login.LoginException;
-import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Implementation of a {@link LegendaryBot} bot.
@@ -68,17 +75,37 @@ public class ILegendaryBot extends LegendaryBot {
     /**
      * The Plugin Manager
      */
-    private PluginManager pluginManager = new LegendaryBotPluginManager(this);
+    private LegendaryBotPluginManager pluginManager = new LegendaryBotPluginManager(this);
+
+    /**
+     * The phases of the startup, reported once the bot is started
+     */
+    private final StartupTimeline timeline = new StartupTimeline();
 
     /**
      * The Command handler
      */
-    private CommandHandler commandHandler = new CommandHandler(this);
+    private CommandHandler commandHandler;
+
+    /**
+     * The guilds that this bot is connected to, by shard
+     */
+    private GuildRegistry guildRegistry;
 
     /**
-     * The settings of every guilds that this bot is connected to
+     * Claims the shard range of this node when the bot runs as a cluster, null otherwise
      */
-    private Map<String, GuildSettings> guildSettings = new HashMap<>();
+    private ClusterCoordinator clusterCoordinator;
+
+    /**
+     * The settings of the guilds that this bot is connected to. Only the active guilds are kept in memory.
+     */
+    private GuildSettingsCache guildSettings;
+
+    /**
+     * Saves the guild settings in the background
+     */
+    private GuildSettingsWriter settingsWriter;
 
     /**
      * The Database data source
@@ -97,6 +124,11 @@ public class ILegendaryBot extends LegendaryBot {
 
     private InfluxDB influxDB;
 
+    /**
+     * The HTTP clients shared by the plugins
+     */
+    private HttpClientRegistry httpClients;
+
     /**
      * The app.properties file.
      */
@@ -105,7 +137,7 @@ public class ILegendaryBot extends LegendaryBot {
     /**
      * The List of all JDA instances
      */
-    private List<JDA> jdaList = new ArrayList<>();
+    private List<JDA> jdaList = new CopyOnWriteArrayList<>();
 
     /**
      * The Logger
@@ -113,9 +145,9 @@ public class ILegendaryBot extends LegendaryBot {
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     /**
-     * The state of the bot. True = Ready to accept commands, False = not ready to accept commands.
+     * The IDs of the shards ready to accept commands. A shard is ready once it is connected and the settings of its guilds are loaded.
      */
-    private boolean ready;
+    private final Set<Integer> readyShards = ConcurrentHashMap.newKeySet();
 
     private TranslateManager translateManager;
 
@@ -124,12 +156,14 @@ public class ILegendaryBot extends LegendaryBot {
      */
     public ILegendaryBot() throws IOException, LoginException, InterruptedException, RateLimitedException {
         log.info("LegendaryBot Starting.");
+        StartupTimeline.Phase phase = timeline.start("influxdb.connect");
         if (props.containsKey("stats.enable") && Boolean.parseBoolean(props.getProperty("stats.enable"))) {
             influxDB = InfluxDBFactory.connect("http://localhost:8086").setDatabase("legendarybot2");
         } else {
             influxDB = new InfluxDBNull();
         }
         influxDB.createDatabase("legendarybot2");
+        phase.end();
 
         if (props.containsKey("sentry.key")) {
             this.stacktraceHandler = new IStacktraceHandler(this, props.getProperty("sentry.key"));
@@ -140,6 +174,7 @@ public class ILegendaryBot extends LegendaryBot {
 
 
         //Load the database
+        phase = timeline.start("database.pool");
         HikariConfig config = new HikariConfig();
         config.setDataSourceClassName("com.mysql.jdbc.jdbc2.optional.MysqlDataSource");
         config.addDataSourceProperty("serverName", System.getenv("MYSQL_ADDRESS") != null ? System.getenv("MYSQL_ADDRESS") : props.getProperty("mysql.address"));
@@ -150,10 +185,50 @@ public class ILegendaryBot extends LegendaryBot {
         config.setConnectionTimeout(5000);
         config.addDataSourceProperty("characterEncoding","utf8");
         config.addDataSourceProperty("useUnicode","true");
+        config.addDataSourceProperty("rewriteBatchedStatements","true");
         dataSource = new HikariDataSource(config);
+        phase.end();
+
+        //Guild settings are saved in the background, coalescing the writes to the same setting.
+        settingsWriter = new GuildSettingsWriter(this,
+                Long.parseLong(props.getProperty("bot.settings.flush", "1000")),
+                Integer.parseInt(props.getProperty("bot.settings.batch", "500")));
+        int maxShard = props.containsKey("bot.shard") ? Integer.parseInt(props.getProperty("bot.shard")) : 1;
+        guildRegistry = new GuildRegistry(maxShard);
+        guildSettings = new GuildSettingsCache(this, guildRegistry, settingsWriter,
+                Integer.parseInt(props.getProperty("bot.settings.cache.size", "20000")),
+                TimeUnit.MINUTES.toMillis(Long.parseLong(props.getProperty("bot.settings.cache.idle", "30"))),
+                Integer.parseInt(props.getProperty("bot.settings.cache.loaders", "4")));
+
+        //Every plugin shares the same HTTP connection pool and dispatcher.
+        httpClients = new HttpClientRegistry(this, props,
+                Integer.parseInt(props.getProperty("http.pool.idle", "50")),
+                Long.parseLong(props.getProperty("http.pool.keepalive", "300")),
+                Integer.parseInt(props.getProperty("http.requests", "128")),
+                Integer.parseInt(props.getProperty("http.requests.host", "16")));
+        //Fetch the Battle.net tokens in the background so the first requests don't wait for them.
+        for (String region : new String[] {"us", "eu"}) {
+            if (props.containsKey("battlenet." + region + ".secret")) {
+                httpClients.getBattleNetTokens().prefetch(region);
+            }
+        }
 
         //We configure our Stacktrace catchers
         Thread.setDefaultUncaughtExceptionHandler(new ExceptionHandler(stacktraceHandler));
+
+        //We build the command handler. Commands are run on their own thread pool with a maximum queue per shard.
+        int commandThreads = props.containsKey("bot.command.threads") ? Integer.parseInt(props.getProperty("bot.command.threads")) : 16;
+        int commandQueueDepth = props.containsKey("bot.command.queue") ? Integer.parseInt(props.getProperty("bot.command.queue")) : 100;
+        //Commands are rate limited per user, per guild and per cost class. Values are tokens per minute, LIGHT commands cost 1 token, MEDIUM 2 and HEAVY 5.
+        CommandRateLimiter rateLimiter = new CommandRateLimiter(
+                Integer.parseInt(props.getProperty("bot.ratelimit.user", "30")),
+                Integer.parseInt(props.getProperty("bot.ratelimit.user.burst", "15")),
+                Integer.parseInt(props.getProperty("bot.ratelimit.guild", "300")),
+                Integer.parseInt(props.getProperty("bot.ratelimit.guild.burst", "100")),
+                Integer.parseInt(props.getProperty("bot.ratelimit.light", "6000")),
+                Integer.parseInt(props.getProperty("bot.ratelimit.medium", "1200")),
+                Integer.parseInt(props.getProperty("bot.ratelimit.heavy", "600")));
+        commandHandler = new CommandHandler(this, commandThreads, commandQueueDepth, rateLimiter);
         //Register the server specific commands
         commandHandler.addCommand("reloadplugins", new ReloadPluginsCommand(this), "Admin Commands");
         commandHandler.addCommand("load", new LoadCommand(this), "Admin Commands");
@@ -163,6 +238,7 @@ public class ILegendaryBot extends LegendaryBot {
 
 
         //We create the Config table
+        phase = timeline.start("database.tables");
         String SERVER_CONFIG_TABLE = "CREATE TABLE IF NOT EXISTS `guild_config` (\n" +
                 "  `guildId` VARCHAR(64) NOT NULL,\n" +
                 "  `configName` VARCHAR(255) NOT NULL,\n" +
@@ -177,42 +253,115 @@ public class ILegendaryBot extends LegendaryBot {
             e.printStackTrace();
             getStacktraceHandler().sendStacktrace(e);
         }
+        phase.end();
 
-        //We build JDA and connect.
+        phase = timeline.start("translations.load");
+        translateManager = new TranslateManager(this);
+        phase.end();
+
+        //In cluster mode, this node only runs the shard range it claims. Without a free range, we wait for a node to die.
+        int shardStart = 0;
+        int shardEnd = maxShard;
+        if (Boolean.parseBoolean(props.getProperty("bot.cluster.enable", "false"))) {
+            phase = timeline.start("cluster.claim");
+            clusterCoordinator = new ClusterCoordinator(this,
+                    props.getProperty("bot.cluster.node", UUID.randomUUID().toString()),
+                    maxShard,
+                    Integer.parseInt(props.getProperty("bot.cluster.shards", Integer.toString(maxShard))),
+                    TimeUnit.SECONDS.toMillis(Long.parseLong(props.getProperty("bot.cluster.heartbeat", "10"))),
+                    TimeUnit.SECONDS.toMillis(Long.parseLong(props.getProperty("bot.cluster.timeout", "60"))));
+            //Another node took our shards over, or is about to. Stop answering before both nodes answer the same guilds,
+            //then exit from another thread as the shutdown hooks stop the heartbeat thread this runs on.
+            clusterCoordinator.claim(() -> {
+                readyShards.clear();
+                jdaList.forEach(JDA::shutdown);
+                new Thread(() -> System.exit(1), "LegendaryBot-Exit").start();
+            });
+            shardStart = clusterCoordinator.getShardStart();
+            shardEnd = clusterCoordinator.getShardEnd();
+            phase.end();
+        }
+
+        //We build JDA and connect. Shards identify one after the other, spaced by the Discord identify rate limit, then load their guilds concurrently.
+        //As soon as a shard is connected, the settings of its guilds are loaded. The shards start accepting commands once the plugins are started.
+        long identifyDelay = Long.parseLong(props.getProperty("bot.shard.identify", "5000"));
+        GuildSettingsLoader settingsLoader = new GuildSettingsLoader(this, settingsWriter);
+        ExecutorService shardStartup = Executors.newFixedThreadPool(Math.max(1, Math.min(shardEnd - shardStart, dataSource.getMaximumPoolSize())), r -> {
+            Thread thread = new Thread(r, "LegendaryBot-Shard-Startup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<Integer>> shardsConnected = new ArrayList<>();
         JDABuilder builder = new JDABuilder(AccountType.BOT).setToken(System.getenv("BOT_TOKEN") != null ? System.getenv("BOT_TOKEN") : props.getProperty("bot.token")).setReconnectQueue(new SessionReconnectQueue());
         builder.addEventListener(new MessageListener(this));
-        int maxShard = props.containsKey("bot.shard") ? Integer.parseInt(props.getProperty("bot.shard")) : 1;
-        for (int i = 0; i < maxShard; i++) {
+        long loginStart = System.currentTimeMillis();
+        for (int i = shardStart; i < shardEnd; i++) {
+            if (i != shardStart) {
+                Thread.sleep(identifyDelay);
+            }
             log.info("Starting shard " + i);
-            jdaList.add(builder.useSharding(i,maxShard)
-                    .buildBlocking(JDA.Status.CONNECTED));
+            StartupTimeline.Phase login = timeline.start("shard." + i + ".login");
+            JDA jda = builder.useSharding(i,maxShard)
+                    .buildBlocking(JDA.Status.AWAITING_LOGIN_CONFIRMATION);
+            jdaList.add(jda);
+            guildRegistry.setShard(i, jda);
+            int shardId = i;
+            shardsConnected.add(shardStartup.submit(() -> {
+                try {
+                    jda.awaitStatus(JDA.Status.CONNECTED);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+                login.end();
+                long connected = System.currentTimeMillis();
+                //Warm the settings cache with the guilds of the shard. Guilds that don't fit are loaded on their first access.
+                StartupTimeline.Phase settings = timeline.start("shard." + shardId + ".settings");
+                guildSettings.warm(settingsLoader.load(jda));
+                settings.end();
+                log.info("Shard " + shardId + " connected with " + jda.getGuilds().size() + " guilds in " + (System.currentTimeMillis() - loginStart) + "ms, settings loaded in " + (System.currentTimeMillis() - connected) + "ms");
+                return shardId;
+            }));
         }
-        //Load the settings for each guild
-        jdaList.forEach((jda) -> jda.getGuilds().forEach(guild -> guildSettings.put(guild.getId(), new IGuildSettings(guild, this))));
-
-
 
-
-        //We load all plugins
+        //We load all plugins while the shards are connecting. They are started once every shard is connected as they work on the guilds of all shards.
+        phase = timeline.start("plugins.load");
         pluginManager.loadPlugins();
+        phase.end();
+        List<Integer> connectedShards = new ArrayList<>();
+        for (Future<Integer> shardConnected : shardsConnected) {
+            try {
+                Integer shardId = shardConnected.get();
+                if (shardId != null) {
+                    connectedShards.add(shardId);
+                }
+            } catch (ExecutionException e) {
+                e.printStackTrace();
+                getStacktraceHandler().sendStacktrace(e.getCause());
+            }
+        }
+        shardStartup.shutdown();
+        log.info("Every shard connected in " + (System.currentTimeMillis() - loginStart) + "ms, " + guildSettings.size() + " guild settings loaded");
+        pluginManager.setTimeline(timeline);
         pluginManager.startPlugins();
-        ready = true;
+        pluginManager.setTimeline(null);
+        //The commands and listeners of the plugins are registered, the shards can now answer.
+        readyShards.addAll(connectedShards);
+        log.info("Every shard ready in " + (System.currentTimeMillis() - loginStart) + "ms");
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            ready = false;
+            readyShards.clear();
+            if (clusterCoordinator != null) {
+                clusterCoordinator.shutdown();
+            }
             for (PluginWrapper wrapper : getPluginManager().getPlugins()) {
                 getPluginManager().unloadPlugin(wrapper.getPluginId());
             }
+            commandHandler.getDispatcher().shutdown();
+            guildSettings.shutdown();
+            settingsWriter.shutdown();
             jdaList.forEach(JDA::shutdown);
+            httpClients.shutdown();
 
-            File plugins = new File("plugins");
-            Arrays.stream(plugins.listFiles(File::isDirectory)).forEach(file -> {
-                try {
-                    FileUtils.deleteDirectory(file);
-                } catch (IOException e) {
-                    e.printStackTrace();
-                    getStacktraceHandler().sendStacktrace(e);
-                }
-            });
             if (restClient != null) {
                 try {
                     restClient.close();
@@ -224,8 +373,7 @@ public class ILegendaryBot extends LegendaryBot {
             log.info("Legendarybot Shutdown.");
         }));
 
-        translateManager = new TranslateManager(this);
-
+        timeline.report(influxDB, ILegendaryBot.class.getPackage().getImplementationVersion() != null ? ILegendaryBot.class.getPackage().getImplementationVersion() : "dev");
         log.info("LegendaryBot now ready!");
 
     }
@@ -252,7 +400,7 @@ public class ILegendaryBot extends LegendaryBot {
 
     @Override
     public GuildSettings getGuildSettings(Guild guild) {
-        return guildSettings.get(guild.getId());
+        return guildSettings.get(guild);
     }
 
     @Override
@@ -267,7 +415,12 @@ public class ILegendaryBot extends LegendaryBot {
 
     @Override
     public void addGuild(Guild guild) {
-        guildSettings.put(guild.getId(), new IGuildSettings(guild, this));
+        guildSettings.load(guild);
+    }
+
+    @Override
+    public HttpClientRegistry getHttpClients() {
+        return httpClients;
     }
 
     @Override
@@ -291,7 +444,12 @@ public class ILegendaryBot extends LegendaryBot {
 
     @Override
     public boolean isReady() {
-        return ready;
+        return !jdaList.isEmpty() && readyShards.size() == jdaList.size();
+    }
+
+    @Override
+    public boolean isReady(JDA jda) {
+        return readyShards.contains(jda.getShardInfo() == null ? 0 : jda.getShardInfo().getShardId());
     }
 
     @Override
@@ -301,16 +459,26 @@ public class ILegendaryBot extends LegendaryBot {
 
     @Override
     public JDA getJDA(Guild guild) {
-        for (JDA jda : jdaList) {
-            if (jda.getGuildById(guild.getId()) != null) {
-                return jda;
-            }
-        }
-        return null;
+        return guildRegistry.getJDA(guild);
     }
 
     @Override
     public List<JDA> getJDA() {
         return Collections.unmodifiableList(jdaList);
     }
+
+    @Override
+    public GuildRegistry getGuildRegistry() {
+        return guildRegistry;
+    }
+
+    @Override
+    public ClusterStats getClusterStats() {
+        return clusterCoordinator != null ? clusterCoordinator.getClusterStats() : super.getClusterStats();
+    }
+
+    @Override
+    public void removeGuild(Guild guild) {
+        guildSettings.remove(guild.getIdLong());
+    }
 }
@@ -27,6 +27,7 @@ package com.greatmancode.legendarybot;
 import com.greatmancode.legendarybot.api.LegendaryBot;
 import net.dv8tion.jda.core.entities.ChannelType;
 import net.dv8tion.jda.core.events.guild.GuildJoinEvent;
+import net.dv8tion.jda.core.events.guild.GuildLeaveEvent;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.core.hooks.ListenerAdapter;
 
@@ -61,4 +62,9 @@ public class MessageListener extends ListenerAdapter {
     public void onGuildJoin(GuildJoinEvent event) {
         bot.addGuild(event.getGuild());
     }
+
+    @Override
+    public void onGuildLeave(GuildLeaveEvent event) {
+        bot.removeGuild(event.getGuild());
+    }
 }
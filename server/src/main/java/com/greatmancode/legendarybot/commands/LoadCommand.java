@@ -49,8 +49,10 @@ public class LoadCommand implements Command {
 
     @Override
     public void execute(MessageReceivedEvent event, String[] args) {
-        bot.getPluginManager().loadPlugins();
-        bot.getPluginManager().startPlugins();
+        bot.getCommandHandler().batch(() -> {
+            bot.getPluginManager().loadPlugins();
+            bot.getPluginManager().startPlugins();
+        });
         event.getChannel().sendMessage("Plugins loaded!").queue();
     }
 
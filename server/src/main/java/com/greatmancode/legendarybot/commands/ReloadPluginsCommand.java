@@ -50,15 +50,18 @@ public class ReloadPluginsCommand implements Command {
 
     @Override
     public void execute(MessageReceivedEvent event, String[] args) {
-        if (args.length == 1) {
-            bot.getPluginManager().unloadPlugin(args[0]);
-        } else {
-            for (PluginWrapper wrapper : bot.getPluginManager().getPlugins()) {
-                bot.getPluginManager().unloadPlugin(wrapper.getPluginId());
+        //The whole command table is swapped at once when the reload is done.
+        bot.getCommandHandler().batch(() -> {
+            if (args.length == 1) {
+                bot.getPluginManager().unloadPlugin(args[0]);
+            } else {
+                for (PluginWrapper wrapper : bot.getPluginManager().getPlugins()) {
+                    bot.getPluginManager().unloadPlugin(wrapper.getPluginId());
+                }
             }
-        }
-        bot.getPluginManager().loadPlugins();
-        bot.getPluginManager().startPlugins();
+            bot.getPluginManager().loadPlugins();
+            bot.getPluginManager().startPlugins();
+        });
         event.getChannel().sendMessage("Plugins reloaded!").queue();
     }
 
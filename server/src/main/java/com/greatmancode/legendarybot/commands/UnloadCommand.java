@@ -49,7 +49,9 @@ public class UnloadCommand implements Command {
 
     @Override
     public void execute(MessageReceivedEvent event, String[] args) {
-        if (bot.getPluginManager().unloadPlugin(args[0])) {
+        final boolean[] unloaded = new boolean[1];
+        bot.getCommandHandler().batch(() -> unloaded[0] = bot.getPluginManager().unloadPlugin(args[0]));
+        if (unloaded[0]) {
             event.getChannel().sendMessage("Plugin " + args[0] + " unloaded!").queue();
         } else {
             event.getChannel().sendMessage("An error occured. Please check console").queue();
@@ -0,0 +1,322 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.server;
+
+import com.greatmancode.legendarybot.api.LegendaryBot;
+import com.greatmancode.legendarybot.api.server.ClusterStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.BitSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spreads the shards of the bot over several nodes using the MySQL database. The shards are split in ranges of a fixed size, every node claims
+ * a free range and keeps it alive with heartbeats. The range of a node missing its heartbeats is freed and claimed by the next node looking for one,
+ * so nodes started without a free range act as standby nodes. The heartbeats also carry the stats of the node, summed for the cluster stats.
+ */
+public class ClusterCoordinator {
+
+    /**
+     * The MySQL lock serializing the claims of the nodes
+     */
+    private static final String CLAIM_LOCK = "legendarybot_cluster_claim";
+
+    /**
+     * The current time of the database, in milliseconds. Every heartbeat is written and compared with the database clock,
+     * so the clock skew between the nodes never matters.
+     */
+    private static final String DB_NOW = "CAST(UNIX_TIMESTAMP(NOW(3)) * 1000 AS SIGNED)";
+
+    /**
+     * A instance of the bot.
+     */
+    private final LegendaryBot bot;
+
+    /**
+     * The ID of this node
+     */
+    private final String nodeId;
+
+    /**
+     * The total amount of shards of the bot
+     */
+    private final int shardCount;
+
+    /**
+     * The amount of shards claimed by a node
+     */
+    private final int rangeSize;
+
+    /**
+     * The time between two heartbeats, in milliseconds
+     */
+    private final long heartbeatInterval;
+
+    /**
+     * The time without heartbeat after which a node is considered dead, in milliseconds
+     */
+    private final long nodeTimeout;
+
+    /**
+     * The amount of heartbeats failing in a row after which this node stops serving, well before the other nodes see its range as free
+     */
+    private final int maxFailedHeartbeats;
+
+    /**
+     * The amount of heartbeats that failed in a row, only touched by the heartbeat thread
+     */
+    private int failedHeartbeats;
+
+    /**
+     * The first shard claimed by this node, -1 until a range is claimed
+     */
+    private volatile int shardStart = -1;
+
+    /**
+     * The stats of the live nodes, refreshed on every heartbeat
+     */
+    private volatile ClusterStats clusterStats;
+
+    /**
+     * The thread sending the heartbeats
+     */
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "LegendaryBot-Cluster");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * A instance of {@link Logger} to send logs to
+     */
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Create a cluster coordinator
+     * @param bot A {@link LegendaryBot} instance.
+     * @param nodeId The ID of this node, unique in the cluster.
+     * @param shardCount The total amount of shards of the bot.
+     * @param rangeSize The amount of shards claimed by a node.
+     * @param heartbeatInterval The time between two heartbeats, in milliseconds.
+     * @param nodeTimeout The time without heartbeat after which a node is considered dead, in milliseconds.
+     */
+    public ClusterCoordinator(LegendaryBot bot, String nodeId, int shardCount, int rangeSize, long heartbeatInterval, long nodeTimeout) {
+        this.bot = bot;
+        this.nodeId = nodeId;
+        this.shardCount = shardCount;
+        this.rangeSize = rangeSize;
+        this.heartbeatInterval = heartbeatInterval;
+        this.nodeTimeout = nodeTimeout;
+        this.maxFailedHeartbeats = (int) Math.max(1, nodeTimeout / heartbeatInterval / 2);
+        String CLUSTER_TABLE = "CREATE TABLE IF NOT EXISTS `cluster_nodes` (\n" +
+                "  `nodeId` VARCHAR(64) NOT NULL,\n" +
+                "  `shardStart` INT NOT NULL,\n" +
+                "  `heartbeat` BIGINT NOT NULL,\n" +
+                "  `guilds` INT NOT NULL DEFAULT 0,\n" +
+                "  `textChannels` INT NOT NULL DEFAULT 0,\n" +
+                "  `voiceChannels` INT NOT NULL DEFAULT 0,\n" +
+                "  `members` INT NOT NULL DEFAULT 0,\n" +
+                "  PRIMARY KEY (`nodeId`), UNIQUE KEY (`shardStart`))ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_bin;\n";
+        try (Connection conn = bot.getDatabase().getConnection();
+             PreparedStatement statement = conn.prepareStatement(CLUSTER_TABLE)) {
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            bot.getStacktraceHandler().sendStacktrace(e);
+        }
+    }
+
+    /**
+     * Claim a free shard range, waiting for a node to die if every range is taken. Heartbeats start once the range is claimed.
+     * @param onClaimLost Called on the heartbeat thread if the range got claimed by another node, or if the heartbeats failed for too long
+     *                    and it may be claimed soon. The node must stop serving its shards. Must not block on the heartbeat thread.
+     * @throws InterruptedException If interrupted while waiting for a free range.
+     */
+    public void claim(Runnable onClaimLost) throws InterruptedException {
+        boolean waiting = false;
+        while (shardStart == -1) {
+            try {
+                shardStart = tryClaim();
+            } catch (SQLException e) {
+                e.printStackTrace();
+                bot.getStacktraceHandler().sendStacktrace(e, "nodeId:" + nodeId);
+            }
+            if (shardStart == -1) {
+                if (!waiting) {
+                    log.info("Every shard range is claimed, node " + nodeId + " is on standby.");
+                    waiting = true;
+                }
+                Thread.sleep(heartbeatInterval);
+            }
+        }
+        log.info("Node " + nodeId + " claimed shards " + getShardStart() + " to " + (getShardEnd() - 1) + " of " + shardCount);
+        executor.scheduleWithFixedDelay(() -> heartbeat(onClaimLost), heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Claim the first free shard range. The ranges of the dead nodes are freed first.
+     * @return The first shard of the claimed range, -1 if every range is taken.
+     * @throws SQLException If the database could not be reached.
+     */
+    private int tryClaim() throws SQLException {
+        try (Connection conn = bot.getDatabase().getConnection()) {
+            try (PreparedStatement lock = conn.prepareStatement("SELECT GET_LOCK(?, 10)")) {
+                lock.setString(1, CLAIM_LOCK);
+                try (ResultSet set = lock.executeQuery()) {
+                    if (!set.next() || set.getInt(1) != 1) {
+                        return -1;
+                    }
+                }
+            }
+            try {
+                try (PreparedStatement statement = conn.prepareStatement("DELETE FROM cluster_nodes WHERE heartbeat < " + DB_NOW + " - ? OR nodeId = ?")) {
+                    statement.setLong(1, nodeTimeout);
+                    statement.setString(2, nodeId);
+                    int removed = statement.executeUpdate();
+                    if (removed > 0) {
+                        log.info("Freed the shard range of " + removed + " node(s)");
+                    }
+                }
+                BitSet claimed = new BitSet();
+                try (PreparedStatement statement = conn.prepareStatement("SELECT shardStart FROM cluster_nodes");
+                     ResultSet set = statement.executeQuery()) {
+                    while (set.next()) {
+                        claimed.set(set.getInt("shardStart"));
+                    }
+                }
+                for (int start = 0; start < shardCount; start += rangeSize) {
+                    if (!claimed.get(start)) {
+                        try (PreparedStatement statement = conn.prepareStatement("INSERT INTO cluster_nodes(nodeId, shardStart, heartbeat) VALUES(?,?," + DB_NOW + ")")) {
+                            statement.setString(1, nodeId);
+                            statement.setInt(2, start);
+                            statement.executeUpdate();
+                        }
+                        return start;
+                    }
+                }
+                return -1;
+            } finally {
+                try (PreparedStatement unlock = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                    unlock.setString(1, CLAIM_LOCK);
+                    unlock.executeQuery().close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Refresh the heartbeat and the stats of this node, then sum the stats of the live nodes.
+     * @param onClaimLost Called if the range of this node got claimed by another node, or if too many heartbeats failed in a row.
+     */
+    private void heartbeat(Runnable onClaimLost) {
+        ClusterStats local = ClusterStats.of(bot.getJDA());
+        try (Connection conn = bot.getDatabase().getConnection()) {
+            try (PreparedStatement statement = conn.prepareStatement("UPDATE cluster_nodes SET heartbeat=" + DB_NOW + ", guilds=?, textChannels=?, voiceChannels=?, members=? WHERE nodeId=? AND shardStart=?")) {
+                statement.setInt(1, local.getGuilds());
+                statement.setInt(2, local.getTextChannels());
+                statement.setInt(3, local.getVoiceChannels());
+                statement.setInt(4, local.getMembers());
+                statement.setString(5, nodeId);
+                statement.setInt(6, shardStart);
+                if (statement.executeUpdate() == 0) {
+                    log.error("Node " + nodeId + " lost its shard range to another node.");
+                    executor.shutdown();
+                    onClaimLost.run();
+                    return;
+                }
+            }
+            failedHeartbeats = 0;
+            ClusterStats stats = new ClusterStats(0, 0, 0, 0, 0);
+            try (PreparedStatement statement = conn.prepareStatement("SELECT guilds, textChannels, voiceChannels, members FROM cluster_nodes WHERE heartbeat >= " + DB_NOW + " - ?")) {
+                statement.setLong(1, nodeTimeout);
+                try (ResultSet set = statement.executeQuery()) {
+                    while (set.next()) {
+                        stats = stats.add(new ClusterStats(1, set.getInt("guilds"), set.getInt("textChannels"), set.getInt("voiceChannels"), set.getInt("members")));
+                    }
+                }
+            }
+            clusterStats = stats;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            bot.getStacktraceHandler().sendStacktrace(e, "nodeId:" + nodeId);
+            //Cut off from the database, the other nodes will soon see our range as free. Stop before they claim it.
+            if (++failedHeartbeats >= maxFailedHeartbeats) {
+                log.error("Node " + nodeId + " failed " + failedHeartbeats + " heartbeats in a row, giving up its shard range.");
+                executor.shutdown();
+                onClaimLost.run();
+            }
+        }
+    }
+
+    /**
+     * Retrieve the first shard claimed by this node
+     * @return The first shard of the range
+     */
+    public int getShardStart() {
+        return shardStart;
+    }
+
+    /**
+     * Retrieve the shard after the last one claimed by this node
+     * @return The end of the range, exclusive
+     */
+    public int getShardEnd() {
+        return Math.min(shardStart + rangeSize, shardCount);
+    }
+
+    /**
+     * Retrieve the stats of the whole cluster, as of the last heartbeat
+     * @return The stats of the live nodes, or of this node only before the first heartbeat
+     */
+    public ClusterStats getClusterStats() {
+        ClusterStats stats = clusterStats;
+        return stats != null ? stats : ClusterStats.of(bot.getJDA());
+    }
+
+    /**
+     * Stop the heartbeats and release the shard range so a standby node can claim it right away.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        if (shardStart == -1) {
+            return;
+        }
+        try (Connection conn = bot.getDatabase().getConnection();
+             PreparedStatement statement = conn.prepareStatement("DELETE FROM cluster_nodes WHERE nodeId=? AND shardStart=?")) {
+            statement.setString(1, nodeId);
+            statement.setInt(2, shardStart);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            bot.getStacktraceHandler().sendStacktrace(e, "nodeId:" + nodeId);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.server;
+
+import com.greatmancode.legendarybot.api.LegendaryBot;
+import com.greatmancode.legendarybot.api.server.GuildEntry;
+import com.greatmancode.legendarybot.api.server.GuildRegistry;
+import com.greatmancode.legendarybot.api.server.GuildSettings;
+import net.dv8tion.jda.core.entities.Guild;
+import org.influxdb.dto.Point;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the settings of the active guilds in memory, in their {@link GuildEntry}. Settings are evicted once idle for too long or when
+ * too many guilds are resident, the least recently used first. A guild accessed while not resident gets the defaults right away and its
+ * settings are loaded in the background, so the JDA threads never wait on the database. Code reading a setting to write it back must wait for
+ * {@link GuildSettings#whenLoaded()}, the command handler does so before parsing the messages of the guild.
+ */
+public class GuildSettingsCache {
+
+    /**
+     * A instance of the bot.
+     */
+    private final LegendaryBot bot;
+
+    /**
+     * The registry holding the guild entries
+     */
+    private final GuildRegistry registry;
+
+    /**
+     * Saves the settings, also used to load settings with their writes not saved yet.
+     */
+    private final GuildSettingsWriter writer;
+
+    /**
+     * The maximum amount of resident guilds
+     */
+    private final int maxSize;
+
+    /**
+     * The time after which a guild not accessed is evicted, in milliseconds
+     */
+    private final long maxIdle;
+
+    /**
+     * The amount of guilds with resident settings
+     */
+    private final AtomicInteger resident = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * True when an eviction triggered by the cache size is already queued
+     */
+    private final AtomicBoolean evictionQueued = new AtomicBoolean();
+
+    /**
+     * The threads loading the settings of the guilds accessed while not resident
+     */
+    private final ExecutorService loader;
+
+    /**
+     * The thread evicting the settings and reporting the cache stats
+     */
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "LegendaryBot-Settings-Cache");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Create a settings cache
+     * @param bot A {@link LegendaryBot} instance.
+     * @param registry The {@link GuildRegistry} holding the guild entries.
+     * @param writer The {@link GuildSettingsWriter} saving the settings.
+     * @param maxSize The maximum amount of resident guilds.
+     * @param maxIdle The time after which a guild not accessed is evicted, in milliseconds.
+     * @param loaderThreads The amount of threads loading settings in the background. Should not exceed the size of the database pool.
+     */
+    public GuildSettingsCache(LegendaryBot bot, GuildRegistry registry, GuildSettingsWriter writer, int maxSize, long maxIdle, int loaderThreads) {
+        this.bot = bot;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.loader = Executors.newFixedThreadPool(loaderThreads, r -> {
+            Thread thread = new Thread(r, "LegendaryBot-Settings-Loader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.registry = registry;
+        this.writer = writer;
+        this.maxSize = maxSize;
+        this.maxIdle = maxIdle;
+        executor.scheduleWithFixedDelay(this::evict, 1, 1, TimeUnit.MINUTES);
+        executor.scheduleWithFixedDelay(this::report, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Retrieve the settings of a guild. Never waits on the database: if they are not resident, the settings returned only hold the
+     * defaults and the writes not saved yet until their load completes in the background, see {@link GuildSettings#whenLoaded()}.
+     * @param guild The guild
+     * @return The settings of the guild
+     */
+    public GuildSettings get(Guild guild) {
+        GuildEntry entry = registry.getEntry(guild);
+        entry.setLastAccess(System.currentTimeMillis());
+        GuildSettings settings = entry.getSettings();
+        if (settings != null) {
+            hits.increment();
+            return settings;
+        }
+        misses.increment();
+        IGuildSettings created = null;
+        synchronized (entry) {
+            settings = entry.getSettings();
+            if (settings == null) {
+                created = new IGuildSettings(guild.getId(), bot, writer);
+                settings = created;
+                entry.setSettings(settings);
+                resident.incrementAndGet();
+            }
+        }
+        if (created != null) {
+            loadLater(created);
+        }
+        if (resident.get() > maxSize && evictionQueued.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::evict);
+            } catch (RejectedExecutionException e) {
+                evictionQueued.set(false);
+            }
+        }
+        return settings;
+    }
+
+    /**
+     * Load the settings of a guild in the background, replacing the resident ones. Used when the bot joins a guild.
+     * @param guild The guild
+     */
+    public void load(Guild guild) {
+        GuildEntry entry = registry.getEntry(guild);
+        IGuildSettings settings = new IGuildSettings(guild.getId(), bot, writer);
+        synchronized (entry) {
+            if (entry.getSettings() == null) {
+                resident.incrementAndGet();
+            }
+            entry.setSettings(settings);
+            entry.setLastAccess(System.currentTimeMillis());
+        }
+        loadLater(settings);
+    }
+
+    /**
+     * Load settings from the database on the loader threads
+     * @param settings The settings not loaded yet
+     */
+    private void loadLater(IGuildSettings settings) {
+        try {
+            loader.execute(settings::load);
+        } catch (RejectedExecutionException e) {
+            //Shutting down, the defaults will do.
+        }
+    }
+
+    /**
+     * Make settings already loaded resident. Used to warm the cache at startup, every guild is kept even past the maximum size,
+     * the periodic eviction brings the cache back under it.
+     * @param settings A map of the guild ID and its settings
+     */
+    public void warm(Map<String, GuildSettings> settings) {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, GuildSettings> loaded : settings.entrySet()) {
+            GuildEntry entry = registry.getEntry(Long.parseLong(loaded.getKey()));
+            synchronized (entry) {
+                if (entry.getSettings() == null) {
+                    entry.setSettings(loaded.getValue());
+                    entry.setLastAccess(now);
+                    resident.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Forget a guild. Used when the bot leaves a guild.
+     * @param guildId The ID of the guild
+     */
+    public void remove(long guildId) {
+        GuildEntry entry = registry.getEntryIfPresent(guildId);
+        if (entry != null) {
+            evict(entry);
+        }
+        registry.remove(guildId);
+    }
+
+    /**
+     * Evict the idle guilds, then the least recently used ones until the cache is under its maximum size.
+     */
+    private void evict() {
+        evictionQueued.set(false);
+        long idleLimit = System.currentTimeMillis() - maxIdle;
+        List<GuildEntry> residentEntries = new ArrayList<>();
+        registry.forEach(entry -> {
+            if (entry.getSettings() != null) {
+                if (entry.getLastAccess() < idleLimit) {
+                    evict(entry);
+                } else {
+                    residentEntries.add(entry);
+                }
+            }
+        });
+        int excess = resident.get() - maxSize;
+        if (excess > 0) {
+            //Evict a bit more than needed so the next few misses don't trigger another pass.
+            excess += maxSize / 10;
+            residentEntries.sort(Comparator.comparingLong(GuildEntry::getLastAccess));
+            for (int i = 0; i < excess && i < residentEntries.size(); i++) {
+                evict(residentEntries.get(i));
+            }
+        }
+    }
+
+    /**
+     * Evict the settings of a guild
+     * @param entry The entry of the guild
+     */
+    private void evict(GuildEntry entry) {
+        synchronized (entry) {
+            if (entry.getSettings() != null) {
+                entry.setSettings(null);
+                resident.decrementAndGet();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Send the cache stats of the last interval to the stats server.
+     */
+    private void report() {
+        long intervalHits = hits.sumThenReset();
+        long intervalMisses = misses.sumThenReset();
+        long intervalEvictions = evictions.sumThenReset();
+        long total = intervalHits + intervalMisses;
+        bot.getStatsClient().write(Point.measurement("guildsettings")
+                .addField("resident", resident.get())
+                .addField("guilds", registry.size())
+                .addField("hits", intervalHits)
+                .addField("misses", intervalMisses)
+                .addField("hitrate", total == 0 ? 1.0 : (double) intervalHits / total)
+                .addField("evictions", intervalEvictions)
+                .build());
+    }
+
+    /**
+     * Retrieve the amount of resident guilds
+     * @return The amount of resident guilds
+     */
+    public int size() {
+        return resident.get();
+    }
+
+    /**
+     * Stop the eviction.
+     */
+    public void shutdown() {
+        loader.shutdown();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.server;
+
+import com.greatmancode.legendarybot.api.LegendaryBot;
+import com.greatmancode.legendarybot.api.server.GuildSettings;
+import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.entities.Guild;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads the settings of every guild of a shard with a single query, instead of one query per guild.
+ */
+public class GuildSettingsLoader {
+
+    /**
+     * A instance of the bot.
+     */
+    private final LegendaryBot bot;
+
+    /**
+     * Saves the loaded settings
+     */
+    private final GuildSettingsWriter writer;
+
+    /**
+     * Create a settings loader
+     * @param bot A {@link LegendaryBot} instance.
+     * @param writer The {@link GuildSettingsWriter} saving the loaded settings.
+     */
+    public GuildSettingsLoader(LegendaryBot bot, GuildSettingsWriter writer) {
+        this.bot = bot;
+        this.writer = writer;
+    }
+
+    /**
+     * Load the settings of the guilds of a shard.
+     * @param jda The shard to load
+     * @return A map of the guild ID and its settings, containing every guild of the shard.
+     */
+    public Map<String, GuildSettings> load(JDA jda) {
+        int shardId = jda.getShardInfo() == null ? 0 : jda.getShardInfo().getShardId();
+        int shardCount = jda.getShardInfo() == null ? 1 : jda.getShardInfo().getShardTotal();
+        Map<String, Map<String, String>> rows = query(shardId, shardCount);
+        List<Guild> guilds = jda.getGuilds();
+        Map<String, GuildSettings> result = new HashMap<>(guilds.size() * 4 / 3 + 1);
+        guilds.forEach(guild -> result.put(guild.getId(), new IGuildSettings(guild.getId(), bot, rows.get(guild.getId()), writer)));
+        return result;
+    }
+
+    /**
+     * Stream the guild_config rows of a shard. A guild belongs to shard (guildId &gt;&gt; 22) % shardCount.
+     * @param shardId The shard ID
+     * @param shardCount The amount of shards
+     * @return The settings of every guild of the shard having at least one setting.
+     */
+    private Map<String, Map<String, String>> query(int shardId, int shardCount) {
+        Map<String, Map<String, String>> rows = new HashMap<>();
+        String query = "SELECT guildId,configName,configValue FROM guild_config";
+        if (shardCount > 1) {
+            query += " WHERE (CAST(guildId AS UNSIGNED) >> 22) % ? = ?";
+        }
+        try (Connection conn = bot.getDatabase().getConnection();
+             PreparedStatement statement = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            //Make the MySQL driver stream the rows instead of holding the whole result in memory.
+            statement.setFetchSize(Integer.MIN_VALUE);
+            if (shardCount > 1) {
+                statement.setInt(1, shardCount);
+                statement.setInt(2, shardId);
+            }
+            try (ResultSet set = statement.executeQuery()) {
+                String guildId = null;
+                Map<String, String> settings = null;
+                while (set.next()) {
+                    String rowGuildId = set.getString("guildId");
+                    if (!rowGuildId.equals(guildId)) {
+                        guildId = rowGuildId;
+                        settings = rows.computeIfAbsent(guildId, k -> new HashMap<>());
+                    }
+                    settings.put(set.getString("configName"), set.getString("configValue"));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            bot.getStacktraceHandler().sendStacktrace(e, "shardId:" + shardId);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.server;
+
+import com.greatmancode.legendarybot.api.LegendaryBot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Saves the guild settings to the database in the background. Writes to the same setting of a guild are coalesced, only the last one is saved.
+ * Pending writes are saved in JDBC batches at a fixed interval, or as soon as enough of them are waiting.
+ */
+public class GuildSettingsWriter {
+
+    /**
+     * A instance of the bot.
+     */
+    private final LegendaryBot bot;
+
+    /**
+     * The amount of pending writes that triggers a save before the interval.
+     */
+    private final int batchSize;
+
+    /**
+     * The pending writes. An empty value removes the setting.
+     */
+    private final Map<SettingKey, Optional<String>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * The writes currently being saved. Kept until the save is committed, so settings reloaded in the meantime still see them.
+     */
+    private volatile Map<SettingKey, Optional<String>> saving = Collections.emptyMap();
+
+    /**
+     * The thread saving the pending writes
+     */
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "LegendaryBot-Settings-Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * True when a save triggered by the batch size is already queued
+     */
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+
+    /**
+     * A instance of {@link Logger} to send logs to
+     */
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Create a settings writer
+     * @param bot A {@link LegendaryBot} instance.
+     * @param interval The time between saves, in milliseconds.
+     * @param batchSize The amount of pending writes that triggers a save before the interval.
+     */
+    public GuildSettingsWriter(LegendaryBot bot, long interval, int batchSize) {
+        this.bot = bot;
+        this.batchSize = batchSize;
+        executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue the save of a setting
+     * @param guildId The ID of the guild
+     * @param setting The setting name
+     * @param value The setting value
+     */
+    public void set(String guildId, String setting, String value) {
+        queue(new SettingKey(guildId, setting), Optional.of(value));
+    }
+
+    /**
+     * Queue the removal of a setting
+     * @param guildId The ID of the guild
+     * @param setting The setting name
+     */
+    public void unset(String guildId, String setting) {
+        queue(new SettingKey(guildId, setting), Optional.empty());
+    }
+
+    /**
+     * Queue a write, replacing the pending write of the same setting.
+     * @param key The setting
+     * @param value The value, empty to remove the setting
+     */
+    private void queue(SettingKey key, Optional<String> value) {
+        pending.put(key, value);
+        if (pending.size() >= batchSize && flushQueued.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    flushQueued.set(false);
+                    flush();
+                });
+            } catch (RejectedExecutionException e) {
+                flushQueued.set(false);
+            }
+        }
+    }
+
+    /**
+     * Save every pending write. Writes that fail are queued again, unless a newer write of the same setting was queued in the meantime.
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<SettingKey, Optional<String>> writes = new ConcurrentHashMap<>();
+        saving = writes;
+        for (SettingKey key : new ArrayList<>(pending.keySet())) {
+            Optional<String> value = pending.get(key);
+            if (value != null) {
+                writes.put(key, value);
+                pending.remove(key, value);
+            }
+        }
+        try (Connection conn = bot.getDatabase().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement("INSERT INTO guild_config(guildId, configName, configValue) VALUES(?,?,?) ON DUPLICATE KEY UPDATE configValue=VALUES(configValue)");
+                 PreparedStatement delete = conn.prepareStatement("DELETE FROM guild_config WHERE guildId=? AND configName=?")) {
+                int inserts = 0;
+                int deletes = 0;
+                for (Map.Entry<SettingKey, Optional<String>> write : writes.entrySet()) {
+                    if (write.getValue().isPresent()) {
+                        insert.setString(1, write.getKey().guildId);
+                        insert.setString(2, write.getKey().setting);
+                        insert.setString(3, write.getValue().get());
+                        insert.addBatch();
+                        inserts++;
+                    } else {
+                        delete.setString(1, write.getKey().guildId);
+                        delete.setString(2, write.getKey().setting);
+                        delete.addBatch();
+                        deletes++;
+                    }
+                }
+                if (inserts > 0) {
+                    insert.executeBatch();
+                }
+                if (deletes > 0) {
+                    delete.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            bot.getStacktraceHandler().sendStacktrace(e, "pendingWrites:" + writes.size());
+            writes.forEach(pending::putIfAbsent);
+        } finally {
+            saving = Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Retrieve the writes of a guild not saved yet. Used when the settings of a guild are loaded from the database.
+     * @param guildId The ID of the guild
+     * @return A map of the setting name and its value, an empty value if the setting is removed.
+     */
+    public Map<String, Optional<String>> getPendingWrites(String guildId) {
+        Map<String, Optional<String>> result = new HashMap<>();
+        saving.forEach((key, value) -> {
+            if (key.guildId.equals(guildId)) {
+                result.put(key.setting, value);
+            }
+        });
+        pending.forEach((key, value) -> {
+            if (key.guildId.equals(guildId)) {
+                result.put(key.setting, value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Stop the background saves and save every pending write.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (!pending.isEmpty()) {
+            log.error(pending.size() + " guild settings could not be saved.");
+        }
+    }
+
+    /**
+     * A setting of a guild
+     */
+    private static final class SettingKey {
+        private final String guildId;
+        private final String setting;
+
+        private SettingKey(String guildId, String setting) {
+            this.guildId = guildId;
+            this.setting = setting;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SettingKey)) {
+                return false;
+            }
+            SettingKey other = (SettingKey) o;
+            return guildId.equals(other.guildId) && setting.equals(other.setting);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * guildId.hashCode() + setting.hashCode();
+        }
+    }
+}
@@ -26,17 +26,19 @@ package com.greatmancode.legendarybot.server;
 
 import com.greatmancode.legendarybot.api.LegendaryBot;
 import com.greatmancode.legendarybot.api.server.GuildSettings;
-import net.dv8tion.jda.core.entities.Guild;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashMap;
-import java.util.Map;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 /**
- * A representation of Discord Guild settings. Use a MySQL database to save the parameters
+ * A representation of Discord Guild settings. Use a MySQL database to save the parameters, through a {@link GuildSettingsWriter}.
+ * Changes are visible right away, they are saved in the background.
  */
 public class IGuildSettings implements GuildSettings {
 
@@ -51,88 +53,310 @@ public class IGuildSettings implements GuildSettings {
     private String guildId;
 
     /**
-     * A cache of the Guild settings
+     * Saves the settings to the database
      */
-    private Map<String, String> settings = new HashMap<>();
+    private GuildSettingsWriter writer;
 
     /**
-     * Create a {@link GuildSettings} instance
-     * @param guild The Guild those settings are being linked to.
+     * The settings read on every message, stored in {@link #known} instead of the map.
+     */
+    private enum KnownSetting {
+        PREFIX(true),
+        LANGUAGE(true),
+        WOW_REGION_NAME(true),
+        WOW_SERVER_NAME(true),
+        GUILD_NAME(false);
+
+        /**
+         * True if the values are shared between guilds through {@link #intern(String)}
+         */
+        private final boolean interned;
+
+        KnownSetting(boolean interned) {
+            this.interned = interned;
+        }
+
+        /**
+         * Retrieve the known setting of a setting name
+         * @param setting The setting name
+         * @return The known setting, null if the setting is a free-form one or null.
+         */
+        private static KnownSetting of(String setting) {
+            if (setting == null) {
+                return null;
+            }
+            switch (setting) {
+                case "PREFIX":
+                    return PREFIX;
+                case "LANGUAGE":
+                    return LANGUAGE;
+                case "WOW_REGION_NAME":
+                    return WOW_REGION_NAME;
+                case "WOW_SERVER_NAME":
+                    return WOW_SERVER_NAME;
+                case "GUILD_NAME":
+                    return GUILD_NAME;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    /**
+     * The values shared between guilds: prefixes, languages, regions, realms and free-form setting names.
+     * Weakly referenced, a value is dropped once no guild holds it anymore.
+     */
+    private static final Map<String, WeakReference<String>> INTERNED = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * The known settings of the guilds without any. Shared until the guild saves its first known setting.
+     */
+    private static final String[] NO_KNOWN_SETTINGS = new String[KnownSetting.values().length];
+
+    /**
+     * The free-form settings of the guilds without any. Shared until the guild saves its first free-form setting.
+     */
+    private static final Map<String, String> EMPTY_SETTINGS = Collections.emptyMap();
+
+    /**
+     * The known settings of the guild, indexed by {@link KnownSetting#ordinal()}. Copied on write, never modified once published.
+     */
+    private volatile String[] known = NO_KNOWN_SETTINGS;
+
+    /**
+     * The free-form settings of the guild. Copied on write, never modified once published.
+     */
+    private volatile Map<String, String> settings = EMPTY_SETTINGS;
+
+    /**
+     * The settings changed since this instance was created, null once loaded from the database.
+     */
+    private Set<String> changed;
+
+    /**
+     * Completed once the settings are loaded from the database
+     */
+    private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+
+    /**
+     * Create a {@link GuildSettings} instance not loaded yet, holding only the writes not saved yet. Readers get the defaults
+     * until {@link #load()} fills it from the database, so it can be handed out without waiting on the database.
+     * @param guildId The ID of the Guild those settings are being linked to.
      * @param bot A {@link LegendaryBot} instance.
+     * @param writer The {@link GuildSettingsWriter} saving the settings.
      */
-    public IGuildSettings(Guild guild, LegendaryBot bot) {
+    public IGuildSettings(String guildId, LegendaryBot bot, GuildSettingsWriter writer) {
         this.bot = bot;
-        this.guildId = guild.getId();
-        try {
-            Connection conn = bot.getDatabase().getConnection();
-            PreparedStatement statement = conn.prepareStatement("SELECT configName,configValue FROM guild_config WHERE guildId=?");
+        this.writer = writer;
+        this.guildId = guildId;
+        this.changed = new HashSet<>();
+        applyPendingWrites(writer.getPendingWrites(guildId));
+    }
+
+    /**
+     * Load the settings of the guild from the database. Writes not saved yet and settings changed since this instance was created win over the database values.
+     * Blocks on the database, must not run on a JDA thread.
+     */
+    public void load() {
+        //Taken before the query, so a save committed while loading is not missed.
+        Map<String, Optional<String>> pendingWrites = writer.getPendingWrites(guildId);
+        Map<String, String> loaded = new HashMap<>();
+        try (Connection conn = bot.getDatabase().getConnection();
+             PreparedStatement statement = conn.prepareStatement("SELECT configName,configValue FROM guild_config WHERE guildId=?")) {
             statement.setString(1, guildId);
-            ResultSet set = statement.executeQuery();
-            while (set.next()) {
-                settings.put(set.getString("configName"),set.getString("configValue"));
+            try (ResultSet set = statement.executeQuery()) {
+                while (set.next()) {
+                    loaded.put(set.getString("configName"), set.getString("configValue"));
+                }
             }
-            set.close();
-            statement.close();
-            conn.close();
         } catch (SQLException e) {
             e.printStackTrace();
             bot.getStacktraceHandler().sendStacktrace(e, "guildId:" + guildId);
         }
+        pendingWrites.forEach((setting, value) -> {
+            if (value.isPresent()) {
+                loaded.put(setting, value.get());
+            } else {
+                loaded.remove(setting);
+            }
+        });
+        synchronized (this) {
+            //Settings changed while loading are newer than anything the database returned.
+            changed.forEach(loaded::remove);
+            putAll(loaded);
+            changed = null;
+        }
+        this.loaded.complete(null);
+    }
+
+    /**
+     * Check if the settings are loaded from the database
+     * @return True once loaded, false while only the defaults and the writes not saved yet are known
+     */
+    public synchronized boolean isLoaded() {
+        return changed == null;
+    }
+
+    /**
+     * Apply writes not saved yet
+     * @param pendingWrites The writes, an empty value if the setting is removed
+     */
+    private synchronized void applyPendingWrites(Map<String, Optional<String>> pendingWrites) {
+        pendingWrites.forEach((setting, value) -> {
+            if (value.isPresent()) {
+                put(setting, value.get());
+            } else {
+                remove(setting);
+            }
+        });
+    }
+
+    /**
+     * Create a {@link GuildSettings} instance from settings already loaded. See {@link GuildSettingsLoader}.
+     * @param guildId The ID of the Guild those settings are being linked to.
+     * @param bot A {@link LegendaryBot} instance.
+     * @param settings The settings of the guild, null if the guild has no settings.
+     * @param writer The {@link GuildSettingsWriter} saving the settings.
+     */
+    public IGuildSettings(String guildId, LegendaryBot bot, Map<String, String> settings, GuildSettingsWriter writer) {
+        this.bot = bot;
+        this.writer = writer;
+        this.guildId = guildId;
+        if (settings != null) {
+            putAll(settings);
+        }
+        loaded.complete(null);
+    }
+
+    @Override
+    public CompletionStage<Void> whenLoaded() {
+        return loaded;
     }
 
 
     @Override
     public String getWowServerName() {
-        return settings.get("WOW_SERVER_NAME");
+        return known[KnownSetting.WOW_SERVER_NAME.ordinal()];
     }
 
     @Override
     public String getRegionName() {
-        return settings.get("WOW_REGION_NAME");
+        return known[KnownSetting.WOW_REGION_NAME.ordinal()];
     }
 
     @Override
     public String getGuildName() {
-        return settings.get("GUILD_NAME");
+        return known[KnownSetting.GUILD_NAME.ordinal()];
     }
 
     @Override
     public String getSetting(String setting) {
-        return settings.get(setting);
+        KnownSetting knownSetting = KnownSetting.of(setting);
+        return knownSetting != null ? known[knownSetting.ordinal()] : settings.get(setting);
     }
 
     @Override
-    public void setSetting(String setting, String value) {
-        try {
-            Connection conn = bot.getDatabase().getConnection();
-            PreparedStatement statement = conn.prepareStatement("INSERT INTO guild_config(guildId, configName, configValue) VALUES(?,?,?) ON DUPLICATE KEY UPDATE configValue=VALUES(configValue)");
-            statement.setString(1, guildId);
-            statement.setString(2, setting);
-            statement.setString(3, value);
-            statement.executeUpdate();
-            statement.close();
-            conn.close();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            bot.getStacktraceHandler().sendStacktrace(e, "guildId:" + guildId, "setting:" + setting, "value:" + value);
+    public synchronized void setSetting(String setting, String value) {
+        put(setting, value);
+        if (changed != null) {
+            changed.add(setting);
         }
-        settings.put(setting,value);
+        writer.set(guildId, setting, value);
     }
 
     @Override
-    public void unsetSetting(String setting) {
-        try {
-            Connection conn = bot.getDatabase().getConnection();
-            PreparedStatement statement = conn.prepareStatement("DELETE FROM guild_config WHERE guildId=? AND configName=?");
-            statement.setString(1, guildId);
-            statement.setString(2, setting);
-            statement.executeUpdate();
-            statement.close();
-            conn.close();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            bot.getStacktraceHandler().sendStacktrace(e, "guildId:" + guildId, "setting:" + setting);
+    public synchronized void unsetSetting(String setting) {
+        remove(setting);
+        if (changed != null) {
+            changed.add(setting);
+        }
+        writer.unset(guildId, setting);
+    }
+
+    /**
+     * Store a setting in memory. The arrays and maps read by other threads are replaced, never modified.
+     * @param setting The setting name
+     * @param value The setting value
+     */
+    private synchronized void put(String setting, String value) {
+        KnownSetting knownSetting = KnownSetting.of(setting);
+        if (knownSetting != null) {
+            String[] updated = known.clone();
+            updated[knownSetting.ordinal()] = knownSetting.interned ? intern(value) : value;
+            known = updated;
+        } else {
+            Map<String, String> updated = new HashMap<>(settings.size() + 1, 1f);
+            updated.putAll(settings);
+            updated.put(intern(setting), value);
+            settings = updated;
+        }
+    }
+
+    /**
+     * Store several settings in memory, publishing them at once
+     * @param values The setting names and values
+     */
+    private synchronized void putAll(Map<String, String> values) {
+        String[] updatedKnown = null;
+        Map<String, String> updatedSettings = null;
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            KnownSetting knownSetting = KnownSetting.of(value.getKey());
+            if (knownSetting != null) {
+                if (updatedKnown == null) {
+                    updatedKnown = known.clone();
+                }
+                updatedKnown[knownSetting.ordinal()] = knownSetting.interned ? intern(value.getValue()) : value.getValue();
+            } else {
+                if (updatedSettings == null) {
+                    updatedSettings = new HashMap<>(settings);
+                }
+                updatedSettings.put(intern(value.getKey()), value.getValue());
+            }
+        }
+        if (updatedKnown != null) {
+            known = updatedKnown;
+        }
+        if (updatedSettings != null) {
+            settings = updatedSettings;
+        }
+    }
+
+    /**
+     * Remove a setting from memory
+     * @param setting The setting name
+     */
+    private synchronized void remove(String setting) {
+        KnownSetting knownSetting = KnownSetting.of(setting);
+        if (knownSetting != null) {
+            if (known[knownSetting.ordinal()] != null) {
+                String[] updated = known.clone();
+                updated[knownSetting.ordinal()] = null;
+                known = updated;
+            }
+        } else if (settings.containsKey(setting)) {
+            Map<String, String> updated = new HashMap<>(settings);
+            updated.remove(setting);
+            settings = updated.isEmpty() ? EMPTY_SETTINGS : updated;
+        }
+    }
+
+    /**
+     * Retrieve the shared instance of a string
+     * @param value The string
+     * @return The instance shared by every guild having this value
+     */
+    private static String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        synchronized (INTERNED) {
+            WeakReference<String> reference = INTERNED.get(value);
+            String existing = reference != null ? reference.get() : null;
+            if (existing != null) {
+                return existing;
+            }
+            INTERNED.put(value, new WeakReference<>(value));
+            return value;
         }
-        settings.remove(setting);
     }
 }
@@ -0,0 +1,162 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.server;
+
+import com.greatmancode.legendarybot.api.TestBot;
+import com.greatmancode.legendarybot.api.server.GuildRegistry;
+import com.greatmancode.legendarybot.api.server.GuildSettings;
+import net.dv8tion.jda.core.entities.Guild;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class GuildSettingsCacheTest {
+
+    private final SettingsDatabase database = new SettingsDatabase();
+    private final TestBot bot = new TestBot(database);
+    private final GuildRegistry registry = new GuildRegistry(1);
+    private GuildSettingsWriter writer;
+    private GuildSettingsCache cache;
+
+    @Before
+    public void store() {
+        for (int i = 1; i <= 3; i++) {
+            Map<String, String> stored = new HashMap<>();
+            stored.put("PREFIX", "?");
+            stored.put("streamers", "a,TWITCH");
+            database.stored.put(String.valueOf(i), stored);
+        }
+        writer = new GuildSettingsWriter(bot, 3600000, 1000);
+    }
+
+    @After
+    public void shutdown() {
+        cache.shutdown();
+        writer.shutdown();
+    }
+
+    @Test
+    public void missLoadsInTheBackground() throws Exception {
+        cache = new GuildSettingsCache(bot, registry, writer, 10, 3600000, 1);
+        GuildSettings settings = cache.get(guild(1));
+        settings.whenLoaded().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        assertEquals("?", settings.getSetting("PREFIX"));
+        assertSame(settings, cache.get(guild(1)));
+        assertEquals(1, database.queries);
+    }
+
+    @Test
+    public void leastRecentlyUsedGuildIsEvicted() throws Exception {
+        cache = new GuildSettingsCache(bot, registry, writer, 2, 3600000, 1);
+        cache.get(guild(1));
+        Thread.sleep(5);
+        cache.get(guild(2));
+        Thread.sleep(5);
+        cache.get(guild(1));
+        Thread.sleep(5);
+        cache.get(guild(3));
+        waitForSize(2);
+        assertNull(registry.getEntryIfPresent(2).getSettings());
+        assertNotNull(registry.getEntryIfPresent(1).getSettings());
+        assertNotNull(registry.getEntryIfPresent(3).getSettings());
+    }
+
+    @Test
+    public void evictedGuildKeepsItsSettingsThroughAWriteBeforeTheLoad() throws Exception {
+        cache = new GuildSettingsCache(bot, registry, writer, 1, 3600000, 1);
+        cache.get(guild(1)).whenLoaded().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        Thread.sleep(5);
+        cache.get(guild(2));
+        waitForSize(1);
+        assertNull(registry.getEntryIfPresent(1).getSettings());
+
+        database.blockQueries = new CountDownLatch(1);
+        GuildSettings settings = cache.get(guild(1));
+        settings.setSetting("LANGUAGE", "fr");
+        assertFalse(settings.whenLoaded().toCompletableFuture().isDone());
+        database.blockQueries.countDown();
+        settings.whenLoaded().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        assertEquals("fr", settings.getSetting("LANGUAGE"));
+        assertEquals("?", settings.getSetting("PREFIX"));
+        assertEquals("a,TWITCH", settings.getSetting("streamers"));
+    }
+
+    @Test
+    public void evictedGuildSeesItsWritesNotSavedYet() throws Exception {
+        cache = new GuildSettingsCache(bot, registry, writer, 1, 3600000, 1);
+        GuildSettings settings = cache.get(guild(1));
+        settings.whenLoaded().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        settings.setSetting("streamers", "a,TWITCH;b,TWITCH");
+        Thread.sleep(5);
+        cache.get(guild(2));
+        waitForSize(1);
+
+        database.blockQueries = new CountDownLatch(1);
+        settings = cache.get(guild(1));
+        assertEquals("a,TWITCH;b,TWITCH", settings.getSetting("streamers"));
+        database.blockQueries.countDown();
+        settings.whenLoaded().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        assertEquals("a,TWITCH;b,TWITCH", settings.getSetting("streamers"));
+    }
+
+    private void waitForSize(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.size() > expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, cache.size());
+    }
+
+    /**
+     * Build a guild answering its ID, and null, 0 or false to everything else
+     */
+    private static Guild guild(long id) {
+        return (Guild) Proxy.newProxyInstance(GuildSettingsCacheTest.class.getClassLoader(), new Class<?>[]{Guild.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getId":
+                    return String.valueOf(id);
+                case "getIdLong":
+                    return id;
+                default:
+                    Class<?> returnType = method.getReturnType();
+                    if (returnType == boolean.class) {
+                        return false;
+                    } else if (returnType == long.class) {
+                        return 0L;
+                    } else if (returnType == int.class) {
+                        return 0;
+                    }
+                    return null;
+            }
+        });
+    }
+}
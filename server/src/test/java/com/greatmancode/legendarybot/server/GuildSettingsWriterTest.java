@@ -0,0 +1,186 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.server;
+
+import com.greatmancode.legendarybot.api.TestBot;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+public class GuildSettingsWriterTest {
+
+    private final RecordingDataSource database = new RecordingDataSource();
+    private final TestBot bot = new TestBot(database);
+    private GuildSettingsWriter writer;
+
+    @After
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    @Test
+    public void writesToTheSameSettingAreCoalesced() {
+        writer = new GuildSettingsWriter(bot, 3600000, 1000);
+        writer.set("1", "PREFIX", "?");
+        writer.set("1", "PREFIX", "!");
+        writer.set("1", "LANG", "fr");
+        writer.unset("1", "LANG");
+        writer.set("2", "PREFIX", "$");
+
+        Map<String, Optional<String>> pending = writer.getPendingWrites("1");
+        assertEquals(2, pending.size());
+        assertEquals(Optional.of("!"), pending.get("PREFIX"));
+        assertEquals(Optional.empty(), pending.get("LANG"));
+
+        writer.flush();
+        assertEquals(new HashSet<>(Arrays.asList("SET 1 PREFIX !", "DELETE 1 LANG", "SET 2 PREFIX $")), new HashSet<>(database.committed));
+        assertEquals(3, database.committed.size());
+        assertTrue(writer.getPendingWrites("1").isEmpty());
+    }
+
+    @Test
+    public void batchSizeTriggersASave() throws InterruptedException {
+        writer = new GuildSettingsWriter(bot, 3600000, 3);
+        writer.set("1", "A", "1");
+        writer.set("1", "B", "1");
+        assertTrue(database.committed.isEmpty());
+        writer.set("1", "C", "1");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (database.committed.size() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, database.committed.size());
+    }
+
+    @Test
+    public void failedSaveIsRetriedWithoutLosingNewerWrites() {
+        writer = new GuildSettingsWriter(bot, 3600000, 1000);
+        writer.set("1", "A", "old");
+        writer.set("1", "B", "1");
+        database.failing = true;
+        //A newer write of A arrives while the save is running
+        database.duringBatch = () -> writer.set("1", "A", "new");
+        writer.flush();
+        assertTrue(database.committed.isEmpty());
+        assertEquals(1, bot.getStacktraces().size());
+
+        Map<String, Optional<String>> pending = writer.getPendingWrites("1");
+        assertEquals(Optional.of("new"), pending.get("A"));
+        assertEquals(Optional.of("1"), pending.get("B"));
+
+        database.failing = false;
+        database.duringBatch = null;
+        writer.flush();
+        assertEquals(new HashSet<>(Arrays.asList("SET 1 A new", "SET 1 B 1")), new HashSet<>(database.committed));
+    }
+
+    @Test
+    public void writesBeingSavedAreStillVisible() {
+        writer = new GuildSettingsWriter(bot, 3600000, 1000);
+        writer.set("1", "A", "1");
+        List<Map<String, Optional<String>>> seen = new ArrayList<>();
+        database.duringBatch = () -> seen.add(writer.getPendingWrites("1"));
+        writer.flush();
+        assertEquals(Optional.of("1"), seen.get(0).get("A"));
+    }
+
+    @Test
+    public void shutdownSavesThePendingWrites() {
+        writer = new GuildSettingsWriter(bot, 3600000, 1000);
+        writer.set("1", "A", "1");
+        writer.shutdown();
+        assertEquals(Collections.singletonList("SET 1 A 1"), database.committed);
+    }
+
+    /**
+     * A database keeping the settings writes it commits
+     */
+    private static class RecordingDataSource extends HikariDataSource {
+        private final List<String> committed = new CopyOnWriteArrayList<>();
+        private volatile boolean failing;
+        private volatile Runnable duringBatch;
+
+        @Override
+        public Connection getConnection() {
+            List<String> transaction = new ArrayList<>();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "prepareStatement":
+                        return statement((String) args[0], transaction);
+                    case "commit":
+                        committed.addAll(transaction);
+                        transaction.clear();
+                        return null;
+                    case "rollback":
+                        transaction.clear();
+                        return null;
+                    default:
+                        return null;
+                }
+            });
+        }
+
+        private PreparedStatement statement(String sql, List<String> transaction) {
+            String operation = sql.startsWith("DELETE") ? "DELETE" : "SET";
+            List<String> parameters = new ArrayList<>(Arrays.asList(null, null, null));
+            List<String> batch = new ArrayList<>();
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "setString":
+                        parameters.set((int) args[0] - 1, (String) args[1]);
+                        return null;
+                    case "addBatch":
+                        StringBuilder row = new StringBuilder(operation);
+                        parameters.stream().filter(Objects::nonNull).forEach(parameter -> row.append(' ').append(parameter));
+                        batch.add(row.toString());
+                        Collections.fill(parameters, null);
+                        return null;
+                    case "executeBatch":
+                        Runnable hook = duringBatch;
+                        if (hook != null) {
+                            hook.run();
+                        }
+                        if (failing) {
+                            throw new SQLException("Database down");
+                        }
+                        transaction.addAll(batch);
+                        int[] counts = new int[batch.size()];
+                        batch.clear();
+                        return counts;
+                    default:
+                        return null;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.server;
+
+import com.greatmancode.legendarybot.api.TestBot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class IGuildSettingsTest {
+
+    private final SettingsDatabase database = new SettingsDatabase();
+    private final TestBot bot = new TestBot(database);
+    private GuildSettingsWriter writer;
+
+    @Before
+    public void store() {
+        Map<String, String> stored = new HashMap<>();
+        stored.put("PREFIX", "?");
+        stored.put("streamers", "a,TWITCH");
+        database.stored.put("1", stored);
+        writer = new GuildSettingsWriter(bot, 3600000, 1000);
+    }
+
+    @After
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    @Test
+    public void unloadedSettingsOnlyHoldTheDefaults() {
+        IGuildSettings settings = new IGuildSettings("1", bot, writer);
+        assertFalse(settings.isLoaded());
+        assertFalse(settings.whenLoaded().toCompletableFuture().isDone());
+        assertNull(settings.getSetting("PREFIX"));
+
+        settings.load();
+        assertTrue(settings.isLoaded());
+        assertTrue(settings.whenLoaded().toCompletableFuture().isDone());
+        assertEquals("?", settings.getSetting("PREFIX"));
+        assertEquals("a,TWITCH", settings.getSetting("streamers"));
+    }
+
+    @Test
+    public void nullSettingIsNotSet() {
+        IGuildSettings settings = new IGuildSettings("1", bot, writer);
+        settings.load();
+        assertNull(settings.getSetting(null));
+    }
+
+    @Test
+    public void writeBeforeTheLoadKeepsTheOtherStoredSettings() {
+        //The guild got evicted, a write reaches the new instance before its load.
+        IGuildSettings settings = new IGuildSettings("1", bot, writer);
+        settings.setSetting("LANGUAGE", "fr");
+        settings.load();
+        assertEquals("fr", settings.getSetting("LANGUAGE"));
+        assertEquals("?", settings.getSetting("PREFIX"));
+        assertEquals("a,TWITCH", settings.getSetting("streamers"));
+    }
+
+    @Test
+    public void writeBeforeTheLoadWinsOverTheStoredValue() {
+        IGuildSettings settings = new IGuildSettings("1", bot, writer);
+        settings.setSetting("PREFIX", "$");
+        settings.load();
+        assertEquals("$", settings.getSetting("PREFIX"));
+    }
+
+    @Test
+    public void readModifyWriteWaitingForTheLoadKeepsTheStoredValue() throws Exception {
+        IGuildSettings settings = new IGuildSettings("1", bot, writer);
+        CompletableFuture<Void> added = settings.whenLoaded().toCompletableFuture().thenRun(() -> {
+            String streamers = settings.getSetting("streamers");
+            settings.setSetting("streamers", streamers == null ? "b,TWITCH" : streamers + ";b,TWITCH");
+        });
+        CompletableFuture.runAsync(settings::load);
+        added.get(5, TimeUnit.SECONDS);
+        assertEquals("a,TWITCH;b,TWITCH", settings.getSetting("streamers"));
+        assertEquals("a,TWITCH;b,TWITCH", writer.getPendingWrites("1").get("streamers").get());
+    }
+
+    @Test
+    public void pendingWritesWinOverTheDatabase() {
+        writer.set("1", "PREFIX", "%");
+        writer.unset("1", "streamers");
+        IGuildSettings settings = new IGuildSettings("1", bot, writer);
+        assertEquals("%", settings.getSetting("PREFIX"));
+        settings.load();
+        assertEquals("%", settings.getSetting("PREFIX"));
+        assertNull(settings.getSetting("streamers"));
+    }
+
+    @Test
+    public void loadedSettingsAreReadyRightAway() {
+        Map<String, String> loaded = new HashMap<>();
+        loaded.put("PREFIX", "?");
+        IGuildSettings settings = new IGuildSettings("1", bot, loaded, writer);
+        assertTrue(settings.whenLoaded().toCompletableFuture().isDone());
+        assertEquals("?", settings.getSetting("PREFIX"));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) Copyright (c) 2017-2017, Greatmancode
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.greatmancode.legendarybot.server;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A database answering the settings query of {@link IGuildSettings#load()} from memory. Writes are accepted and ignored.
+ */
+class SettingsDatabase extends HikariDataSource {
+
+    /**
+     * The stored settings per guild ID
+     */
+    final Map<String, Map<String, String>> stored = new ConcurrentHashMap<>();
+
+    /**
+     * When set, the settings query waits for it before returning
+     */
+    volatile CountDownLatch blockQueries;
+
+    /**
+     * The amount of settings queries run
+     */
+    volatile int queries;
+
+    @Override
+    public Connection getConnection() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            if (method.getName().equals("prepareStatement")) {
+                return statement();
+            }
+            return method.getReturnType() == boolean.class ? false : null;
+        });
+    }
+
+    private PreparedStatement statement() {
+        String[] guildId = new String[1];
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "setString":
+                    guildId[0] = (String) args[1];
+                    return null;
+                case "executeQuery":
+                    queries++;
+                    CountDownLatch block = blockQueries;
+                    if (block != null) {
+                        block.await(5, TimeUnit.SECONDS);
+                    }
+                    return resultSet(new ArrayList<>(stored.getOrDefault(guildId[0], Collections.emptyMap()).entrySet()));
+                case "executeBatch":
+                    return new int[0];
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private ResultSet resultSet(List<Map.Entry<String, String>> rows) {
+        int[] row = {-1};
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "next":
+                    return ++row[0] < rows.size();
+                case "getString":
+                    Map.Entry<String, String> current = rows.get(row[0]);
+                    return args[0].equals("configName") ? current.getKey() : current.getValue();
+                default:
+                    return null;
+            }
+        });
+    }
+}
@@ -24,10 +24,14 @@
 
 package com.greatmancode.legendarybot.commands.server;
 
+import com.greatmancode.legendarybot.api.commands.CacheableCommand;
+import com.greatmancode.legendarybot.api.commands.CommandCost;
 import com.greatmancode.legendarybot.api.commands.PublicCommand;
 import com.greatmancode.legendarybot.api.plugin.LegendaryBotPlugin;
-import com.greatmancode.legendarybot.api.utils.BattleNetAPIInterceptor;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
 import net.dv8tion.jda.core.EmbedBuilder;
+import net.dv8tion.jda.core.MessageBuilder;
+import net.dv8tion.jda.core.entities.Message;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
@@ -46,14 +50,12 @@ import java.util.Map;
 /**
  * !server command - Return the current status of the WoW server.
  */
-public class ServerCommand extends LegendaryBotPlugin implements PublicCommand {
+public class ServerCommand extends LegendaryBotPlugin implements PublicCommand, CacheableCommand {
 
     /**
      * The HttpClient to do web requests.
      */
-    private OkHttpClient client = new OkHttpClient.Builder()
-            .addInterceptor(new BattleNetAPIInterceptor(getBot()))
-            .build();
+    private OkHttpClient client = getBot().getHttpClients().get(HttpClientRegistry.BATTLENET);
 
     public ServerCommand(PluginWrapper wrapper) {
         super(wrapper);
@@ -73,7 +75,7 @@ public class ServerCommand extends LegendaryBotPlugin implements PublicCommand {
     }
 
     @Override
-    public void execute(MessageReceivedEvent event, String[] args) {
+    public Message render(MessageReceivedEvent event, String[] args) {
         String serverName = null;
         try {
             //Todo support correctly slugs
@@ -84,7 +86,7 @@ public class ServerCommand extends LegendaryBotPlugin implements PublicCommand {
                 serverName = getBot().getGuildSettings(event.getGuild()).getWowServerName();
                 if (serverName == null) {
                     event.getChannel().sendMessage("No server set. You are required to type a server.").queue();
-                    return;
+                    return null;
                 }
                 map = getServerStatus(getBot().getGuildSettings(event.getGuild()).getRegionName(), serverName);
             }
@@ -101,9 +103,12 @@ public class ServerCommand extends LegendaryBotPlugin implements PublicCommand {
                 eb.addField("Population", map.get("population"), true);
                 eb.addField("Currently a Queue?", map.get("queue"), true);
             } else {
+                //Not cached, the next call may well succeed.
                 eb.addField("Error","An error occured. Try again later.", false);
+                event.getChannel().sendMessage(eb.build()).queue();
+                return null;
             }
-            event.getChannel().sendMessage(eb.build()).queue();
+            return new MessageBuilder().setEmbed(eb.build()).build();
         } catch (IOException e) {
             if (args.length > 0) {
                 getBot().getStacktraceHandler().sendStacktrace(e, "serverName:" + args[0]);
@@ -113,6 +118,7 @@ public class ServerCommand extends LegendaryBotPlugin implements PublicCommand {
             e.printStackTrace();
             event.getChannel().sendMessage("An error occured. Try again later!").queue();
         }
+        return null;
     }
 
     @Override
@@ -125,6 +131,22 @@ public class ServerCommand extends LegendaryBotPlugin implements PublicCommand {
         return 1;
     }
 
+    @Override
+    public long cacheDuration() {
+        return 60 * 1000;
+    }
+
+    @Override
+    public String cacheKey(MessageReceivedEvent event, String[] args) {
+        String serverName = args.length == 1 ? args[0] : getBot().getGuildSettings(event.getGuild()).getWowServerName();
+        return getBot().getGuildSettings(event.getGuild()).getRegionName() + ":" + String.valueOf(serverName).toLowerCase();
+    }
+
+    @Override
+    public CommandCost cost() {
+        return CommandCost.MEDIUM;
+    }
+
     @Override
     public String help() {
         return "Retrieve a Realm status.\n\n" +
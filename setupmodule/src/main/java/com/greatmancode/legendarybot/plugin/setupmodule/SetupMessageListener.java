@@ -24,7 +24,7 @@
 package com.greatmancode.legendarybot.plugin.setupmodule;
 
 import com.greatmancode.legendarybot.api.server.GuildSettings;
-import com.greatmancode.legendarybot.api.utils.BattleNetAPIInterceptor;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
 import com.greatmancode.legendarybot.api.utils.WoWUtils;
 import net.dv8tion.jda.core.entities.ChannelType;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
@@ -58,9 +58,7 @@ public class SetupMessageListener extends ListenerAdapter {
 
     public SetupMessageListener(SetupPlugin plugin) {
         this.plugin = plugin;
-        client = new OkHttpClient.Builder()
-                .addInterceptor(new BattleNetAPIInterceptor(plugin.getBot()))
-                .build();
+        client = plugin.getBot().getHttpClients().get(HttpClientRegistry.BATTLENET);
     }
 
     @Override
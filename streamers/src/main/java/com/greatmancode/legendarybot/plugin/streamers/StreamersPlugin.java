@@ -25,6 +25,7 @@
 package com.greatmancode.legendarybot.plugin.streamers;
 
 import com.greatmancode.legendarybot.api.plugin.LegendaryBotPlugin;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
 import net.dv8tion.jda.core.entities.Guild;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -47,7 +48,7 @@ public class StreamersPlugin extends LegendaryBotPlugin {
     /**
      * The HTTP client to do web requests.
      */
-    private OkHttpClient client = new OkHttpClient();
+    private OkHttpClient client = getBot().getHttpClients().get(HttpClientRegistry.TWITCH);
 
     /**
      * The properties file containing all the settings
@@ -24,10 +24,15 @@
 
 package com.greatmancode.legendarybot.commands.token;
 
+import com.greatmancode.legendarybot.api.commands.CacheableCommand;
+import com.greatmancode.legendarybot.api.commands.CommandCost;
 import com.greatmancode.legendarybot.api.commands.PublicCommand;
 import com.greatmancode.legendarybot.api.commands.ZeroArgsCommand;
 import com.greatmancode.legendarybot.api.plugin.LegendaryBotPlugin;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
 import net.dv8tion.jda.core.EmbedBuilder;
+import net.dv8tion.jda.core.MessageBuilder;
+import net.dv8tion.jda.core.entities.Message;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -42,19 +47,19 @@ import java.io.IOException;
 /**
  * !token Command - Get the price in Gold of the WoW Token.
  */
-public class TokenCommand extends LegendaryBotPlugin implements ZeroArgsCommand,PublicCommand {
+public class TokenCommand extends LegendaryBotPlugin implements ZeroArgsCommand,PublicCommand,CacheableCommand {
 
     /**
      * The HTTP Client to do web requests.
      */
-    private OkHttpClient client = new OkHttpClient();
+    private OkHttpClient client = getBot().getHttpClients().get(HttpClientRegistry.DEFAULT);
 
     public TokenCommand(PluginWrapper wrapper) {
         super(wrapper);
     }
 
     @Override
-    public void execute(MessageReceivedEvent event, String[] args) {
+    public Message render(MessageReceivedEvent event, String[] args) {
         Request webRequest = new Request.Builder().url("https://data.wowtoken.info/snapshot.json").build();
 
 
@@ -62,14 +67,14 @@ public class TokenCommand extends LegendaryBotPlugin implements ZeroArgsCommand,
             String request = client.newCall(webRequest).execute().body().string();
             if (request == null) {
                 event.getChannel().sendMessage("An error occured. Please try again later!").queue();
-                return;
+                return null;
             }
             JSONParser parser = new JSONParser();
             JSONObject object = (JSONObject) parser.parse(request);
             String region = getBot().getGuildSettings(event.getGuild()).getRegionName();
             if (region == null) {
                 event.getChannel().sendMessage("The owner of the server needs to configure the region. Ask him to use the !setup command.").queue();
-                return;
+                return null;
             }
             if (getBot().getGuildSettings(event.getGuild()).getRegionName().equals("US")) {
                 region = "NA";
@@ -77,7 +82,7 @@ public class TokenCommand extends LegendaryBotPlugin implements ZeroArgsCommand,
             JSONObject naserver = (JSONObject) object.get(region);
             if (naserver == null) {
                 event.getChannel().sendMessage("The region isn't set properly or WowToken is having issues. Please use the !setup command to be sure you have the proper realm..").queue();
-                return;
+                return null;
             }
             JSONObject prices = (JSONObject) naserver.get("formatted");
             String price = (String) prices.get("buy");
@@ -93,12 +98,28 @@ public class TokenCommand extends LegendaryBotPlugin implements ZeroArgsCommand,
             eb.addField("Maximum 24H", maxPrice, true);
             eb.addField("Percentage 24H range", pctPrice + "", true);
             eb.setFooter("Information taken from https://wowtoken.info/", "http://wow.zamimg.com/images/wow/icons/large/wow_token01.jpg");
-            event.getChannel().sendMessage(eb.build()).queue();
+            return new MessageBuilder().setEmbed(eb.build()).build();
         } catch (ParseException | IOException e) {
             e.printStackTrace();
             getBot().getStacktraceHandler().sendStacktrace(e, "regionName:" + getBot().getGuildSettings(event.getGuild()).getRegionName());
             event.getChannel().sendMessage("An error occured. Try again later!").queue();
         }
+        return null;
+    }
+
+    @Override
+    public long cacheDuration() {
+        return 5 * 60 * 1000;
+    }
+
+    @Override
+    public String cacheKey(MessageReceivedEvent event, String[] args) {
+        return String.valueOf(getBot().getGuildSettings(event.getGuild()).getRegionName());
+    }
+
+    @Override
+    public CommandCost cost() {
+        return CommandCost.MEDIUM;
     }
 
     @Override
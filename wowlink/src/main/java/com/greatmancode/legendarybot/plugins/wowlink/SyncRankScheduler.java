@@ -1,5 +1,6 @@
 package com.greatmancode.legendarybot.plugins.wowlink;
 
+import com.greatmancode.legendarybot.api.utils.BattleNetQuotaManager;
 import net.dv8tion.jda.core.entities.Guild;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,7 +29,7 @@ public class SyncRankScheduler {
             try {
                 String character = plugin.getMainCharacterForUserInGuild(member.getUser(), guild);
                 if (character != null) {
-                    String rank = plugin.getWoWRank(guild,character);
+                    String rank = plugin.getWoWRank(guild, character, BattleNetQuotaManager.Lane.BACKGROUND);
                     if (rank != null) {
                         plugin.setDiscordRank(member.getUser(), guild, rank);
                     }
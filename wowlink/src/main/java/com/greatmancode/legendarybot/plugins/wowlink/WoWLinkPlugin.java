@@ -31,8 +31,9 @@ import com.github.scribejava.core.model.Verb;
 import com.github.scribejava.core.oauth.OAuth20Service;
 import com.greatmancode.legendarybot.api.plugin.LegendaryBotPlugin;
 import com.greatmancode.legendarybot.api.server.GuildSettings;
-import com.greatmancode.legendarybot.api.utils.BattleNetAPIInterceptor;
+import com.greatmancode.legendarybot.api.utils.BattleNetQuotaManager;
 import com.greatmancode.legendarybot.api.utils.HeroClass;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
 import com.greatmancode.legendarybot.plugins.wowlink.commands.*;
 import com.greatmancode.legendarybot.plugins.wowlink.utils.OAuthBattleNetApi;
 import com.greatmancode.legendarybot.plugins.wowlink.utils.WoWCharacter;
@@ -75,9 +76,7 @@ public class WoWLinkPlugin extends LegendaryBotPlugin {
     /**
      * The HttpClient to do web requests.
      */
-    private OkHttpClient client = new OkHttpClient.Builder()
-            .addInterceptor(new BattleNetAPIInterceptor(getBot()))
-            .build();
+    private OkHttpClient client = getBot().getHttpClients().get(HttpClientRegistry.BATTLENET);
 
     /**
      * The settings file
@@ -308,6 +307,17 @@ public class WoWLinkPlugin extends LegendaryBotPlugin {
      * @return The Discord rank of a character.
      */
     public String getWoWRank(Guild guild, String character) {
+        return getWoWRank(guild, character, BattleNetQuotaManager.Lane.INTERACTIVE);
+    }
+
+    /**
+     * Get the Discord rank linked to a WoW guild rank.
+     * @param guild The guild to get the setting from.
+     * @param character The character to get the rank from.
+     * @param lane The Battle.net quota lane of the roster request.
+     * @return The Discord rank of a character.
+     */
+    public String getWoWRank(Guild guild, String character, BattleNetQuotaManager.Lane lane) {
         int[] rank = new int[1];
         rank[0] = -1;
         String rankDiscord = null;
@@ -316,7 +326,7 @@ public class WoWLinkPlugin extends LegendaryBotPlugin {
                 .addPathSegments("/wow/guild/" + getBot().getGuildSettings(guild).getWowServerName()+"/" + getBot().getGuildSettings(guild).getGuildName())
                 .addQueryParameter("fields", "members")
                 .build();
-        Request request = new Request.Builder().url(url).build();
+        Request request = new Request.Builder().url(url).tag(lane).build();
         try {
             String result = client.newCall(request).execute().body().string();
             JSONParser parser = new JSONParser();
@@ -24,6 +24,7 @@
 package com.greatmancode.legendarybot.plugins.wowlink.commands;
 
 import com.greatmancode.legendarybot.api.commands.AdminCommand;
+import com.greatmancode.legendarybot.api.commands.CommandCost;
 import com.greatmancode.legendarybot.api.commands.ZeroArgsCommand;
 import com.greatmancode.legendarybot.plugins.wowlink.WoWLinkPlugin;
 import net.dv8tion.jda.core.Permission;
@@ -78,6 +79,11 @@ public class SyncGuildCommand extends AdminCommand implements ZeroArgsCommand {
         event.getChannel().sendMessage("All ranks are synced!").queue();
     }
 
+    @Override
+    public CommandCost cost() {
+        return CommandCost.HEAVY;
+    }
+
     @Override
     public String help() {
         return "Sync the rank of all the users with a main WoW character.";
@@ -23,6 +23,7 @@
  */
 package com.greatmancode.legendarybot.plugins.wowlink.commands;
 
+import com.greatmancode.legendarybot.api.commands.CommandCost;
 import com.greatmancode.legendarybot.api.commands.PublicCommand;
 import com.greatmancode.legendarybot.api.commands.ZeroArgsCommand;
 import com.greatmancode.legendarybot.plugins.wowlink.WoWLinkPlugin;
@@ -72,6 +73,11 @@ public class SyncRankCommand implements ZeroArgsCommand, PublicCommand {
 
     }
 
+    @Override
+    public CommandCost cost() {
+        return CommandCost.HEAVY;
+    }
+
     @Override
     public String help() {
         return "Sync your Guild rank with your Discord account";
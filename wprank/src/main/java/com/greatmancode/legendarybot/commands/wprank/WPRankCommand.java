@@ -24,9 +24,14 @@
 
 package com.greatmancode.legendarybot.commands.wprank;
 
+import com.greatmancode.legendarybot.api.commands.CacheableCommand;
+import com.greatmancode.legendarybot.api.commands.CommandCost;
 import com.greatmancode.legendarybot.api.commands.PublicCommand;
 import com.greatmancode.legendarybot.api.plugin.LegendaryBotPlugin;
+import com.greatmancode.legendarybot.api.utils.HttpClientRegistry;
 import net.dv8tion.jda.core.EmbedBuilder;
+import net.dv8tion.jda.core.MessageBuilder;
+import net.dv8tion.jda.core.entities.Message;
 import net.dv8tion.jda.core.events.message.MessageReceivedEvent;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
@@ -41,25 +46,25 @@ import java.io.IOException;
 /**
  * !wprank Command - Gives the WoW Progress rank of the Guild.
  */
-public class WPRankCommand extends LegendaryBotPlugin implements PublicCommand {
+public class WPRankCommand extends LegendaryBotPlugin implements PublicCommand, CacheableCommand {
 
     /**
      * The HTTP Client
      */
-    private OkHttpClient client = new OkHttpClient();
+    private OkHttpClient client = getBot().getHttpClients().get(HttpClientRegistry.RAIDERIO);
 
     public WPRankCommand(PluginWrapper wrapper) {
         super(wrapper);
     }
 
     @Override
-    public void execute(MessageReceivedEvent event, String[] args) {
+    public Message render(MessageReceivedEvent event, String[] args) {
         String serverName = getBot().getGuildSettings(event.getGuild()).getWowServerName();
         String region = getBot().getGuildSettings(event.getGuild()).getRegionName();
         String guild = getBot().getGuildSettings(event.getGuild()).getGuildName();
         if (serverName == null || region == null || guild == null) {
             event.getChannel().sendMessage("The server name, the region and the guild must be configured for this command to work!").queue();
-            return;
+            return null;
         }
 
         //https://raider.io/api/v1/guilds/profile
@@ -78,7 +83,7 @@ public class WPRankCommand extends LegendaryBotPlugin implements PublicCommand {
             result = client.newCall(request).execute().body().string();
             if ("null".equals(result)) {
                 event.getChannel().sendMessage("Guild not found on WowProgress!").queue();
-                return;
+                return null;
             }
 
             try {
@@ -87,7 +92,7 @@ public class WPRankCommand extends LegendaryBotPlugin implements PublicCommand {
 
                 if (obj.containsKey("error")) {
                     event.getChannel().sendMessage("Guild not found on Raider.IO!").queue();
-                    return;
+                    return null;
                 }
                 String realm = (String) obj.get("realm");
                 JSONObject raidRankings = (JSONObject) obj.get("raid_rankings");
@@ -104,7 +109,7 @@ public class WPRankCommand extends LegendaryBotPlugin implements PublicCommand {
                 eb.addField("Trial of Valor", formatRanking(trialOfValor), true);
                 eb.addField("The Emerald Nightmare", formatRanking(theEmeraldNightmare), true);
 
-                event.getChannel().sendMessage(eb.build()).queue();
+                return new MessageBuilder().setEmbed(eb.build()).build();
             } catch (ParseException e) {
                 e.printStackTrace();
                 getBot().getStacktraceHandler().sendStacktrace(e,"guildid:" + event.getGuild().getId(),"channel:" + event.getChannel().getName(),"servername:" + serverName, "region:" + region, "wowguild:" + guild);
@@ -113,8 +118,7 @@ public class WPRankCommand extends LegendaryBotPlugin implements PublicCommand {
             e.printStackTrace();
             getBot().getStacktraceHandler().sendStacktrace(e,"guildid:" + event.getGuild().getId(),"channel:" + event.getChannel().getName(),"servername:" + serverName, "region:" + region, "wowguild:" + guild);
         }
-
-
+        return null;
     }
 
     @Override
@@ -127,6 +131,16 @@ public class WPRankCommand extends LegendaryBotPlugin implements PublicCommand {
         return 0;
     }
 
+    @Override
+    public long cacheDuration() {
+        return 10 * 60 * 1000;
+    }
+
+    @Override
+    public CommandCost cost() {
+        return CommandCost.HEAVY;
+    }
+
     @Override
     public String help() {
         return "Retrieve the guild's rank on Raider.IO";